@@ -0,0 +1,85 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.OpenAIStreamEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * OpenAI 스트림 한 줄 -> message_chunk 이벤트 바이트까지의 청크당 비용 비교
+ * legacy: readTree + trim/substring + HashMap + ObjectMapper 직렬화 (SseEmitter의 Jackson 컨버터와 동일)
+ * templated: 스트리밍 파서 + 템플릿 인코더
+ * -prof gc의 gc.alloc.rate.norm 값으로 청크당 할당량을 비교한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ChatStreamPipelineBenchmark {
+
+    private static final String DELTA_LINE = "{\"type\":\"response.output_text.delta\",\"sequence_number\":42,"
+            + "\"item_id\":\"msg_0123456789abcdef\",\"output_index\":0,\"content_index\":0,"
+            + "\"delta\":\"다이빙 전 장비 점검은 \\\"버디 체크\\\"로 \"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChatStreamEventEncoder encoder;
+    private CRC32 checksum;
+    private long chunkCount;
+    private CRC32 legacyChecksum;
+    private long legacyChunkCount;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        encoder = new ChatStreamEventEncoder();
+        checksum = new CRC32();
+        chunkCount = 0;
+        legacyChecksum = new CRC32();
+        legacyChunkCount = 0;
+    }
+
+    @Benchmark
+    public byte[] legacy() throws Exception {
+        String line = DELTA_LINE.trim();
+        if (line.startsWith("data:")) {
+            line = line.substring(5).trim();
+        }
+        JsonNode node = objectMapper.readTree(line);
+        if (!"response.output_text.delta".equals(node.path("type").asText())) {
+            return null;
+        }
+        String delta = node.path("delta").asText();
+
+        legacyChecksum.update(delta.getBytes(StandardCharsets.UTF_8));
+        long index = ++legacyChunkCount;
+
+        Map<String, Object> chunkEvent = new HashMap<>();
+        chunkEvent.put("eventType", "message_chunk");
+        chunkEvent.put("chunk", Map.of("content", delta, "index", index));
+        chunkEvent.put("timestamp", System.currentTimeMillis());
+        return objectMapper.writeValueAsBytes(chunkEvent);
+    }
+
+    @Benchmark
+    public byte[] templated() throws Exception {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse(DELTA_LINE);
+        if (!event.hasDelta()) {
+            return null;
+        }
+        // ChatStreamSession.bufferDelta/flushFrame과 같은 경로 (누적 버퍼는 제외)
+        encoder.updateChecksum(checksum, event.delta());
+        long index = ++chunkCount;
+        return encoder.messageChunk(event.delta(), index, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,80 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.service.OpenAIModelRouter.RequestClass;
+import com.divary.global.config.properties.OpenAIClientProperties;
+import com.divary.global.config.properties.OpenAIRoutingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로컬 스텁으로 라우팅 + OpenAIClient 경로(스케줄러/서킷 브레이커/지표) 비용과 보조 모델 전환 시간을 오프라인 측정
+ * routedResponse/routedStream: 스텁 지연 0, 호출당 클라이언트 측 오버헤드
+ * failover: 기본 모델이 응답하지 않아 responseTimeout(5ms) 후 보조 모델로 넘어가는 전체 시간
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class OpenAIModelRoutingBenchmark {
+
+    private static final String MODEL = "stub-standard";
+    private static final String STALLED_MODEL = "stub-stalled";
+
+    private OpenAIModelRouter router;
+    private OpenAIModelRouter failoverRouter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenAIClientProperties clientProperties = new OpenAIClientProperties();
+        clientProperties.getStub().setEnabled(true);
+        clientProperties.getStub().setFirstEventLatency(Duration.ZERO);
+        clientProperties.getStub().setChunkInterval(Duration.ZERO);
+        clientProperties.getStub().setStalledModels(List.of(STALLED_MODEL));
+        // 측정 중 토큰 예산에 막히지 않도록 스케줄러는 끔
+        clientProperties.getRateLimit().setTokensPerMinute(0);
+        OpenAIClient client = new OpenAIClient("stub", "http://localhost", clientProperties, new SimpleMeterRegistry());
+
+        router = new OpenAIModelRouter(MODEL, client, new OpenAIRoutingProperties(), new SimpleMeterRegistry());
+
+        OpenAIRoutingProperties failover = new OpenAIRoutingProperties();
+        failover.setFallbackModel(MODEL);
+        failover.setResponseTimeout(Duration.ofMillis(5));
+        failoverRouter = new OpenAIModelRouter(STALLED_MODEL, client, failover, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String routedResponse() {
+        return router.post("response", chatRequest(router)).block();
+    }
+
+    @Benchmark
+    public Long routedStream() {
+        return router.stream("stream", chatRequest(router)).count().block();
+    }
+
+    @Benchmark
+    public String failover() {
+        return failoverRouter.post("response", chatRequest(failoverRouter)).block();
+    }
+
+    private Map<String, Object> chatRequest(OpenAIModelRouter modelRouter) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("max_output_tokens", 450);
+        requestBody.put("instructions", "system prompt");
+        requestBody.put("input", "user: 안전정지는 몇 m에서 몇 분 하나요?");
+        requestBody.put("model", modelRouter.route(RequestClass.CHAT, requestBody));
+        return requestBody;
+    }
+}
@@ -6,14 +6,17 @@ import com.divary.domain.chatroom.dto.request.ChatRoomTitleUpdateRequest;
 import com.divary.domain.chatroom.dto.response.ChatRoomDetailResponse;
 import com.divary.domain.chatroom.dto.response.ChatRoomMessageResponse;
 import com.divary.domain.chatroom.dto.response.ChatRoomResponse;
+import com.divary.domain.chatroom.service.ChatRoomAsyncService;
 import com.divary.domain.chatroom.service.ChatRoomService;
 import com.divary.domain.chatroom.service.ChatRoomStreamService;
+import com.divary.domain.chatroom.service.ChatStreamAdmissionService;
 import com.divary.global.config.SwaggerConfig.ApiErrorExamples;
 import com.divary.global.config.SwaggerConfig.ApiSuccessResponse;
 import com.divary.global.config.security.CustomUserPrincipal;
 import com.divary.global.exception.ErrorCode;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,11 +24,14 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -35,7 +41,9 @@ import java.util.List;
 public class ChatRoomController {
 
     private final ChatRoomService chatRoomService;
+    private final ChatRoomAsyncService chatRoomAsyncService;
     private final ChatRoomStreamService chatRoomStreamService;
+    private final ChatStreamAdmissionService admissionService;
 
     @PostMapping(consumes = "multipart/form-data")
     @Operation(summary = "채팅방 메시지 전송", description = "새 채팅방 생성 또는 기존 채팅방에 메시지 전송\n chatRoomId 없으면 새 채팅방 생성\n 보낸 메시지와 AI 응답만 반환")
@@ -49,6 +57,18 @@ public class ChatRoomController {
         return ApiResponse.success(response);
     }
 
+    @PostMapping(value = "/async", consumes = "multipart/form-data")
+    @Operation(summary = "채팅방 메시지 전송 (논블로킹)", description = "POST /chatrooms와 요청/응답이 같으며, AI 응답을 기다리는 동안 요청 스레드와 DB 커넥션을 점유하지 않음\n 사용자 메시지와 AI 응답은 각각 짧은 트랜잭션으로 저장")
+    @ApiSuccessResponse(dataType = ChatRoomMessageResponse.class)
+    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED})
+    public CompletableFuture<ApiResponse<ChatRoomMessageResponse>> sendChatRoomMessageAsync(
+            @Valid @ModelAttribute ChatRoomMessageRequest request,
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        return chatRoomAsyncService.sendChatRoomMessage(request, userPrincipal.getId())
+                .thenApply(ApiResponse::success);
+    }
+
     @PostMapping(value = "/stream", consumes = "multipart/form-data", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(
         summary = "채팅방 메시지 스트리밍 전송 (SSE)", 
@@ -60,14 +80,26 @@ public class ChatRoomController {
             - chatRoomId 없으면 새 채팅방 생성, 있으면 기존 채팅방 사용
             
             **이벤트 타입:**
-            - stream_start: 스트림 시작 정보
+            - stream_start: 스트림 시작 정보 (protocol.version, protocol.mode 포함)
+            - title_ready: 새 채팅방의 제목 생성 완료 (채팅방은 임시 제목으로 먼저 생성됨)
             - message_chunk: 실시간 메시지 청크
+            - message_snapshot: 수신이 밀린 연결에서 대기 중인 청크를 대신하는 누적 메시지 전체 (재연결 시에도 사용)
+            - 모든 이벤트에 단조 증가 SSE id 부여 (재연결 시 Last-Event-ID로 사용)
             - stream_complete: 스트림 완료 및 통계
             - stream_error: 오류 발생 시
+            - stream_rejected: 동시 스트림 한도 초과로 입장 거절 (retryAfterMs 이후 재시도)
+            
+            **스트림 프로토콜 (v2):**
+            - streamMode=DELTA (기본값): message_chunk는 증분(chunk.content)만 전송
+            - 첫 청크는 바로, 이후 청크는 짧은 시간(기본 40ms) 동안 받은 내용을 묶어 전송
+            - 일정 청크마다 checkpoint(characterCount, checksum)를 함께 전송
+            - stream_complete의 finalMessage.characterCount / checksum으로 클라이언트가 조립한 메시지 검증
+            - checksum: 누적 메시지 UTF-8 바이트의 CRC32 (8자리 16진수), characterCount: UTF-16 코드 유닛 수
+            - streamMode=ACCUMULATED: 구버전 호환, 매 청크마다 message.accumulated 전체 전송
             
             **iOS 호환:**
             - EventSource API 지원
-            - 자동 재연결 지원
+            - 자동 재연결 지원 (GET /chatrooms/stream/{connectionId} + Last-Event-ID)
             """
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -78,15 +110,31 @@ public class ChatRoomController {
             examples = {
                 @ExampleObject(
                     name = "stream_start",
-                    value = "event: stream_start\ndata:{\"timestamp\":1756451904719,\"requestInfo\":{\"hasImage\":false,\"messageLength\":34},\"eventType\":\"stream_start\",\"connectionId\":\"conn_1_1\"}\n\n"
+                    value = "event: stream_start\ndata:{\"timestamp\":1756451904719,\"protocol\":{\"version\":2,\"mode\":\"DELTA\"},\"requestInfo\":{\"hasImage\":false,\"messageLength\":34},\"eventType\":\"stream_start\",\"connectionId\":\"conn_1_1\"}\n\n"
+                ),
+                @ExampleObject(
+                    name = "title_ready",
+                    value = "event: title_ready\ndata:{\"chatRoom\":{\"id\":12,\"title\":\"흰동가리의 특징\"},\"timestamp\":1756451905102,\"eventType\":\"title_ready\"}\n\n"
                 ),
                 @ExampleObject(
                     name = "message_chunk",
+                    value = "event: message_chunk\ndata:{\"timestamp\":1756451906306,\"chunk\":{\"index\":2,\"content\":\"장\"},\"eventType\":\"message_chunk\"}\n\n"
+                ),
+                @ExampleObject(
+                    name = "message_chunk (checkpoint)",
+                    value = "event: message_chunk\ndata:{\"checkpoint\":{\"characterCount\":58,\"checksum\":\"8d3f61a2\"},\"timestamp\":1756451906711,\"chunk\":{\"index\":32,\"content\":\"는\"},\"eventType\":\"message_chunk\"}\n\n"
+                ),
+                @ExampleObject(
+                    name = "message_chunk (ACCUMULATED)",
                     value = "event: message_chunk\ndata:{\"message\":{\"characterCount\":2,\"accumulated\":\"가장\"},\"timestamp\":1756451906306,\"chunk\":{\"index\":2,\"content\":\"장\"},\"eventType\":\"message_chunk\"}\n\n"
                 ),
                 @ExampleObject(
                     name = "stream_complete",
-                    value = "event: stream_complete\ndata:{\"finalMessage\":{\"wordCount\":85,\"totalChunks\":235,\"content\":\"...\"},\"timestamp\":1756451907714,\"eventType\":\"stream_complete\"}\n\n"
+                    value = "event: stream_complete\ndata:{\"finalMessage\":{\"wordCount\":85,\"totalChunks\":235,\"characterCount\":412,\"checksum\":\"1c2b9e07\"},\"timestamp\":1756451907714,\"eventType\":\"stream_complete\"}\n\n"
+                ),
+                @ExampleObject(
+                    name = "stream_rejected",
+                    value = "retry: 3000\nevent: stream_rejected\ndata:{\"eventType\":\"stream_rejected\",\"error\":{\"type\":\"CHAT_ROOM_005\",\"reason\":\"user_limit\",\"message\":\"요청이 많아 답변을 시작할 수 없습니다. 잠시 후 다시 시도해주세요.\"},\"retryAfterMs\":3000,\"timestamp\":1756371342000}\n\n"
                 ),
                 @ExampleObject(
                     name = "stream_error",
@@ -96,7 +144,7 @@ public class ChatRoomController {
         )
     )
     @ApiSuccessResponse(dataType = SseEmitter.class)
-    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED, ErrorCode.INTERNAL_SERVER_ERROR})
+    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED, ErrorCode.CHAT_STREAM_BUSY, ErrorCode.INTERNAL_SERVER_ERROR})
     public SseEmitter streamChatRoomMessage(
             @Valid @ModelAttribute ChatRoomMessageRequest request,
             @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
@@ -105,29 +153,107 @@ public class ChatRoomController {
                 userPrincipal.getId(), request.getChatRoomId(), 
                 request.getMessage() != null ? request.getMessage().length() : 0);
 
-        return chatRoomStreamService.streamChatRoomMessage(request, userPrincipal.getId());
+        // 트랜잭션(DB 커넥션) 시작 전에 입장 제어
+        ChatStreamAdmissionService.Admission admission = admissionService.tryAdmit(userPrincipal.getId());
+        if (!admission.isAdmitted()) {
+            return chatRoomStreamService.rejectStream(admission);
+        }
+        try {
+            return chatRoomStreamService.streamChatRoomMessage(request, userPrincipal.getId(), admission.permit());
+        } catch (RuntimeException e) {
+            admission.permit().release();
+            throw e;
+        }
+    }
+
+    @PostMapping(value = "/stream/reactive", consumes = "multipart/form-data", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "채팅방 메시지 스트리밍 전송 (Flux SSE)",
+        description = """
+            **Flux<ServerSentEvent> 기반 스트리밍 채팅 API**
+            - 요청/이벤트 형식은 POST /chatrooms/stream과 동일 (stream_start, title_ready, message_chunk, stream_complete, stream_error, stream_rejected)
+            - 채팅방 저장, 이미지 업로드, 응답 저장은 별도 스케줄러에서 실행되어 요청 스레드를 바로 반환
+            - 재연결은 GET /chatrooms/stream/{connectionId} + Last-Event-ID로 동일하게 지원
+            """
+    )
+    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED, ErrorCode.CHAT_STREAM_BUSY, ErrorCode.INTERNAL_SERVER_ERROR})
+    public Flux<ServerSentEvent<Object>> streamChatRoomMessageReactive(
+            @Valid @ModelAttribute ChatRoomMessageRequest request,
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        log.info("스트리밍 채팅 요청 수신(reactive) - userId: {}, chatRoomId: {}, messageLength: {}",
+                userPrincipal.getId(), request.getChatRoomId(),
+                request.getMessage() != null ? request.getMessage().length() : 0);
+
+        ChatStreamAdmissionService.Admission admission = admissionService.tryAdmit(userPrincipal.getId());
+        if (!admission.isAdmitted()) {
+            return chatRoomStreamService.rejectStreamReactive(admission);
+        }
+        try {
+            return chatRoomStreamService.streamChatRoomMessageReactive(request, userPrincipal.getId(), admission.permit());
+        } catch (RuntimeException e) {
+            admission.permit().release();
+            throw e;
+        }
+    }
+
+    @GetMapping(value = "/stream/{connectionId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "끊긴 스트림 재연결 (SSE)",
+        description = """
+            **스트림 재연결 API**
+            - stream_start 이벤트의 connectionId로 재연결
+            - Last-Event-ID 헤더(또는 lastEventId 파라미터) 이후의 이벤트를 재전송
+            - 답변 생성이 아직 진행 중이면 이후 청크를 이어서 전송
+            - 재전송 버퍼에서 밀려난 구간이 있으면 message_snapshot(누적 메시지 전체)으로 대체
+            - 스트림 종료 후에도 일정 시간 동안은 마지막 이벤트들을 재전송
+            """
+    )
+    @ApiSuccessResponse(dataType = SseEmitter.class)
+    @ApiErrorExamples(value = {ErrorCode.CHAT_STREAM_NOT_FOUND, ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED})
+    public SseEmitter resumeChatRoomStream(
+            @PathVariable String connectionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam,
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        long lastEventId = lastEventIdHeader != null ? lastEventIdHeader
+                : (lastEventIdParam != null ? lastEventIdParam : 0L);
+
+        log.info("스트림 재연결 요청 수신 - userId: {}, connectionId: {}, lastEventId: {}",
+                userPrincipal.getId(), connectionId, lastEventId);
+
+        return chatRoomStreamService.resumeStream(connectionId, userPrincipal.getId(), lastEventId);
     }
 
     @GetMapping("/{chatRoomId}")
-    @Operation(summary = "채팅방 상세 조회", description = "채팅방의 상세 정보를 조회합니다.")
+    @Operation(summary = "채팅방 상세 조회", description = "채팅방의 상세 정보와 메시지 한 페이지를 조회합니다. "
+            + "커서가 없으면 최근 메시지, before면 그 이전, after면 그 이후 메시지를 반환합니다 (페이지 안은 시간순).")
     @ApiSuccessResponse(dataType = ChatRoomDetailResponse.class)
-    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_NOT_FOUND, ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.AUTHENTICATION_REQUIRED})
-    public ApiResponse<ChatRoomDetailResponse> getChatRoomDetail(@PathVariable Long chatRoomId) {
-        ChatRoomDetailResponse response = chatRoomService.getChatRoomDetail(chatRoomId);
+    @ApiErrorExamples(value = {ErrorCode.CHAT_ROOM_NOT_FOUND, ErrorCode.CHAT_ROOM_ACCESS_DENIED, ErrorCode.INVALID_INPUT_VALUE, ErrorCode.AUTHENTICATION_REQUIRED})
+    public ApiResponse<ChatRoomDetailResponse> getChatRoomDetail(
+            @PathVariable Long chatRoomId,
+            @Parameter(description = "이 메시지 이전 페이지 (page.oldestMessageId)", example = "msg_011") @RequestParam(required = false) String before,
+            @Parameter(description = "이 메시지 이후 페이지 (page.newestMessageId)", example = "msg_040") @RequestParam(required = false) String after,
+            @Parameter(description = "페이지 크기 (최대 100)", example = "30") @RequestParam(required = false) Integer size) {
+        ChatRoomDetailResponse response = chatRoomService.getChatRoomDetail(chatRoomId, before, after, size);
         return ApiResponse.success(response);
     }
 
 
     @GetMapping
-    @Operation(summary = "채팅방 목록 조회", description = "사용자의 채팅방 목록을 조회합니다.")
+    @Operation(summary = "채팅방 목록 조회", description = "사용자의 채팅방 목록을 최근 수정순으로 조회합니다. "
+            + "size가 있으면 한 페이지만 반환하며, 다음 페이지는 마지막 항목의 cursor로 조회합니다.")
     @ApiSuccessResponse(dataType = ChatRoomResponse.class, isArray = true)
-    @ApiErrorExamples(value = {ErrorCode.AUTHENTICATION_REQUIRED})
+    @ApiErrorExamples(value = {ErrorCode.INVALID_INPUT_VALUE, ErrorCode.AUTHENTICATION_REQUIRED})
     public ApiResponse<List<ChatRoomResponse>> getChatRooms(
+            @Parameter(description = "직전 페이지 마지막 항목의 cursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 크기 (최대 100, 없으면 전체)", example = "20") @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
         
         Long userId = userPrincipal.getId();
         
-        List<ChatRoomResponse> responses = chatRoomService.getChatRoomsByUserId(userId);
+        List<ChatRoomResponse> responses = chatRoomService.getChatRoomsByUserId(userId, cursor, size);
         return ApiResponse.success(responses);
     }
 
@@ -0,0 +1,13 @@
+package com.divary.domain.chatroom.dto;
+
+import java.time.LocalDateTime;
+
+// 채팅방 목록용 프로젝션 (JSON 컬럼 없이 목록에 필요한 컬럼만 조회)
+public record ChatRoomSummary(Long id, String title, Integer lastMessageSeq, String lastMessagePreview,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    // lastMessageSeq가 없으면 아직 JSON 컬럼에 메시지가 있는 채팅방 (개수/미리보기는 엔티티에서 계산)
+    public boolean isMessagesMigrated() {
+        return lastMessageSeq != null;
+    }
+}
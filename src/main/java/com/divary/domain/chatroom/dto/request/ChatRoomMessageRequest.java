@@ -1,5 +1,6 @@
 package com.divary.domain.chatroom.dto.request;
 
+import com.divary.domain.chatroom.enums.StreamMode;
 import org.springframework.lang.Nullable;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -28,4 +29,8 @@ public class ChatRoomMessageRequest {
     @Schema(description = "첨부 이미지 (선택사항)", type = "string", format = "binary")
     @Nullable
     private MultipartFile image;
+
+    @Schema(description = "스트림 청크 전송 방식 (스트리밍 API 전용, 기본 DELTA / 구버전 클라이언트는 ACCUMULATED)", example = "DELTA")
+    @Nullable
+    private StreamMode streamMode;
 } 
\ No newline at end of file
@@ -15,15 +15,38 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "채팅방 상세 정보 응답")
-// 채팅방 정보, 전체 메시지 목록, API 사용량 정보 
+// 채팅방 정보, 메시지 한 페이지(최신순으로 넘기고 페이지 안은 시간순), API 사용량 정보 
 public class ChatRoomDetailResponse {
     
     @Schema(description = "채팅방 정보")
     private ChatRoomResponse chatRoom;
     
-    @Schema(description = "메시지 목록 (사용자 메시지 + AI 응답)")
+    @Schema(description = "메시지 목록 (사용자 메시지 + AI 응답, 시간순)")
     private List<Message> messages;
     
     @Schema(description = "API 사용량 정보")
     private ChatRoomMetadata.Usage usage;
+
+    @Schema(description = "메시지 페이지 정보")
+    private PageInfo page;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "메시지 페이지 정보 (이전 메시지는 before=oldestMessageId, 이후 메시지는 after=newestMessageId로 조회)")
+    public static class PageInfo {
+
+        @Schema(description = "페이지의 가장 오래된 메시지 ID", example = "msg_011")
+        private String oldestMessageId;
+
+        @Schema(description = "페이지의 가장 최근 메시지 ID", example = "msg_040")
+        private String newestMessageId;
+
+        @Schema(description = "더 이전 메시지 존재 여부", example = "true")
+        private boolean hasOlder;
+
+        @Schema(description = "더 최근 메시지 존재 여부", example = "false")
+        private boolean hasNewer;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.divary.domain.chatroom.dto.response;
 
+import com.divary.domain.chatroom.dto.ChatRoomSummary;
 import com.divary.domain.chatroom.entity.ChatRoom;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "채팅방 응답")
-// 채팅방 목록 조회 시 사용하는 응답 (채팅방 정보, 메시지 개수)
+// 채팅방 목록 조회 시 사용하는 응답 (채팅방 정보, 메시지 개수, 마지막 메시지 미리보기)
 public class ChatRoomResponse {
 
     @Schema(description = "채팅방 ID", example = "1")
@@ -32,16 +33,32 @@ public class ChatRoomResponse {
     @Schema(description = "수정일시", example = "2025-01-01T10:00:00.000000")
     private LocalDateTime updatedAt;
 
+    @Schema(description = "마지막 메시지 미리보기", example = "마스크 김서림은 습기와 온도 차이 때문에...")
+    private String lastMessagePreview;
+
+    @Schema(description = "목록 페이지 커서 (다음 페이지는 마지막 항목의 cursor로 조회)", example = "MjAyNS0wMS0wMVQxMDowMDowMHwx")
+    private String cursor;
+
     public static ChatRoomResponse from(ChatRoom chatRoom) {
-        // messages가 null이거나 빈 Map인 경우 0으로 처리
-        int messageCount = (chatRoom.getMessages() != null) ? chatRoom.getMessages().size() : 0;
-        
         return ChatRoomResponse.builder()
                 .id(chatRoom.getId())
                 .title(chatRoom.getTitle())
-                .messageCount(messageCount)
+                .messageCount(chatRoom.getMessageCount())
                 .createdAt(chatRoom.getCreatedAt())
                 .updatedAt(chatRoom.getUpdatedAt())
+                .lastMessagePreview(chatRoom.getLastMessagePreview())
+                .build();
+    }
+
+    public static ChatRoomResponse from(ChatRoomSummary summary, String cursor) {
+        return ChatRoomResponse.builder()
+                .id(summary.id())
+                .title(summary.title())
+                .messageCount(summary.lastMessageSeq())
+                .createdAt(summary.createdAt())
+                .updatedAt(summary.updatedAt())
+                .lastMessagePreview(summary.lastMessagePreview())
+                .cursor(cursor)
                 .build();
     }
 } 
\ No newline at end of file
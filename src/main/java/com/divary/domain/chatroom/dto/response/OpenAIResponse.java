@@ -13,6 +13,9 @@ import lombok.NoArgsConstructor;
 @Schema(description = "OpenAI API 응답")
 public class OpenAIResponse {
     
+    @Schema(description = "OpenAI 응답 ID (다음 요청의 previous_response_id)", example = "resp_68af4030592c81938ec0a5fbab4a3e9f")
+    private String responseId;
+
     @Schema(description = "생성된 컨텐츠", example = "안녕하세요! 도움이 필요하시면 언제든 말씀해주세요.")
     private String content;
     
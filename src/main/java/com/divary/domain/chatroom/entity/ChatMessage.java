@@ -0,0 +1,84 @@
+package com.divary.domain.chatroom.entity;
+
+import com.divary.common.entity.BaseEntity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 채팅 메시지 (채팅방별 seq 순서로 추가만 하고, 답변과 동시에 업로드한 이미지 URL만 나중에 반영)
+@Entity
+@Table(name = "chat_message",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_message_room_seq", columnNames = {"chat_room_id", "seq"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Schema(description = "채팅 메시지 엔티티")
+public class ChatMessage extends BaseEntity {
+
+    @Column(name = "chat_room_id", nullable = false)
+    @Schema(description = "채팅방 ID", example = "1")
+    private Long chatRoomId;
+
+    @Column(name = "seq", nullable = false)
+    @Schema(description = "채팅방 내 메시지 순번 (1부터 시작)", example = "3")
+    private Integer seq;
+
+    @Column(name = "role", nullable = false, length = 20)
+    @Schema(description = "메시지 역할 (user, assistant)", example = "user")
+    private String role;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    @Schema(description = "메시지 내용")
+    private String content;
+
+    @Column(name = "image_url")
+    @Schema(description = "첨부 이미지 URL")
+    private String imageUrl;
+
+    @Column(name = "image_name")
+    @Schema(description = "첨부 이미지 원본 파일명")
+    private String imageName;
+
+    @Column(name = "sent_at", nullable = false)
+    @Schema(description = "메시지 시각 (epoch millis)", example = "1756451904719")
+    private Long sentAt;
+
+    @Builder
+    public ChatMessage(Long chatRoomId, Integer seq, String role, String content, String imageUrl, String imageName, Long sentAt) {
+        this.chatRoomId = chatRoomId;
+        this.seq = seq;
+        this.role = role;
+        this.content = content != null ? content : "";
+        this.imageUrl = imageUrl;
+        this.imageName = imageName;
+        this.sentAt = sentAt != null ? sentAt : System.currentTimeMillis();
+    }
+
+    // 기존 API의 메시지 ID 형식 (msg_001, msg_002, ...)
+    public String getMessageId() {
+        return String.format("msg_%03d", seq);
+    }
+
+    // 메시지 ID(msg_042)에서 seq를 꺼냄 (형식이 다르면 null)
+    public static Integer parseSeq(String messageId) {
+        if (messageId == null || !messageId.startsWith("msg_")) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(messageId.substring(4));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // 업로드가 트랜잭션 안에서 끝난 경우 바로 반영 (이후에는 ChatMessageRepository.updateImageUrl)
+    public void attachImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public boolean hasImage() {
+        return imageUrl != null || imageName != null;
+    }
+}
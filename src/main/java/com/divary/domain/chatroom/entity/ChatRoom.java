@@ -7,18 +7,24 @@ import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.util.HashMap;
 
+// 메시지 추가와 비동기 제목/요약 갱신이 서로의 컬럼을 덮어쓰지 않도록 변경된 컬럼만 UPDATE
 @Entity
-@Table(name = "chat_rooms")
+@DynamicUpdate
+@Table(name = "chat_rooms",
+        indexes = @Index(name = "idx_chat_rooms_user_updated", columnList = "user_id, updated_at, id"))
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Schema(description = "채팅방 엔티티")
 public class ChatRoom extends BaseEntity {
 
+    public static final int PREVIEW_LENGTH = 100;
+
     @Column(name = "user_id", nullable = false)
     @Schema(description = "사용자 ID", example = "1")
     private Long userId;
@@ -27,22 +33,53 @@ public class ChatRoom extends BaseEntity {
     @Schema(description = "채팅방 제목", example = "해양생물 문의")
     private String title;
 
+    // chat_message 테이블로 이전되기 전의 메시지 (이전 후 null)
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "messages", columnDefinition = "JSON")
-    @Schema(description = "채팅 메시지들 (JSON 형태)")
+    @Schema(description = "채팅 메시지들 (JSON 형태, 이전 전 채팅방만)")
     private HashMap<String, Object> messages;
 
+    // 마지막 chat_message seq (null이면 아직 JSON 컬럼에 메시지가 있는 채팅방)
+    @Column(name = "last_message_seq")
+    @Schema(description = "마지막 메시지 순번", example = "4")
+    private Integer lastMessageSeq;
+
+    // 목록 조회용 마지막 메시지 미리보기 (메시지 추가 시 갱신, JSON/메시지 테이블을 읽지 않고 목록 구성)
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    @Schema(description = "마지막 메시지 미리보기", example = "마스크 김서림은 습기와 온도 차이 때문에...")
+    private String lastMessagePreview;
+
+    // 토큰 예산 밖으로 밀려난 오래된 대화의 누적 요약 (summaryThroughSeq까지의 메시지를 포함)
+    @Column(name = "context_summary", columnDefinition = "TEXT")
+    @Schema(description = "이전 대화 요약")
+    private String contextSummary;
+
+    @Column(name = "summary_through_seq")
+    @Schema(description = "요약에 포함된 마지막 메시지 순번", example = "12")
+    private Integer summaryThroughSeq;
+
+    // Responses API 대화 체인: 마지막 AI 응답의 ID와 그 응답이 저장된 메시지 순번
+    @Column(name = "last_response_id", length = 100)
+    @Schema(description = "마지막 OpenAI 응답 ID", example = "resp_68af4030592c81938ec0a5fbab4a3e9f")
+    private String lastResponseId;
+
+    @Column(name = "last_response_seq")
+    @Schema(description = "마지막 OpenAI 응답이 저장된 메시지 순번", example = "4")
+    private Integer lastResponseSeq;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata", columnDefinition = "JSON")
     @Schema(description = "채팅방 메타데이터 (JSON 형태)")
     private HashMap<String, Object> metadata;
 
     @Builder
-    public ChatRoom(Long userId, String title, HashMap<String, Object> messages, HashMap<String, Object> metadata) {
+    public ChatRoom(Long userId, String title, HashMap<String, Object> messages, HashMap<String, Object> metadata,
+                    Integer lastMessageSeq) {
         this.userId = userId;
         this.title = title;
         this.messages = messages;
         this.metadata = metadata;
+        this.lastMessageSeq = lastMessageSeq;
     }
 
     public void updateTitle(String title) {
@@ -56,4 +93,64 @@ public class ChatRoom extends BaseEntity {
     public void updateMetadata(HashMap<String, Object> metadata) {
         this.metadata = metadata;
     }
-}
\ No newline at end of file
+
+    public void updateLastMessagePreview(String content) {
+        this.lastMessagePreview = preview(content);
+    }
+
+    // 공백을 한 칸으로 줄이고 PREVIEW_LENGTH 글자(코드 포인트)까지만 사용
+    public static String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        String collapsed = content.strip().replaceAll("\\s+", " ");
+        if (collapsed.codePointCount(0, collapsed.length()) <= PREVIEW_LENGTH) {
+            return collapsed;
+        }
+        return collapsed.substring(0, collapsed.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+
+    public boolean isMessagesMigrated() {
+        return lastMessageSeq != null;
+    }
+
+    // 다음 메시지 순번 할당
+    public int nextMessageSeq() {
+        lastMessageSeq = (lastMessageSeq == null ? 0 : lastMessageSeq) + 1;
+        return lastMessageSeq;
+    }
+
+    // 마지막 메시지를 지운 경우 순번을 되돌림 (seq에 빈틈이 생기지 않도록)
+    public void rewindMessageSeq() {
+        if (lastMessageSeq != null && lastMessageSeq > 0) {
+            lastMessageSeq--;
+        }
+    }
+
+    // JSON 메시지를 chat_message로 옮긴 뒤 호출 (JSON 컬럼은 비움)
+    public void markMessagesMigrated(int lastMessageSeq) {
+        this.lastMessageSeq = lastMessageSeq;
+        this.messages = null;
+    }
+
+    public int getMessageCount() {
+        if (isMessagesMigrated()) {
+            return lastMessageSeq;
+        }
+        return messages != null ? messages.size() : 0;
+    }
+
+    // AI 응답 저장 시 체인 갱신 (responseId가 없으면 체인을 끊고 다음 요청은 전체 히스토리 사용)
+    public void updateLastResponse(String responseId, int seq) {
+        this.lastResponseId = responseId;
+        this.lastResponseSeq = responseId != null ? seq : null;
+    }
+
+    // 현재 메시지 바로 앞이 체인의 마지막 응답일 때만 이어서 요청 가능 (중간에 다른 경로로 추가된 메시지가 있으면 null)
+    public String getChainableResponseId(int currentSeq) {
+        if (lastResponseId == null || lastResponseSeq == null || lastResponseSeq != currentSeq - 1) {
+            return null;
+        }
+        return lastResponseId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.divary.domain.chatroom.entity;
+
+import com.divary.common.entity.BaseEntity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// 사용자별 일일 AI 토큰 사용량 (ChatUsageMeter가 주기적으로 증분 반영)
+@Entity
+@Table(name = "chat_usage_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_usage_daily_user_date", columnNames = {"user_id", "usage_date"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Schema(description = "사용자별 일일 AI 사용량 엔티티")
+public class ChatUsageDaily extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    @Schema(description = "사용자 ID", example = "1")
+    private Long userId;
+
+    @Column(name = "usage_date", nullable = false)
+    @Schema(description = "사용 날짜 (Asia/Seoul 기준)", example = "2025-09-01")
+    private LocalDate usageDate;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    @Schema(description = "입력 토큰 합계", example = "15230")
+    private Long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    @Schema(description = "출력 토큰 합계", example = "4120")
+    private Long completionTokens;
+
+    @Column(name = "request_count", nullable = false)
+    @Schema(description = "AI 응답 수", example = "37")
+    private Long requestCount;
+
+    @Column(name = "cost", nullable = false)
+    @Schema(description = "추정 비용 합계 (USD)", example = "0.0190")
+    private Double cost;
+
+    @Builder
+    public ChatUsageDaily(Long userId, LocalDate usageDate, long promptTokens, long completionTokens, long requestCount, double cost) {
+        this.userId = userId;
+        this.usageDate = usageDate;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.requestCount = requestCount;
+        this.cost = cost;
+    }
+
+    public long getTotalTokens() {
+        return promptTokens + completionTokens;
+    }
+}
@@ -0,0 +1,13 @@
+package com.divary.domain.chatroom.enums;
+
+import lombok.Getter;
+
+// SSE 스트림 청크 전송 방식
+@Getter
+public enum StreamMode {
+    // 증분(delta)만 전송, 주기적 체크포인트와 최종 체크섬으로 검증 (기본값)
+    DELTA,
+
+    // 매 청크마다 누적 메시지 전체를 함께 전송 (구버전 클라이언트 호환용)
+    ACCUMULATED;
+}
@@ -0,0 +1,5 @@
+package com.divary.domain.chatroom.event;
+
+// 채팅방 메시지/목록 정보 변경 (커밋 후 상세/목록 캐시 무효화)
+public record ChatRoomChangedEvent(Long chatRoomId, Long userId) {
+}
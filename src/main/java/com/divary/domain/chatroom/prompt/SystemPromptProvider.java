@@ -12,9 +12,12 @@ public class SystemPromptProvider {
 
     private static final String MARINE_DIVING_PROMPT_PATH = "prompts/marine_diving_prompt.txt";
     private static final String TITLE_PROMPT_PATH = "prompts/title_prompt.txt";
+    private static final String SUMMARY_PROMPT_PATH = "prompts/summary_prompt.txt";
+    private static final String DEFAULT_SUMMARY_PROMPT = "Summarize the conversation so far in Korean, at most 8 short bullet lines, merging the previous summary with the new turns.";
 
     private String marineDivingPrompt;
     private String titlePromptTemplate;
+    private String summaryPrompt;
 
     @PostConstruct
     void loadPrompts() {
@@ -26,10 +29,15 @@ public class SystemPromptProvider {
             ClassPathResource title = new ClassPathResource(TITLE_PROMPT_PATH);
             byte[] titleBytes = title.getInputStream().readAllBytes();
             this.titlePromptTemplate = new String(titleBytes, StandardCharsets.UTF_8);
+
+            ClassPathResource summary = new ClassPathResource(SUMMARY_PROMPT_PATH);
+            byte[] summaryBytes = summary.getInputStream().readAllBytes();
+            this.summaryPrompt = new String(summaryBytes, StandardCharsets.UTF_8);
         } catch (IOException e) {
             // Fallback: 최소 안전 프롬프트
             this.marineDivingPrompt = "You are DIVING_MARINE_EXPERT. Answer in Korean. If topic is not marine or diving, reply: \"죄송합니다. 다이빙과 해양생물 전문 서비스 정책상 해당 질문에는 답변드릴 수 없습니다.\"";
             this.titlePromptTemplate = "You generate short Korean titles about a marine creature. Max 30 chars. Input: \"{{USER_MESSAGE}}\"";
+            this.summaryPrompt = DEFAULT_SUMMARY_PROMPT;
         }
     }
 
@@ -37,6 +45,13 @@ public class SystemPromptProvider {
         return marineDivingPrompt;
     }
 
+    public String getSummaryPrompt() {
+        if (summaryPrompt == null || summaryPrompt.isEmpty()) {
+            return DEFAULT_SUMMARY_PROMPT;
+        }
+        return summaryPrompt;
+    }
+
     public String buildTitlePrompt(String userMessage) {
         if (titlePromptTemplate == null || titlePromptTemplate.isEmpty()) {
             return "You generate short Korean titles about a marine creature. Max 30 chars. Input: \"" + userMessage + "\"";
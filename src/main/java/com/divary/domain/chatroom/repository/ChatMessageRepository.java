@@ -0,0 +1,46 @@
+package com.divary.domain.chatroom.repository;
+
+import com.divary.domain.chatroom.entity.ChatMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    // 채팅방 전체 메시지 (seq 오름차순)
+    List<ChatMessage> findByChatRoomIdOrderBySeqAsc(Long chatRoomId);
+
+    // 최근 N개 메시지 (seq 내림차순, (chat_room_id, seq) 유니크 인덱스만 사용)
+    List<ChatMessage> findByChatRoomIdOrderBySeqDesc(Long chatRoomId, Limit limit);
+
+    // 현재 메시지 이전의 최근 N개 (seq 내림차순)
+    List<ChatMessage> findByChatRoomIdAndSeqLessThanOrderBySeqDesc(Long chatRoomId, Integer seq, Limit limit);
+
+    // 채팅방별 마지막 메시지 (미리보기 컬럼이 채워지기 전 채팅방의 목록 표시용)
+    @Query("SELECT m FROM ChatMessage m, ChatRoom c WHERE c.id IN :chatRoomIds AND m.chatRoomId = c.id AND m.seq = c.lastMessageSeq")
+    List<ChatMessage> findLastMessages(@Param("chatRoomIds") List<Long> chatRoomIds);
+
+    // 요약 대상 구간 (seq 오름차순)
+    List<ChatMessage> findByChatRoomIdAndSeqBetweenOrderBySeqAsc(Long chatRoomId, Integer fromSeq, Integer toSeq);
+
+    // 답변과 동시에 업로드한 이미지 URL 반영 (메시지 저장 트랜잭션 커밋 후 호출)
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.imageUrl = :imageUrl WHERE m.id = :id")
+    int updateImageUrl(@Param("id") Long id, @Param("imageUrl") String imageUrl);
+
+    // 업로드 실패 시 URL 없이 남은 이미지 첨부 정보 제거
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.imageName = null WHERE m.id = :id AND m.imageUrl IS NULL")
+    int clearPendingImage(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.chatRoomId = :chatRoomId")
+    int deleteByChatRoomId(@Param("chatRoomId") Long chatRoomId);
+}
@@ -1,8 +1,17 @@
 package com.divary.domain.chatroom.repository;
 
+import com.divary.domain.chatroom.dto.ChatRoomSummary;
 import com.divary.domain.chatroom.entity.ChatRoom;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +22,44 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // TODO : 추후 채팅방 조회 시 정렬 순서 파라미터 추가 필요
     List<ChatRoom> findByUserIdOrderByUpdatedAtDesc(Long userId);
 
+    // 채팅방 목록 첫 페이지 (최근 수정순, (user_id, updated_at, id) 인덱스만 사용)
+    @Query("SELECT new com.divary.domain.chatroom.dto.ChatRoomSummary(c.id, c.title, c.lastMessageSeq, c.lastMessagePreview, c.createdAt, c.updatedAt) " +
+            "FROM ChatRoom c WHERE c.userId = :userId ORDER BY c.updatedAt DESC, c.id DESC")
+    List<ChatRoomSummary> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    // 커서(직전 페이지 마지막 채팅방의 updatedAt, id) 이후 페이지
+    @Query("SELECT new com.divary.domain.chatroom.dto.ChatRoomSummary(c.id, c.title, c.lastMessageSeq, c.lastMessagePreview, c.createdAt, c.updatedAt) " +
+            "FROM ChatRoom c WHERE c.userId = :userId " +
+            "AND (c.updatedAt < :updatedAt OR (c.updatedAt = :updatedAt AND c.id < :id)) " +
+            "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<ChatRoomSummary> findSummariesByUserIdAfter(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+                                                     @Param("id") Long id, Limit limit);
+
     // 채팅방 ID와 사용자 ID로 채팅방 조회 (소유권 검증 포함)
     Optional<ChatRoom> findByIdAndUserId(Long id, Long userId);
+
+    // chat_message로 아직 이전되지 않은 채팅방인지 확인
+    boolean existsByIdAndLastMessageSeqIsNull(Long id);
+
+    // 이전 대상 채팅방 ID (배치 이전용)
+    @Query("SELECT c.id FROM ChatRoom c WHERE c.lastMessageSeq IS NULL ORDER BY c.id")
+    List<Long> findLegacyMessageRoomIds(Limit limit);
+
+    // 메시지 추가(seq 할당)와 이전 중 동시 쓰기를 막기 위한 행 잠금 조회
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ChatRoom c WHERE c.id = :id")
+    Optional<ChatRoom> findByIdForUpdate(@Param("id") Long id);
+
+    // 임시 제목인 경우에만 생성된 제목으로 변경 (그 사이 사용자가 제목을 바꿨다면 덮어쓰지 않음)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ChatRoom c SET c.title = :title WHERE c.id = :id AND c.title = :placeholder")
+    int updateTitleIfPlaceholder(@Param("id") Long id, @Param("title") String title, @Param("placeholder") String placeholder);
+
+    // 더 최신 구간까지 요약한 경우에만 갱신 (늦게 끝난 이전 구간 요약이 최신 요약을 덮어쓰지 않도록)
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatRoom c SET c.contextSummary = :summary, c.summaryThroughSeq = :throughSeq " +
+            "WHERE c.id = :id AND (c.summaryThroughSeq IS NULL OR c.summaryThroughSeq < :throughSeq)")
+    int updateContextSummary(@Param("id") Long id, @Param("summary") String summary, @Param("throughSeq") Integer throughSeq);
 }
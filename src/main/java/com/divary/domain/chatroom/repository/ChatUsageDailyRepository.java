@@ -0,0 +1,29 @@
+package com.divary.domain.chatroom.repository;
+
+import com.divary.domain.chatroom.entity.ChatUsageDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ChatUsageDailyRepository extends JpaRepository<ChatUsageDaily, Long> {
+
+    // 하루 사용 토큰 합계 (입력 + 출력)
+    @Query("SELECT u.promptTokens + u.completionTokens FROM ChatUsageDaily u WHERE u.userId = :userId AND u.usageDate = :usageDate")
+    Optional<Long> findTotalTokens(@Param("userId") Long userId, @Param("usageDate") LocalDate usageDate);
+
+    // 집계한 증분을 더함 (행이 없으면 0 반환, 호출 측이 새로 저장)
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatUsageDaily u SET u.promptTokens = u.promptTokens + :promptTokens, "
+            + "u.completionTokens = u.completionTokens + :completionTokens, "
+            + "u.requestCount = u.requestCount + :requestCount, u.cost = u.cost + :cost "
+            + "WHERE u.userId = :userId AND u.usageDate = :usageDate")
+    int addUsage(@Param("userId") Long userId, @Param("usageDate") LocalDate usageDate,
+                 @Param("promptTokens") long promptTokens, @Param("completionTokens") long completionTokens,
+                 @Param("requestCount") long requestCount, @Param("cost") double cost);
+}
@@ -0,0 +1,188 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.request.ChatRoomMessageRequest;
+import com.divary.global.config.properties.ChatAnswerCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 첫 질문 답변 캐시 (이미지 없는 새 채팅방 첫 메시지만 대상)
+ * L1: Caffeine - 정규화 결과가 같은 질문 + (선택) n-gram 유사 질문 (MinHash 밴드 인덱스로 후보 조회, 단어 수가 같아야 함)
+ * L2: Redis (선택) - 서버 간 공유, 정규화 결과가 같은 질문만 조회
+ * 캐시 장애는 미스로 처리하고 OpenAI 호출로 진행한다.
+ */
+@Slf4j
+@Component
+public class ChatAnswerCache {
+
+    // 캐시 답변의 메타데이터 모델명 (토큰/비용 0)
+    public static final String MODEL = "answer-cache";
+
+    private static final String LOOKUP_METRIC = "divary.chat.answer.cache.lookups";
+
+    private final ChatAnswerCacheProperties properties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final MeterRegistry meterRegistry;
+
+    // 정규화 질문 -> 답변
+    private final Cache<String, CachedAnswer> entries;
+    // MinHash 밴드 키 -> 정규화 질문 (같은 밴드를 공유하는 최근 질문 하나)
+    private final Cache<String, String> bandIndex;
+
+    public ChatAnswerCache(ChatAnswerCacheProperties properties,
+                           ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplateProvider = redisTemplateProvider;
+        this.meterRegistry = meterRegistry;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        this.bandIndex = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaxSize() * 8)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "chat.answer");
+    }
+
+    // 새 채팅방의 이미지 없는 짧은 첫 질문만 캐시 (이전 대화나 이미지에 따라 답이 달라지지 않는 경우)
+    public boolean isCacheable(ChatRoomMessageRequest request) {
+        String message = request.getMessage();
+        return properties.isEnabled()
+                && request.getChatRoomId() == null
+                && (request.getImage() == null || request.getImage().isEmpty())
+                && message != null && !message.isBlank()
+                && message.length() <= properties.getMaxQuestionLength();
+    }
+
+    public Optional<String> find(String question) {
+        QuestionSignature signature = QuestionSignature.of(question);
+        if (signature.isEmpty()) {
+            return miss();
+        }
+
+        CachedAnswer exact = entries.getIfPresent(signature.normalized());
+        if (exact != null) {
+            return hit("l1_exact", exact.answer());
+        }
+
+        CachedAnswer similar = properties.isSimilarMatchEnabled() ? findSimilar(signature) : null;
+        if (similar != null) {
+            return hit("l1_similar", similar.answer());
+        }
+
+        if (properties.isRedisEnabled()) {
+            String remote = getRemote(signature.normalized());
+            if (remote != null) {
+                putLocal(signature, remote);
+                return hit("l2", remote);
+            }
+        }
+        return miss();
+    }
+
+    public void put(String question, String answer) {
+        QuestionSignature signature = QuestionSignature.of(question);
+        if (signature.isEmpty() || answer == null || answer.isBlank()) {
+            return;
+        }
+        putLocal(signature, answer);
+        if (properties.isRedisEnabled()) {
+            putRemote(signature.normalized(), answer);
+        }
+    }
+
+    private CachedAnswer findSimilar(QuestionSignature signature) {
+        CachedAnswer best = null;
+        double bestSimilarity = properties.getSimilarityThreshold();
+        Set<String> checked = new HashSet<>();
+        for (String bandKey : signature.bandKeys()) {
+            String candidate = bandIndex.getIfPresent(bandKey);
+            if (candidate == null || !checked.add(candidate)) {
+                continue;
+            }
+            CachedAnswer entry = entries.getIfPresent(candidate);
+            // 짧은 한정어만 다른 질문("쏠배감펭 독 있어" / "쏠배감펭 독 있어 먹어도")은 bigram이 대부분 겹치므로 단어 수도 같아야 함
+            if (entry == null || entry.wordCount() != signature.wordCount()) {
+                continue;
+            }
+            double similarity = signature.similarity(entry.shingles());
+            if (similarity >= bestSimilarity) {
+                best = entry;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    private void putLocal(QuestionSignature signature, String answer) {
+        entries.put(signature.normalized(), new CachedAnswer(answer, signature.shingles(), signature.wordCount()));
+        for (String bandKey : signature.bandKeys()) {
+            bandIndex.put(bandKey, signature.normalized());
+        }
+    }
+
+    private String getRemote(String normalized) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(redisKey(normalized));
+        } catch (Exception e) {
+            log.warn("답변 캐시 Redis 조회 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(String normalized, String answer) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(redisKey(normalized), answer, properties.getTtl());
+        } catch (Exception e) {
+            log.warn("답변 캐시 Redis 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    // 정규화 질문의 SHA-256 (키 길이 고정)
+    private String redisKey(String normalized) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return properties.getRedisKeyPrefix() + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Optional<String> hit(String tier, String answer) {
+        meterRegistry.counter(LOOKUP_METRIC, "result", "hit", "tier", tier).increment();
+        return Optional.of(answer);
+    }
+
+    private Optional<String> miss() {
+        meterRegistry.counter(LOOKUP_METRIC, "result", "miss", "tier", "none").increment();
+        return Optional.empty();
+    }
+
+    private record CachedAnswer(String answer, Set<String> shingles, int wordCount) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.entity.ChatRoom;
+import com.divary.domain.chatroom.repository.ChatMessageRepository;
+import com.divary.global.config.properties.ChatContextProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpenAI 요청용 이전 대화 구성
+ * 누적 요약 + 토큰 예산 안에 들어가는 최근 메시지만 보내므로 대화가 길어져도 프롬프트 크기가 일정하게 유지된다.
+ * 예산 밖으로 밀려났지만 아직 요약되지 않은 메시지가 쌓이면 요약 갱신을 백그라운드로 요청한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatContextBuilder {
+
+    // 요약은 사용자 발화가 아닌 참고 정보이므로 developer 역할로 전달
+    private static final String SUMMARY_ROLE = "developer";
+    private static final String SUMMARY_PREFIX = "이전 대화 요약:\n";
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatSummaryService summaryService;
+    private final ChatContextProperties contextProperties;
+
+    /**
+     * currentSeq 이전 메시지로 컨텍스트를 만든다 (현재 사용자 메시지는 요청 본문에 따로 들어가므로 제외).
+     * 반환 형식은 role/content 맵 목록 (오래된 순).
+     */
+    public List<Map<String, Object>> build(ChatRoom chatRoom, int currentSeq) {
+        if (!chatRoom.isMessagesMigrated()) {
+            return new ArrayList<>();
+        }
+        String summary = chatRoom.getContextSummary();
+        int summarizedThrough = chatRoom.getSummaryThroughSeq() != null ? chatRoom.getSummaryThroughSeq() : 0;
+
+        int remaining = contextProperties.getTokenBudget();
+        if (summary != null) {
+            remaining -= TokenEstimator.estimate(summary) + TokenEstimator.MESSAGE_OVERHEAD;
+        }
+
+        List<ChatMessage> recent = chatMessageRepository.findByChatRoomIdAndSeqLessThanOrderBySeqDesc(
+                chatRoom.getId(), currentSeq, Limit.of(contextProperties.getMaxMessages()));
+
+        // 최신 메시지부터 예산이 허용하는 만큼 포함
+        Deque<Map<String, Object>> window = new ArrayDeque<>();
+        int oldestIncludedSeq = currentSeq;
+        for (ChatMessage message : recent) {
+            if (message.getSeq() <= summarizedThrough) {
+                break;
+            }
+            String content = TokenEstimator.truncate(message.getContent(), contextProperties.getMaxMessageTokens());
+            int tokens = TokenEstimator.estimate(content) + TokenEstimator.MESSAGE_OVERHEAD;
+            if (tokens > remaining) {
+                break;
+            }
+            remaining -= tokens;
+            window.addFirst(Map.of("role", message.getRole(), "content", content));
+            oldestIncludedSeq = message.getSeq();
+        }
+
+        int unsummarizedThrough = oldestIncludedSeq - 1;
+        if (unsummarizedThrough - summarizedThrough >= contextProperties.getSummary().getMinMessages()) {
+            summaryService.requestSummary(chatRoom.getId(), summary, summarizedThrough, unsummarizedThrough);
+        }
+
+        List<Map<String, Object>> context = new ArrayList<>(window.size() + 1);
+        if (summary != null) {
+            context.add(Map.of("role", SUMMARY_ROLE, "content", SUMMARY_PREFIX + summary));
+        }
+        context.addAll(window);
+        return context;
+    }
+}
@@ -0,0 +1,237 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.ChatImageProperties;
+import com.divary.global.exception.BusinessException;
+import com.divary.global.exception.ErrorCode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비전 모델에 보낼 이미지를 data URL로 만든다.
+ * 모델의 축소 기준보다 큰 이미지는 디코딩 단계에서 서브샘플링한 뒤 줄이고 JPEG로 재압축하며,
+ * 인코딩 결과는 중간 byte[]/String 없이 base64로 바로 버퍼에 쓴다.
+ * 재인코딩하면 EXIF가 빠지므로 Orientation 태그대로 픽셀을 돌린 뒤 줄인다 (휴대폰 세로 사진).
+ * 디코딩할 수 없는 형식(HEIC 등)이거나 재압축해도 작아지지 않으면 원본을 보낸다.
+ */
+@Slf4j
+@Component
+public class ChatImagePreprocessor {
+
+    private static final String JPEG_MIME_TYPE = "image/jpeg";
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private final ChatImageProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary bytesSaved;
+
+    public ChatImagePreprocessor(ChatImageProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.bytesSaved = DistributionSummary.builder("divary.chat.image.bytes.saved")
+                .description("이미지 축소/재압축으로 줄어든 업로드 크기 (base64 인코딩 전)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public String toDataUrl(MultipartFile imageFile) {
+        long start = System.nanoTime();
+        long originalSize = imageFile.getSize();
+        try {
+            if (properties.isEnabled()) {
+                EncodedImage encoded = downscale(imageFile);
+                if (encoded != null && encoded.size() < originalSize) {
+                    record(encoded.resized() ? "resized" : "recompressed", start, originalSize - encoded.size());
+                    log.debug("채팅 이미지 전처리 - {}bytes -> {}bytes", originalSize, encoded.size());
+                    return encoded.dataUrl();
+                }
+            }
+            String dataUrl = encodeOriginal(imageFile);
+            record("original", start, 0);
+            return dataUrl;
+        } catch (IOException e) {
+            log.error("이미지를 Base64로 인코딩하는 중 오류 발생: {}", e.getMessage());
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 축소/재압축 결과 (원본을 그대로 보내는 편이 나으면 null)
+    private EncodedImage downscale(MultipartFile imageFile) throws IOException {
+        int orientation = readOrientation(imageFile);
+        try (ImageInputStream input = new MemoryCacheImageInputStream(imageFile.getInputStream())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                double scale = Math.min(1.0, Math.min(
+                        (double) properties.getMaxLongEdge() / Math.max(width, height),
+                        (double) properties.getMaxShortEdge() / Math.min(width, height)));
+                if (scale >= 1.0 && imageFile.getSize() < properties.getRecompressThreshold().toBytes()) {
+                    return null;
+                }
+
+                // 목표 크기의 2배 이상 남도록 디코딩 단계에서 픽셀을 건너뛰어 메모리와 디코딩 시간을 줄인다
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, (int) (1 / (scale * 2)));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = ExifOrientation.apply(reader.read(0, param), orientation);
+
+                int targetWidth = Math.max(1, (int) Math.round(width * scale));
+                int targetHeight = Math.max(1, (int) Math.round(height * scale));
+                if (ExifOrientation.swapsDimensions(orientation)) {
+                    int swapped = targetWidth;
+                    targetWidth = targetHeight;
+                    targetHeight = swapped;
+                }
+                return new EncodedImage(encodeJpeg(resize(decoded, targetWidth, targetHeight)), scale < 1.0);
+            } catch (IOException | RuntimeException e) {
+                // 손상되었거나 지원하지 않는 이미지는 기존처럼 원본 전송
+                log.warn("채팅 이미지 축소 실패, 원본 전송: {}", e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF Orientation (읽을 수 없으면 회전 없음으로 보고 진행)
+    private int readOrientation(MultipartFile imageFile) {
+        try (InputStream input = imageFile.getInputStream()) {
+            return ExifOrientation.read(input);
+        } catch (IOException e) {
+            log.debug("EXIF Orientation 읽기 실패: {}", e.getMessage());
+            return ExifOrientation.NORMAL;
+        }
+    }
+
+    // JPEG는 투명도를 지원하지 않으므로 흰 배경의 RGB 이미지로 그린다
+    private BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private DataUrlBuffer encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(properties.getJpegQuality());
+
+        DataUrlBuffer buffer = new DataUrlBuffer(JPEG_MIME_TYPE, 0);
+        CountingOutputStream base64 = new CountingOutputStream(Base64.getEncoder().wrap(buffer));
+        try (base64; ImageOutputStream output = new MemoryCacheImageOutputStream(base64)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        buffer.rawSize = base64.count;
+        return buffer;
+    }
+
+    // 원본도 getBytes() 복사본 없이 입력 스트림에서 바로 base64로 인코딩
+    private String encodeOriginal(MultipartFile imageFile) throws IOException {
+        String mimeType = imageFile.getContentType() != null ? imageFile.getContentType() : DEFAULT_MIME_TYPE;
+        DataUrlBuffer buffer = new DataUrlBuffer(mimeType, imageFile.getSize());
+        try (InputStream input = imageFile.getInputStream();
+             OutputStream base64 = Base64.getEncoder().wrap(buffer)) {
+            input.transferTo(base64);
+        }
+        return buffer.toDataUrl();
+    }
+
+    private void record(String outcome, long startNanos, long saved) {
+        meterRegistry.timer("divary.chat.image.preprocess", "outcome", outcome)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (saved > 0) {
+            bytesSaved.record(saved);
+        }
+    }
+
+    private record EncodedImage(DataUrlBuffer buffer, boolean resized) {
+
+        long size() {
+            return buffer.rawSize;
+        }
+
+        String dataUrl() {
+            return buffer.toDataUrl();
+        }
+    }
+
+    // "data:<mime>;base64," 접두사 뒤에 base64를 이어 쓰고, Latin-1 문자열로 한 번만 복사해 꺼낸다
+    private static final class DataUrlBuffer extends ByteArrayOutputStream {
+
+        private long rawSize;
+
+        DataUrlBuffer(String mimeType, long expectedRawSize) {
+            super((int) Math.min(Integer.MAX_VALUE - 64, 64 + (expectedRawSize + 2) / 3 * 4));
+            writeBytes(("data:" + mimeType + ";base64,").getBytes(StandardCharsets.US_ASCII));
+            this.rawSize = expectedRawSize;
+        }
+
+        String toDataUrl() {
+            return new String(buf, 0, count, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    // base64 인코딩 전 바이트 수 집계
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.repository.ChatMessageRepository;
+import com.divary.domain.image.dto.response.ImageResponse;
+import com.divary.domain.image.enums.ImageType;
+import com.divary.domain.image.service.ImageService;
+import com.divary.domain.image.service.ImageValidationService;
+import com.divary.global.config.CacheConfig;
+import com.divary.global.exception.BusinessException;
+import com.divary.global.exception.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 채팅 이미지 S3 업로드 (답변 생성과 동시에 진행)
+ * 사용자 메시지는 이미지 URL 없이 먼저 저장하고, 업로드가 끝나면 메시지 저장 트랜잭션 커밋 이후 URL을 반영한다.
+ * 업로드가 실패하면 메시지의 이미지 첨부를 지우고(답변은 그대로 진행), 메시지가 롤백됐으면 올린 이미지를 지운다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatImageUploadService {
+
+    private final ImageService imageService;
+    private final ImageValidationService imageValidationService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 업로드와 모델 요청이 같은 바이트를 쓰도록 메모리로 복사한다.
+     * 요청 스레드에서 호출해야 하며, 응답이 먼저 반환되는 스트림 요청에서도 임시 파일 정리와 무관하게 읽을 수 있다.
+     */
+    public MultipartFile toInMemory(MultipartFile image) {
+        if (image == null || image.isEmpty() || image instanceof InMemoryMultipartFile) {
+            return image;
+        }
+        try {
+            return new InMemoryMultipartFile(image.getName(), image.getOriginalFilename(), image.getContentType(), image.getBytes());
+        } catch (IOException e) {
+            log.error("채팅 이미지 읽기 실패: {}", e.getMessage());
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 형식/크기 검증은 메시지 저장 전에 동기로 수행 (업로드 실패와 달리 요청 자체를 거절)
+    public void validate(MultipartFile image) {
+        imageValidationService.validateFile(image);
+    }
+
+    /**
+     * 업로드를 즉시 시작하고, 메시지 저장 트랜잭션 커밋 후 메시지에 URL을 반영한다.
+     * 반환된 future로 호출자가 트랜잭션 안에서 이미 끝난 업로드 URL을 바로 사용할 수도 있다.
+     */
+    public CompletableFuture<String> uploadAndAttach(ChatMessage message, MultipartFile image, Long userId) {
+        Long messageId = message.getId();
+        Long chatRoomId = message.getChatRoomId();
+
+        Mono<Optional<ImageResponse>> upload = Mono.fromCallable(
+                        () -> imageService.uploadImageByType(ImageType.USER_CHAT, image, userId, chatRoomId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(Optional::of)
+                .onErrorResume(error -> {
+                    log.warn("채팅 이미지 업로드 실패 - 채팅방 ID: {}, 메시지 ID: {}: {}", chatRoomId, messageId, error.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .cache();
+        // 업로드가 실패하면 null로 완료
+        CompletableFuture<String> imageUrl = upload
+                .flatMap(Mono::justOrEmpty)
+                .map(ImageResponse::getFileUrl)
+                .toFuture();
+
+        upload.zipWith(afterCompletion())
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(result -> settle(messageId, chatRoomId, result.getT1().orElse(null), result.getT2()),
+                        error -> log.error("채팅 이미지 반영 실패 - 메시지 ID: {}: {}", messageId, error.getMessage()));
+        return imageUrl;
+    }
+
+    private void settle(Long messageId, Long chatRoomId, ImageResponse uploaded, boolean committed) {
+        if (uploaded == null) {
+            if (committed) {
+                chatMessageRepository.clearPendingImage(messageId);
+                evictDetail(chatRoomId);
+            }
+            record("failed");
+            return;
+        }
+        if (committed && chatMessageRepository.updateImageUrl(messageId, uploaded.getFileUrl()) > 0) {
+            evictDetail(chatRoomId);
+            record("attached");
+            return;
+        }
+        // 메시지가 저장되지 않았으면 S3와 이미지 행을 정리
+        try {
+            imageService.deleteImage(uploaded.getId());
+            record("discarded");
+        } catch (Exception e) {
+            log.error("미사용 채팅 이미지 삭제 실패 - 이미지 ID: {}: {}", uploaded.getId(), e.getMessage());
+            record("discard_failed");
+        }
+    }
+
+    // 메시지 저장 트랜잭션 결과 (커밋이면 true)
+    private Mono<Boolean> afterCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Mono.just(true);
+        }
+        Sinks.One<Boolean> completion = Sinks.one();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completion.tryEmitValue(status == STATUS_COMMITTED);
+            }
+        });
+        return completion.asMono();
+    }
+
+    private void evictDetail(Long chatRoomId) {
+        Cache cache = cacheManager.getCache(CacheConfig.CACHE_CHATROOM_DETAIL);
+        if (cache != null) {
+            cache.evict(chatRoomId);
+        }
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("divary.chat.image.upload", "outcome", outcome).increment();
+    }
+
+    private record InMemoryMultipartFile(String name, String originalFilename, String contentType, byte[] bytes)
+            implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bytes.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return bytes.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), bytes);
+        }
+    }
+}
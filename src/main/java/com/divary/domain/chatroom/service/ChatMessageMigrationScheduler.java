@@ -0,0 +1,53 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * JSON 메시지가 남아 있는 채팅방을 주기적으로 chat_message로 이전
+ * 사용자가 쓰는 채팅방은 쓰기 시점에 먼저 이전되므로, 이 배치는 나머지(휴면) 채팅방을 조금씩 처리한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatMessageMigrationScheduler {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageMigrationService migrationService;
+
+    @Value("${chat.message.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${chat.message.migration.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(fixedDelayString = "${chat.message.migration.interval-ms:60000}", initialDelayString = "${chat.message.migration.initial-delay-ms:30000}")
+    public void migrateLegacyChatRooms() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> chatRoomIds = chatRoomRepository.findLegacyMessageRoomIds(Limit.of(batchSize));
+        if (chatRoomIds.isEmpty()) {
+            return;
+        }
+
+        int migrated = 0;
+        for (Long chatRoomId : chatRoomIds) {
+            try {
+                if (migrationService.migrate(chatRoomId)) {
+                    migrated++;
+                }
+            } catch (Exception e) {
+                log.warn("채팅 메시지 이전 실패 - 채팅방 ID: {}: {}", chatRoomId, e.getMessage());
+            }
+        }
+        log.info("채팅 메시지 배치 이전 - 대상: {}, 이전: {}", chatRoomIds.size(), migrated);
+    }
+}
@@ -0,0 +1,109 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.common.converter.TypeConverter;
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.entity.ChatRoom;
+import com.divary.domain.chatroom.repository.ChatMessageRepository;
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ChatRoom.messages(JSON) -> chat_message 이전
+ * 채팅방 행을 잠근 상태로 한 채팅방씩 별도 트랜잭션에서 옮기므로, 서비스 중에도(온라인) 쓰기와 겹치지 않는다.
+ * 기존 메시지 ID(msg_001 ...)의 번호를 그대로 seq로 사용해 클라이언트가 가진 ID가 유지된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatMessageMigrationService {
+
+    private static final String MESSAGE_ID_PREFIX = "msg_";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    // 이전했으면 true, 이미 이전됐거나 채팅방이 없으면 false
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean migrate(Long chatRoomId) {
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(chatRoomId).orElse(null);
+        if (chatRoom == null || chatRoom.isMessagesMigrated()) {
+            return false;
+        }
+
+        List<ChatMessage> messages = convertLegacyMessages(chatRoom);
+        chatMessageRepository.saveAll(messages);
+
+        int lastSeq = messages.isEmpty() ? 0 : messages.get(messages.size() - 1).getSeq();
+        chatRoom.markMessagesMigrated(lastSeq);
+        if (!messages.isEmpty()) {
+            chatRoom.updateLastMessagePreview(messages.get(messages.size() - 1).getContent());
+        }
+
+        log.info("채팅 메시지 이전 완료 - 채팅방 ID: {}, 메시지 수: {}", chatRoomId, messages.size());
+        return true;
+    }
+
+    private List<ChatMessage> convertLegacyMessages(ChatRoom chatRoom) {
+        HashMap<String, Object> legacyMessages = chatRoom.getMessages();
+        if (legacyMessages == null || legacyMessages.isEmpty()) {
+            return List.of();
+        }
+
+        // msg_번호 순으로 정렬, 형식이 다른 키는 마지막 번호 뒤에 붙인다
+        TreeMap<Integer, HashMap<String, Object>> ordered = new TreeMap<>();
+        List<HashMap<String, Object>> unnumbered = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : legacyMessages.entrySet()) {
+            HashMap<String, Object> messageData = TypeConverter.castToHashMap(entry.getValue());
+            Integer seq = parseSeq(entry.getKey());
+            if (seq != null && !ordered.containsKey(seq)) {
+                ordered.put(seq, messageData);
+            } else {
+                unnumbered.add(messageData);
+            }
+        }
+        int nextSeq = ordered.isEmpty() ? 1 : ordered.lastKey() + 1;
+        for (HashMap<String, Object> messageData : unnumbered) {
+            ordered.put(nextSeq++, messageData);
+        }
+
+        List<ChatMessage> messages = new ArrayList<>(ordered.size());
+        ordered.forEach((seq, messageData) -> messages.add(toChatMessage(chatRoom.getId(), seq, messageData)));
+        return messages;
+    }
+
+    private ChatMessage toChatMessage(Long chatRoomId, int seq, HashMap<String, Object> messageData) {
+        Object timestamp = messageData.get("timestamp");
+        String type = (String) messageData.get("type");
+        return ChatMessage.builder()
+                .chatRoomId(chatRoomId)
+                .seq(seq)
+                .role("user".equals(type) ? "user" : "assistant")
+                .content((String) messageData.get("content"))
+                .imageUrl((String) messageData.get("imageUrl"))
+                .imageName((String) messageData.get("imageName"))
+                .sentAt(timestamp instanceof Number number ? number.longValue() : null)
+                .build();
+    }
+
+    private Integer parseSeq(String messageId) {
+        if (messageId == null || !messageId.startsWith(MESSAGE_ID_PREFIX)) {
+            return null;
+        }
+        try {
+            int seq = Integer.parseInt(messageId.substring(MESSAGE_ID_PREFIX.length()));
+            return seq > 0 ? seq : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
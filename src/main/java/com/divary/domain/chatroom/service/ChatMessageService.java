@@ -0,0 +1,157 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.Message;
+import com.divary.domain.chatroom.dto.response.ChatRoomDetailResponse;
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.entity.ChatRoom;
+import com.divary.domain.chatroom.repository.ChatMessageRepository;
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 채팅 메시지 저장/조회 (chat_message 테이블)
+ * 메시지는 추가만 하며 채팅방 JSON 전체를 다시 쓰지 않는다.
+ * 아직 이전되지 않은 채팅방은 쓰기 전에 이전하고, 읽기는 JSON 컬럼을 그대로 사용한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatMessageService {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageMigrationService migrationService;
+    private final MessageFactory messageFactory;
+
+    // 채팅방을 조회하기 전에 호출 (이전은 별도 트랜잭션에서 커밋되므로 이후 조회는 이전된 상태를 본다)
+    public void ensureMigrated(Long chatRoomId) {
+        if (chatRoomRepository.existsByIdAndLastMessageSeqIsNull(chatRoomId)) {
+            migrationService.migrate(chatRoomId);
+        }
+    }
+
+    public ChatMessage appendUserMessage(ChatRoom chatRoom, String content, String imageUrl, String imageName) {
+        return append(chatRoom, ChatMessage.builder()
+                .role("user")
+                .content(content)
+                .imageUrl(imageUrl)
+                .imageName(imageName));
+    }
+
+    public ChatMessage appendAssistantMessage(ChatRoom chatRoom, String content) {
+        return append(chatRoom, ChatMessage.builder()
+                .role("assistant")
+                .content(content));
+    }
+
+    // seq는 채팅방 행의 lastMessageSeq로 할당하므로 호출 측은 채팅방을 findByIdForUpdate로 잠근 트랜잭션 안에서 호출해야 한다
+    // ((chat_room_id, seq) 유니크 제약은 잠금 없이 겹친 경우 한쪽을 실패시키는 마지막 방어선일 뿐이다)
+    private ChatMessage append(ChatRoom chatRoom, ChatMessage.ChatMessageBuilder builder) {
+        if (!chatRoom.isMessagesMigrated()) {
+            throw new IllegalStateException("chat_message로 이전되지 않은 채팅방입니다: " + chatRoom.getId());
+        }
+        ChatMessage message = chatMessageRepository.save(builder
+                .chatRoomId(chatRoom.getId())
+                .seq(chatRoom.nextMessageSeq())
+                .sentAt(System.currentTimeMillis())
+                .build());
+        updateLastMessage(chatRoom, message);
+        return message;
+    }
+
+    /**
+     * 응답을 받지 못한 마지막 메시지 삭제 (순번/미리보기/메타데이터도 직전 메시지 기준으로 되돌림)
+     * 그 뒤에 다른 메시지가 이미 추가됐다면 seq에 빈틈이 생기므로 지우지 않고 false를 반환한다.
+     */
+    public boolean discardLastMessage(ChatRoom chatRoom, ChatMessage message) {
+        if (!Objects.equals(chatRoom.getLastMessageSeq(), message.getSeq())) {
+            return false;
+        }
+        chatMessageRepository.deleteById(message.getId());
+        chatRoom.rewindMessageSeq();
+        List<ChatMessage> previous = chatMessageRepository.findByChatRoomIdAndSeqLessThanOrderBySeqDesc(
+                chatRoom.getId(), message.getSeq(), Limit.of(1));
+        updateLastMessage(chatRoom, previous.isEmpty() ? null : previous.get(0));
+        return true;
+    }
+
+    private void updateLastMessage(ChatRoom chatRoom, ChatMessage lastMessage) {
+        chatRoom.updateLastMessagePreview(lastMessage != null ? lastMessage.getContent() : null);
+
+        HashMap<String, Object> metadata = chatRoom.getMetadata() != null ? chatRoom.getMetadata() : new HashMap<>();
+        if (lastMessage != null) {
+            metadata.put("lastMessageId", lastMessage.getMessageId());
+        } else {
+            metadata.remove("lastMessageId");
+        }
+        metadata.put("messageCount", chatRoom.getMessageCount());
+        chatRoom.updateMetadata(metadata);
+    }
+
+    // 최근 N개 메시지 (seq 오름차순)
+    public List<ChatMessage> findRecentMessages(Long chatRoomId, int limit) {
+        List<ChatMessage> recent = new ArrayList<>(chatMessageRepository.findByChatRoomIdOrderBySeqDesc(chatRoomId, Limit.of(limit)));
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    /**
+     * 채팅방 상세용 메시지 한 페이지 (페이지 안은 seq 오름차순)
+     * seq는 채팅방별로 1부터 빈틈없이 증가하므로 커서로 seq 구간을 바로 계산해 그 구간만 조회한다.
+     * 커서가 없으면 최근 size개, beforeSeq면 그 이전 size개, afterSeq면 그 이후 size개.
+     * 이전 전 채팅방은 JSON 컬럼 전체를 변환한 뒤 같은 구간만 잘라낸다.
+     */
+    public MessagePage getMessagePage(ChatRoom chatRoom, Integer beforeSeq, Integer afterSeq, int size) {
+        List<Message> legacyMessages = chatRoom.isMessagesMigrated() ? null
+                : messageFactory.convertToMessageList(chatRoom.getMessages() != null ? chatRoom.getMessages() : new HashMap<>());
+        int lastSeq = legacyMessages != null ? legacyMessages.size() : chatRoom.getLastMessageSeq();
+
+        int fromSeq;
+        int toSeq;
+        if (afterSeq != null) {
+            fromSeq = afterSeq + 1;
+            toSeq = Math.min(afterSeq + size, lastSeq);
+        } else {
+            toSeq = beforeSeq != null ? Math.min(beforeSeq - 1, lastSeq) : lastSeq;
+            fromSeq = Math.max(1, toSeq - size + 1);
+        }
+
+        List<Message> messages;
+        if (fromSeq > toSeq) {
+            messages = List.of();
+        } else if (legacyMessages != null) {
+            messages = List.copyOf(legacyMessages.subList(fromSeq - 1, toSeq));
+        } else {
+            messages = chatMessageRepository.findByChatRoomIdAndSeqBetweenOrderBySeqAsc(chatRoom.getId(), fromSeq, toSeq).stream()
+                    .map(messageFactory::createMessageDto)
+                    .toList();
+        }
+
+        ChatRoomDetailResponse.PageInfo page = ChatRoomDetailResponse.PageInfo.builder()
+                .oldestMessageId(messages.isEmpty() ? null : messages.get(0).getId())
+                .newestMessageId(messages.isEmpty() ? null : messages.get(messages.size() - 1).getId())
+                .hasOlder(fromSeq > 1 && lastSeq > 0)
+                .hasNewer(toSeq < lastSeq)
+                .build();
+        return new MessagePage(messages, page);
+    }
+
+    // 채팅방별 마지막 메시지 (목록 미리보기 보충용)
+    public List<ChatMessage> findLastMessages(List<Long> chatRoomIds) {
+        return chatMessageRepository.findLastMessages(chatRoomIds);
+    }
+
+    public void deleteMessages(Long chatRoomId) {
+        chatMessageRepository.deleteByChatRoomId(chatRoomId);
+    }
+
+    public record MessagePage(List<Message> messages, ChatRoomDetailResponse.PageInfo page) {
+    }
+}
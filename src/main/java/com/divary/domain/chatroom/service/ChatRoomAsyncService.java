@@ -0,0 +1,96 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.request.ChatRoomMessageRequest;
+import com.divary.domain.chatroom.dto.response.ChatRoomMessageResponse;
+import com.divary.domain.chatroom.dto.response.OpenAIResponse;
+import com.divary.domain.chatroom.entity.ChatRoom;
+import com.divary.global.config.properties.ChatContextProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 채팅 메시지 전송 (논블로킹, POST /chatrooms/async)
+ * 사용자 메시지 저장과 AI 응답 저장만 각각 짧은 트랜잭션으로 수행하고, AI 응답은 트랜잭션과 요청 스레드 밖에서 기다린다.
+ * 응답 형식과 캐시/체인/이미지 처리는 동기 API(ChatRoomService.sendChatRoomMessage)와 같다.
+ * AI 응답이나 저장이 실패하면 동기 API의 롤백처럼 먼저 저장한 사용자 메시지를 지운다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatRoomAsyncService {
+
+    private final ChatRoomService chatRoomService;
+    private final OpenAIService openAIService;
+    private final ChatContextBuilder contextBuilder;
+    private final ChatContextProperties contextProperties;
+    private final ChatAnswerCache answerCache;
+
+    public CompletableFuture<ChatRoomMessageResponse> sendChatRoomMessage(ChatRoomMessageRequest request, Long userId) {
+        ChatRoomService.PreparedTurn turn = chatRoomService.prepareTurn(request, userId);
+        String cacheQuestion = turn.newChatRoom() && answerCache.isCacheable(request) ? request.getMessage() : null;
+
+        return requestAnswer(turn, request, cacheQuestion)
+                // 응답 저장은 블로킹 JPA 호출이므로 업스트림(Netty) 스레드가 아닌 bounded elastic 스케줄러에서 실행
+                .publishOn(Schedulers.boundedElastic())
+                .map(aiResponse -> {
+                    ChatRoomMessageResponse response = chatRoomService.completeTurn(turn, aiResponse, userId);
+                    if (cacheQuestion != null && !ChatAnswerCache.MODEL.equals(aiResponse.getModel())) {
+                        answerCache.put(cacheQuestion, aiResponse.getContent());
+                    }
+                    return response;
+                })
+                .doOnError(error -> log.error("채팅 메시지 응답 실패 - 채팅방 ID: {}: {}", turn.chatRoom().getId(), error.getMessage()))
+                // 답변 없이 남은 사용자 메시지(새 채팅방이면 채팅방까지) 정리 후 원래 오류 전달
+                .onErrorResume(error -> Mono.fromRunnable(() -> abandonTurn(turn, userId))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(error)))
+                .toFuture();
+    }
+
+    private void abandonTurn(ChatRoomService.PreparedTurn turn, Long userId) {
+        try {
+            chatRoomService.abandonTurn(turn, userId);
+        } catch (RuntimeException e) {
+            log.warn("응답 실패한 사용자 메시지 정리 실패 - 채팅방 ID: {}: {}", turn.chatRoom().getId(), e.getMessage());
+        }
+    }
+
+    private Mono<OpenAIResponse> requestAnswer(ChatRoomService.PreparedTurn turn, ChatRoomMessageRequest request, String cacheQuestion) {
+        // 새 채팅방 - 히스토리 없이 메시지 전달 (반복되는 첫 질문은 답변 캐시 사용)
+        if (turn.newChatRoom()) {
+            if (cacheQuestion == null) {
+                return openAIService.sendMessageWithHistoryAsync(request.getMessage(), request.getImage(), null);
+            }
+            Optional<String> cachedAnswer = answerCache.find(cacheQuestion);
+            if (cachedAnswer.isPresent()) {
+                return Mono.just(OpenAIResponse.builder()
+                        .content(cachedAnswer.get())
+                        .model(ChatAnswerCache.MODEL)
+                        .build());
+            }
+            return openAIService.sendMessageWithHistoryAsync(request.getMessage(), null, null);
+        }
+
+        // 기존 채팅방 - 직전 AI 응답이 체인으로 이어지면 새 메시지만, 아니면(또는 체인 만료 시) 요약 + 최근 메시지 전달
+        ChatRoom chatRoom = turn.chatRoom();
+        int currentSeq = turn.userMessage().getSeq();
+        Mono<List<Map<String, Object>>> history = Mono.fromCallable(() -> contextBuilder.build(chatRoom, currentSeq))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        String previousResponseId = contextProperties.isResponseChainEnabled()
+                ? chatRoom.getChainableResponseId(currentSeq) : null;
+        if (previousResponseId != null) {
+            return openAIService.sendMessageWithPreviousResponseAsync(request.getMessage(), request.getImage(), previousResponseId, history);
+        }
+        return history.flatMap(messageHistory ->
+                openAIService.sendMessageWithHistoryAsync(request.getMessage(), request.getImage(), messageHistory));
+    }
+}
@@ -0,0 +1,39 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.event.ChatRoomChangedEvent;
+import com.divary.global.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 채팅방 변경 이벤트 -> 상세/목록 캐시 무효화
+ * 커밋 후에 무효화해야 다른 요청이 커밋 전 데이터를 다시 캐시하지 않는다.
+ * 다른 서버로의 전파는 CacheManager(BroadcastingCacheManager)가 처리한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatRoomCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatRoomChanged(ChatRoomChangedEvent event) {
+        if (event.chatRoomId() != null) {
+            evict(CacheConfig.CACHE_CHATROOM_DETAIL, event.chatRoomId());
+        }
+        if (event.userId() != null) {
+            evict(CacheConfig.CACHE_CHATROOMS_BY_USER, event.userId());
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.ChatRoomSummary;
+import com.divary.global.exception.BusinessException;
+import com.divary.global.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// 채팅방 목록 keyset 커서 (updatedAt, id) <-> URL-safe Base64 문자열
+record ChatRoomListCursor(LocalDateTime updatedAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static ChatRoomListCursor of(ChatRoomSummary summary) {
+        return new ChatRoomListCursor(summary.updatedAt(), summary.id());
+    }
+
+    // 없으면 null, 형식이 다르면 INVALID_INPUT_VALUE
+    static ChatRoomListCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new ChatRoomListCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+    }
+
+    String encode() {
+        if (updatedAt == null) {
+            return null;
+        }
+        String raw = updatedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
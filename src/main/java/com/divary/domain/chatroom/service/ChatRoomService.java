@@ -1,45 +1,70 @@
 package com.divary.domain.chatroom.service;
 
 import com.divary.domain.chatroom.dto.ChatRoomMetadata;
+import com.divary.domain.chatroom.dto.ChatRoomSummary;
 import com.divary.domain.chatroom.dto.Message;
 import com.divary.domain.chatroom.dto.request.ChatRoomMessageRequest;
 import com.divary.domain.chatroom.dto.response.ChatRoomDetailResponse;
 import com.divary.domain.chatroom.dto.response.ChatRoomMessageResponse;
 import com.divary.domain.chatroom.dto.response.ChatRoomResponse;
 import com.divary.domain.chatroom.dto.response.OpenAIResponse;
+import com.divary.domain.chatroom.entity.ChatMessage;
 import com.divary.domain.chatroom.entity.ChatRoom;
 import com.divary.domain.chatroom.repository.ChatRoomRepository;
-import com.divary.domain.image.dto.response.ImageResponse;
-import com.divary.domain.image.enums.ImageType;
-import com.divary.domain.image.service.ImageService;
+import com.divary.global.config.properties.ChatContextProperties;
 import com.divary.global.exception.BusinessException;
 import com.divary.global.exception.ErrorCode;
-import com.divary.common.converter.TypeConverter;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ChatRoomService {
 
+    // 상세 조회 메시지 페이지 / 목록 페이지 최대 크기
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+    // 채팅방 하나에 캐시하는 상세 페이지 수 (넘으면 캐시 없이 조회)
+    private static final int MAX_CACHED_PAGES_PER_ROOM = 16;
+
     private final ChatRoomRepository chatRoomRepository;
     private final OpenAIService openAIService;
+    private final ChatRoomTitleService titleService;
     private final MessageFactory messageFactory;
-    private final ImageService imageService;
+    private final ChatMessageService chatMessageService;
+    private final ChatContextBuilder contextBuilder;
+    private final ChatContextProperties contextProperties;
+    private final ChatAnswerCache answerCache;
+    private final ChatImageUploadService imageUploadService;
     private final ChatRoomMetadataService metadataService;  
+    private final ChatUsageMeter usageMeter;
+    private final CacheManager cacheManager;
+
+    @Value("${chat.message.page-size:30}")
+    private int messagePageSize;
 
     // 채팅방 메시지 전송 (새 채팅방 생성 또는 기존 채팅방에 메시지 추가)
     @Transactional
@@ -48,122 +73,210 @@ public class ChatRoomService {
         @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL, key = "#request.chatRoomId", condition = "#request.chatRoomId != null")
     })
     public ChatRoomMessageResponse sendChatRoomMessage(ChatRoomMessageRequest request, Long userId) {
-        ChatRoom chatRoom;
-        List<String> newMessageIds = new java.util.ArrayList<>();
-        
-        // 기존 채팅방 ID가 오지 않은 경우 
-        if (request.getChatRoomId() == null) {
-            // 새 채팅방 생성
-            chatRoom = createNewChatRoom(userId, request);
-        } else {
-            // 기존 채팅방에 메시지 추가
-            chatRoom = addMessageToExistingChatRoom(request.getChatRoomId(), userId, request);
-        }
-        // 채팅방 메시지 ID 추가
-        HashMap<String, Object> metadata = chatRoom.getMetadata();
-        newMessageIds.add((String) metadata.get("lastMessageId"));
+        PreparedTurn turn = prepare(request, userId);
+        ChatRoom chatRoom = turn.chatRoom();
 
-        
         // AI 응답 생성
         OpenAIResponse aiResponse;
-        if (request.getChatRoomId() == null) {
-            // 새 채팅방 - 히스토리 없이 메시지 전달
-            aiResponse = openAIService.sendMessageWithHistory(request.getMessage(), request.getImage(), null);
+        if (turn.newChatRoom()) {
+            // 새 채팅방 - 히스토리 없이 메시지 전달 (반복되는 첫 질문은 답변 캐시 사용)
+            aiResponse = requestFirstAnswer(request);
         } else {
-            // 기존 채팅방 - 기존 메세지 최대 20개 포함해서 전달
-            List<Map<String, Object>> messageHistory = buildMessageHistoryForOpenAI(chatRoom);
-            aiResponse = openAIService.sendMessageWithHistory(request.getMessage(), request.getImage(), messageHistory);
+            aiResponse = requestWithContext(chatRoom, request, turn.userMessage().getSeq());
         }
         
-        // AI 응답을 채팅방에 추가
-        String aiMessageId = addAiResponseToMessages(chatRoom, aiResponse);
-        newMessageIds.add(aiMessageId);
-        
-        return buildMessageResponse(chatRoom, newMessageIds);
+        // AI 응답을 채팅방에 추가 (같은 트랜잭션의 사용자 메시지에는 먼저 끝난 업로드 URL을 바로 반영)
+        ChatMessage assistantMessage = addAiResponse(chatRoom, aiResponse);
+        String imageUrl = arrivedImageUrl(turn);
+        if (imageUrl != null) {
+            turn.userMessage().attachImageUrl(imageUrl);
+        }
+        applyArrivedTitle(turn, chatRoom);
+
+        return buildMessageResponse(chatRoom, List.of(turn.userMessage(), assistantMessage));
     }
 
-    // 새 채팅방 생성
-    private ChatRoom createNewChatRoom(Long userId, ChatRoomMessageRequest request) {
-        String title = openAIService.generateTitle(request.getMessage());
+    /**
+     * 논블로킹 전송 1단계: 채팅방 준비와 사용자 메시지 저장만 짧은 트랜잭션으로 수행한다.
+     * AI 요청은 호출 측(ChatRoomAsyncService)이 트랜잭션 밖에서 보내고, 결과는 completeTurn으로 저장한다.
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOMS_BY_USER, key = "#userId"),
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL, key = "#request.chatRoomId", condition = "#request.chatRoomId != null")
+    })
+    public PreparedTurn prepareTurn(ChatRoomMessageRequest request, Long userId) {
+        return prepare(request, userId);
+    }
 
-        // 채팅방을 먼저 저장 (이미지 없이)
-        ChatRoom chatRoom = buildChatRoomWithoutImage(userId, title, request);
-        ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+    // 논블로킹 전송 2단계: AI 응답 저장 (채팅방은 그 사이 반영된 제목/메시지 순번을 덮어쓰지 않도록 다시 조회)
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOMS_BY_USER, key = "#userId"),
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL, key = "#turn.chatRoom().getId()")
+    })
+    public ChatRoomMessageResponse completeTurn(PreparedTurn turn, OpenAIResponse aiResponse, Long userId) {
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(turn.chatRoom().getId())
+                .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
 
-        // 이미지가 있으면 채팅방 첫 메시지에 이미지 정보 추가
-        if (request.getImage() != null && !request.getImage().isEmpty()) {
-            HashMap<String, Object> messages = savedChatRoom.getMessages();
-            HashMap<String, Object> metadata = savedChatRoom.getMetadata();
-            String firstMessageId = (String) metadata.get("lastMessageId");
-            HashMap<String, Object> userMessage = TypeConverter.castToHashMap(messages.get(firstMessageId));
+        ChatMessage assistantMessage = addAiResponse(chatRoom, aiResponse);
+        applyArrivedTitle(turn, chatRoom);
 
-            processImageUpload(userMessage, request.getImage(), userId, savedChatRoom.getId());
+        // 사용자 메시지는 prepareTurn에서 커밋된 분리 엔티티라 응답 DTO에만 URL을 넣는다 (DB는 업로드 서비스가 반영)
+        ChatRoomMessageResponse response = buildMessageResponse(chatRoom, List.of(turn.userMessage(), assistantMessage));
+        String imageUrl = arrivedImageUrl(turn);
+        List<Message.AttachmentDto> attachments = response.getNewMessages().get(0).getAttachments();
+        if (imageUrl != null && attachments != null) {
+            attachments.forEach(attachment -> attachment.setFileUrl(imageUrl));
+        }
+        return response;
+    }
 
-            messages.put(firstMessageId, userMessage);
-            savedChatRoom.updateMessages(messages);
+    /**
+     * 논블로킹 전송 실패 시 prepareTurn에서 저장한 사용자 메시지 정리 (동기 API의 롤백과 같은 결과)
+     * 새 채팅방은 채팅방째 지우고, 기존 채팅방은 그 사이 다른 메시지가 추가되지 않았을 때만 사용자 메시지를 지운다.
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOMS_BY_USER, key = "#userId"),
+        @CacheEvict(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL, key = "#turn.chatRoom().getId()")
+    })
+    public void abandonTurn(PreparedTurn turn, Long userId) {
+        Long chatRoomId = turn.chatRoom().getId();
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(chatRoomId).orElse(null);
+        if (chatRoom == null) {
+            return;
         }
+        if (turn.newChatRoom()) {
+            chatMessageService.deleteMessages(chatRoomId);
+            chatRoomRepository.delete(chatRoom);
+        } else if (!chatMessageService.discardLastMessage(chatRoom, turn.userMessage())) {
+            log.warn("응답 실패한 사용자 메시지 뒤에 메시지가 추가되어 남겨 둠 - 채팅방 ID: {}, seq: {}",
+                    chatRoomId, turn.userMessage().getSeq());
+        }
+    }
 
-        return savedChatRoom;
+    private PreparedTurn prepare(ChatRoomMessageRequest request, Long userId) {
+        ChatRoom chatRoom;
+        CompletableFuture<String> titleFuture = null;
+        
+        // 기존 채팅방 ID가 오지 않은 경우 
+        if (request.getChatRoomId() == null) {
+            // 새 채팅방 생성 (임시 제목), 제목은 AI 응답과 동시에 생성
+            chatRoom = createNewChatRoom(userId);
+            titleFuture = titleService.startTitleGeneration(chatRoom.getId(), userId, request.getMessage(), null);
+        } else {
+            // 기존 채팅방 조회 (JSON 메시지가 남아 있으면 먼저 chat_message로 이전)
+            chatRoom = findChatRoomForWrite(request.getChatRoomId(), userId);
+        }
+        // 사용자 메시지 추가 (이미지는 AI 응답 생성과 동시에 업로드)
+        ChatMessage userMessage = addUserMessage(chatRoom, request);
+        CompletableFuture<String> imageUrlFuture = startImageUpload(userMessage, request, userId);
+
+        return new PreparedTurn(chatRoom, userMessage, request.getChatRoomId() == null, titleFuture, imageUrlFuture);
     }
 
-    // 기존 채팅방에 메시지 추가
-    private ChatRoom addMessageToExistingChatRoom(Long chatRoomId, Long userId, ChatRoomMessageRequest request) {
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
+    // 응답보다 먼저 끝난 이미지 업로드 URL (아니면 커밋 후 업로드 서비스가 별도로 갱신)
+    private String arrivedImageUrl(PreparedTurn turn) {
+        return turn.imageUrlFuture() != null ? turn.imageUrlFuture().getNow(null) : null;
+    }
+
+    // 응답보다 먼저 끝난 제목 생성은 같은 트랜잭션에서 반영 (아니면 커밋 후 별도로 갱신됨)
+    private void applyArrivedTitle(PreparedTurn turn, ChatRoom chatRoom) {
+        if (turn.titleFuture() != null) {
+            String generatedTitle = turn.titleFuture().getNow(null);
+            if (generatedTitle != null) {
+                chatRoom.updateTitle(generatedTitle);
+            }
+        }
+    }
+
+    // 새 채팅방 생성 (메시지는 chat_message에 저장하므로 JSON 컬럼 없이 생성)
+    private ChatRoom createNewChatRoom(Long userId) {
+        ChatRoom chatRoom = ChatRoom.builder()
+                .userId(userId)
+                .title(ChatRoomTitleService.PLACEHOLDER_TITLE)
+                .metadata(new HashMap<>())
+                .lastMessageSeq(0)
+                .build();
+        return chatRoomRepository.save(chatRoom);
+    }
+
+    // 메시지를 추가할 기존 채팅방 조회 (seq 할당이 겹치지 않도록 트랜잭션 끝까지 행 잠금)
+    private ChatRoom findChatRoomForWrite(Long chatRoomId, Long userId) {
+        chatMessageService.ensureMigrated(chatRoomId);
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(chatRoomId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
         
         validateChatRoomOwnership(chatRoom, userId);
         
-        // 새 메시지 추가
-        addUserMessageToChatRoom(chatRoom, request, userId);
-        
         return chatRoom;
     }
     
-    // 사용자 메시지를 채팅방에 추가
-    private void addUserMessageToChatRoom(ChatRoom chatRoom, ChatRoomMessageRequest request, Long userId) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        String newMessageId = messageFactory.generateNextMessageId(messages);
-
-        // 메시지 데이터 생성
-        HashMap<String, Object> messageData = messageFactory.createUserMessageData(request.getMessage(), null);
-
-        // 이미지 처리
-        processImageUpload(messageData, request.getImage(), userId, chatRoom.getId());
-
-        messages.put(newMessageId, messageData);
-
-        // 메타데이터 업데이트
-        HashMap<String, Object> metadata = chatRoom.getMetadata();
-        metadata.put("lastMessageId", newMessageId);
-        metadata.put("messageCount", messages.size());
+    // 사용자 메시지를 채팅방에 추가 (이미지는 검증 후 파일명만 먼저 저장)
+    private ChatMessage addUserMessage(ChatRoom chatRoom, ChatRoomMessageRequest request) {
+        // 업로드와 모델 요청이 같은 바이트를 쓰도록 메모리로 복사
+        MultipartFile image = imageUploadService.toInMemory(request.getImage());
+        request.setImage(image);
+        String imageName = null;
+        if (image != null && !image.isEmpty()) {
+            imageUploadService.validate(image);
+            imageName = image.getOriginalFilename();
+        }
+        return chatMessageService.appendUserMessage(chatRoom, request.getMessage(), null, imageName);
+    }
 
-        chatRoom.updateMessages(messages);
-        chatRoom.updateMetadata(metadata);
+    private CompletableFuture<String> startImageUpload(ChatMessage userMessage, ChatRoomMessageRequest request, Long userId) {
+        MultipartFile image = request.getImage();
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        return imageUploadService.uploadAndAttach(userMessage, image, userId);
     }
     
+    private OpenAIResponse requestFirstAnswer(ChatRoomMessageRequest request) {
+        if (!answerCache.isCacheable(request)) {
+            return openAIService.sendMessageWithHistory(request.getMessage(), request.getImage(), null);
+        }
+        Optional<String> cachedAnswer = answerCache.find(request.getMessage());
+        if (cachedAnswer.isPresent()) {
+            return OpenAIResponse.builder()
+                    .content(cachedAnswer.get())
+                    .model(ChatAnswerCache.MODEL)
+                    .build();
+        }
+        OpenAIResponse aiResponse = openAIService.sendMessageWithHistory(request.getMessage(), null, null);
+        answerCache.put(request.getMessage(), aiResponse.getContent());
+        return aiResponse;
+    }
+
+    // 기존 채팅방 - 직전 AI 응답이 체인으로 이어지면 새 메시지만, 아니면(또는 체인 만료 시) 누적 요약 + 토큰 예산 안의 최근 메시지 전달
+    private OpenAIResponse requestWithContext(ChatRoom chatRoom, ChatRoomMessageRequest request, int currentSeq) {
+        String previousResponseId = contextProperties.isResponseChainEnabled()
+                ? chatRoom.getChainableResponseId(currentSeq) : null;
+        if (previousResponseId != null) {
+            return openAIService.sendMessageWithPreviousResponse(request.getMessage(), request.getImage(), previousResponseId,
+                    () -> contextBuilder.build(chatRoom, currentSeq));
+        }
+        List<Map<String, Object>> messageHistory = contextBuilder.build(chatRoom, currentSeq);
+        return openAIService.sendMessageWithHistory(request.getMessage(), request.getImage(), messageHistory);
+    }
+
     // AI 응답을 채팅방 메시지에 추가
-    private String addAiResponseToMessages(ChatRoom chatRoom, OpenAIResponse aiResponse) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        HashMap<String, Object> assistantMessage = messageFactory.createAssistantMessageData(aiResponse);
-        
-        // 다음 메시지 ID 생성
-        String nextMessageId = messageFactory.generateNextMessageId(messages);
-        messages.put(nextMessageId, assistantMessage);
-        
-        // 기존 메타데이터 가져와서 업데이트
-        HashMap<String, Object> metadata = chatRoom.getMetadata();
-        metadata.put("lastMessageId", nextMessageId);
-        metadata.put("messageCount", messages.size());
+    private ChatMessage addAiResponse(ChatRoom chatRoom, OpenAIResponse aiResponse) {
+        ChatMessage assistantMessage = chatMessageService.appendAssistantMessage(chatRoom, aiResponse.getContent());
+        chatRoom.updateLastResponse(aiResponse.getResponseId(), assistantMessage.getSeq());
+        usageMeter.record(chatRoom.getUserId(), aiResponse.getModel(), aiResponse.getPromptTokens(), aiResponse.getCompletionTokens());
         
         // 메타데이터 업데이트
-        ChatRoomMetadata chatRoomMetadata = metadataService.createMetadata(aiResponse, nextMessageId, messages.size());
+        HashMap<String, Object> metadata = chatRoom.getMetadata();
+        ChatRoomMetadata chatRoomMetadata = metadataService.createMetadata(
+                aiResponse, assistantMessage.getMessageId(), chatRoom.getMessageCount());
         HashMap<String, Object> updatedMetadata = metadataService.convertToMap(chatRoomMetadata);
         metadata.putAll(updatedMetadata);
-        
-        chatRoom.updateMessages(messages);
         chatRoom.updateMetadata(metadata);
         
-        return nextMessageId;
+        return assistantMessage;
     }
     
     // 채팅방 소유자 권한 확인
@@ -172,128 +285,121 @@ public class ChatRoomService {
             throw new BusinessException(ErrorCode.CHAT_ROOM_ACCESS_DENIED);
         }
     }
-    
-    
-    // 이미지 업로드 처리
-    private void processImageUpload(HashMap<String, Object> messageData, MultipartFile image, Long userId, Long chatRoomId) {
-        if (image != null && !image.isEmpty()) {
-            ImageResponse imageResponse = imageService.uploadImageByType(
-                ImageType.USER_CHAT,
-                image,
-                userId,
-                chatRoomId
-            );
-            String imageUrl = imageResponse.getFileUrl();
-            String fileName = image.getOriginalFilename();
-            
-            messageFactory.addImageToMessage(messageData, imageUrl, fileName);
-        }
-    }
-
-    /**
-     * ChatRoom 엔티티 생성 (이미지 없이)
-    * 첫 생성때는 chatRoomId가 없기 때문 (이미지 업로드 시 chatRoomId 필요)
-     */
-    private ChatRoom buildChatRoomWithoutImage(Long userId, String title, ChatRoomMessageRequest request) {
-        // 이미지 없이 초기 메시지만 생성
-        HashMap<String, Object> initialMessages = messageFactory.createUserMessageData(request.getMessage(), null);
-        HashMap<String, Object> messages = new HashMap<>();
-        String firstMessageId = messageFactory.generateNextMessageId(messages);
-        messages.put(firstMessageId, initialMessages);
-        
-        // 임시 메타데이터 (AI 응답 전)
-        HashMap<String, Object> metadataMap = new HashMap<>();
-        metadataMap.put("lastMessageId", firstMessageId);
-        metadataMap.put("messageCount", 1);
-        
-        return ChatRoom.builder()
-                .userId(userId)
-                .title(title)
-                .messages(messages)
-                .metadata(metadataMap)
-                .build();
-    }
 
 
     // 응답 DTO 생성
-    private ChatRoomDetailResponse buildDetailResponse(ChatRoom savedChatRoom) {
+    private ChatRoomDetailResponse buildDetailResponse(ChatRoom savedChatRoom, ChatMessageService.MessagePage messagePage) {
         ChatRoomResponse chatRoomResponse = ChatRoomResponse.from(savedChatRoom);
         
-        // 전체 메시지 변환
-        List<Message> messages = messageFactory.convertToMessageList(savedChatRoom.getMessages());
-        
         // 메타데이터에서 사용량 정보 가져오기
         ChatRoomMetadata.Usage usage = metadataService.extractUsageFromMetadata(savedChatRoom.getMetadata());
         
         return ChatRoomDetailResponse.builder()
                 .chatRoom(chatRoomResponse)
-                .messages(messages)
+                .messages(messagePage.messages())
                 .usage(usage)
+                .page(messagePage.page())
                 .build();
     }
 
-    // 사용자별 채팅방 목록 조회
-    @Cacheable(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOMS_BY_USER, key = "#userId")
-    public List<ChatRoomResponse> getChatRoomsByUserId(Long userId) {
-            List<ChatRoom> chatRooms = chatRoomRepository.findByUserIdOrderByUpdatedAtDesc(userId);
+    /**
+     * 사용자별 채팅방 목록 조회 (최근 수정순)
+     * JSON 컬럼 없이 목록 컬럼만 프로젝션으로 읽고, size가 있으면 (updated_at, id) keyset으로 한 페이지만 조회한다.
+     * 커서 없는 전체 목록만 캐시한다 (기존 evict 키 그대로 사용).
+     */
+    @Cacheable(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOMS_BY_USER, key = "#userId",
+            condition = "#cursor == null && #size == null")
+    public List<ChatRoomResponse> getChatRoomsByUserId(Long userId, String cursor, Integer size) {
+        ChatRoomListCursor after = ChatRoomListCursor.parse(cursor);
+        Limit limit = size != null ? Limit.of(Math.min(Math.max(size, 1), MAX_LIST_PAGE_SIZE)) : Limit.unlimited();
+
+        List<ChatRoomSummary> summaries = after == null
+                ? chatRoomRepository.findSummariesByUserId(userId, limit)
+                : chatRoomRepository.findSummariesByUserIdAfter(userId, after.updatedAt(), after.id(), limit);
+
+        List<ChatRoomResponse> responses = summaries.stream()
+                .map(summary -> ChatRoomResponse.from(summary, ChatRoomListCursor.of(summary).encode()))
+                .collect(Collectors.toList());
+        fillMissingSummaries(summaries, responses);
+        return responses;
+    }
 
-            return chatRooms.stream()
-                            .map(ChatRoomResponse::from)
-                            .collect(Collectors.toList());
+    // 미리보기 컬럼이 생기기 전 채팅방은 마지막 메시지를 한 번에 조회, 이전 전 채팅방은 엔티티에서 개수/미리보기 계산
+    private void fillMissingSummaries(List<ChatRoomSummary> summaries, List<ChatRoomResponse> responses) {
+        Map<Long, ChatRoomResponse> missingPreview = new HashMap<>();
+        Map<Long, ChatRoomResponse> legacy = new HashMap<>();
+        for (int i = 0; i < summaries.size(); i++) {
+            ChatRoomSummary summary = summaries.get(i);
+            if (!summary.isMessagesMigrated()) {
+                legacy.put(summary.id(), responses.get(i));
+            } else if (summary.lastMessagePreview() == null && summary.lastMessageSeq() > 0) {
+                missingPreview.put(summary.id(), responses.get(i));
+            }
+        }
+        if (!missingPreview.isEmpty()) {
+            chatMessageService.findLastMessages(List.copyOf(missingPreview.keySet())).forEach(message ->
+                    missingPreview.get(message.getChatRoomId()).setLastMessagePreview(ChatRoom.preview(message.getContent())));
+        }
+        if (!legacy.isEmpty()) {
+            chatRoomRepository.findAllById(legacy.keySet()).forEach(chatRoom -> {
+                ChatRoomResponse response = legacy.get(chatRoom.getId());
+                response.setMessageCount(chatRoom.getMessageCount());
+                List<Message> messages = messageFactory.convertToMessageList(chatRoom.getMessages() != null ? chatRoom.getMessages() : new HashMap<>());
+                if (!messages.isEmpty()) {
+                    response.setLastMessagePreview(ChatRoom.preview(messages.get(messages.size() - 1).getContent()));
+                }
+            });
+        }
     }
     
-    @Cacheable(cacheNames = com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL, key = "#chatRoomId")
-    public ChatRoomDetailResponse getChatRoomDetail(Long chatRoomId) {
+    /**
+     * 채팅방 상세 조회 (메시지는 before/after 메시지 ID 기준 한 페이지, 커서가 없으면 최근 메시지)
+     * 캐시는 채팅방 ID 키 아래에 페이지별로 보관해, 채팅방 ID로 evict하면 그 채팅방의 모든 페이지가 함께 지워진다.
+     */
+    public ChatRoomDetailResponse getChatRoomDetail(Long chatRoomId, String before, String after, Integer size) {
+        if (before != null && after != null) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        Integer beforeSeq = parseCursor(before);
+        Integer afterSeq = parseCursor(after);
+        int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_MESSAGE_PAGE_SIZE) : messagePageSize;
+        String pageKey = beforeSeq + ":" + afterSeq + ":" + pageSize;
+
+        Cache cache = cacheManager.getCache(com.divary.global.config.CacheConfig.CACHE_CHATROOM_DETAIL);
+        ConcurrentMap<String, ChatRoomDetailResponse> pages = cache != null ? cache.get(chatRoomId, ConcurrentHashMap::new) : null;
+        ChatRoomDetailResponse cached = pages != null ? pages.get(pageKey) : null;
+        if (cached != null) {
+            return cached;
+        }
+
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
+        ChatRoomDetailResponse response = buildDetailResponse(chatRoom,
+                chatMessageService.getMessagePage(chatRoom, beforeSeq, afterSeq, pageSize));
 
-        return buildDetailResponse(chatRoom);
+        if (pages != null && pages.size() < MAX_CACHED_PAGES_PER_ROOM) {
+            pages.put(pageKey, response);
+        }
+        return response;
     }
-    
-    // OpenAI API용 메시지 히스토리 구성 (최대 20개 메시지)
-    private List<Map<String, Object>> buildMessageHistoryForOpenAI(ChatRoom chatRoom) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        
-        // 메시지 ID로 정렬 (msg_001, msg_002, ...)
-        List<String> sortedMessageIds = messages.keySet().stream()
-                .filter(key -> key.startsWith("msg_"))
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
-        
-        // 최근 20개 메시지만 선택 (현재 사용자 메시지 제외)
-        int maxMessages = 20;
-        int startIndex = Math.max(0, sortedMessageIds.size() - maxMessages);
-        List<String> recentMessageIds = sortedMessageIds.subList(startIndex, sortedMessageIds.size());
-        
-        List<Map<String, Object>> messageHistory = new java.util.ArrayList<>();
-        
-        for (String messageId : recentMessageIds) {
-            HashMap<String, Object> messageData = TypeConverter.castToHashMap(messages.get(messageId));
-            
-            String type = (String) messageData.get("type");
-            String content = (String) messageData.get("content");
-            
-            Map<String, Object> openAIMessage = new HashMap<>();
-            openAIMessage.put("role", "user".equals(type) ? "user" : "assistant");
-            openAIMessage.put("content", content);
-            
-            messageHistory.add(openAIMessage);
+
+    // 메시지 ID 커서(msg_042) -> seq
+    private Integer parseCursor(String messageId) {
+        if (messageId == null) {
+            return null;
         }
-        
-        return messageHistory;
+        Integer seq = ChatMessage.parseSeq(messageId);
+        if (seq == null || seq < 0) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        return seq;
     }
     
     // 새 메시지만 포함한 응답 생성
-    private ChatRoomMessageResponse buildMessageResponse(ChatRoom chatRoom, List<String> newMessageIds) {
-        // 새 메시지들만 변환
-        HashMap<String, Object> allMessages = chatRoom.getMessages();
-        HashMap<String, Object> newMessagesMap = new HashMap<>();
-        
-        for (String messageId : newMessageIds) {
-            newMessagesMap.put(messageId, allMessages.get(messageId));
-        }
-        
-        List<Message> newMessages = messageFactory.convertToMessageList(newMessagesMap);
+    private ChatRoomMessageResponse buildMessageResponse(ChatRoom chatRoom, List<ChatMessage> newChatMessages) {
+        List<Message> newMessages = newChatMessages.stream()
+                .map(messageFactory::createMessageDto)
+                .collect(Collectors.toList());
         
         // 메타데이터에서 사용량 정보 가져오기
         ChatRoomMetadata.Usage usage = metadataService.extractUsageFromMetadata(chatRoom.getMetadata());
@@ -318,6 +424,7 @@ public class ChatRoomService {
         
         validateChatRoomOwnership(chatRoom, userId);
         
+        chatMessageService.deleteMessages(chatRoomId);
         chatRoomRepository.delete(chatRoom);
     }
     
@@ -335,4 +442,12 @@ public class ChatRoomService {
         
         chatRoom.updateTitle(title);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 사용자 메시지까지 저장된 전송 단계
+     * titleFuture는 새 채팅방일 때만, imageUrlFuture는 이미지가 있을 때만 존재한다.
+     */
+    public record PreparedTurn(ChatRoom chatRoom, ChatMessage userMessage, boolean newChatRoom,
+                               CompletableFuture<String> titleFuture, CompletableFuture<String> imageUrlFuture) {
+    }
+}
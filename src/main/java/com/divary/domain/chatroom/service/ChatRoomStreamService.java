@@ -1,33 +1,34 @@
-
 package com.divary.domain.chatroom.service;
 
-import com.divary.common.converter.TypeConverter;
-import com.divary.domain.chatroom.dto.ChatRoomMetadata;
 import com.divary.domain.chatroom.dto.request.ChatRoomMessageRequest;
-import com.divary.domain.chatroom.dto.response.OpenAIResponse;
 import com.divary.domain.chatroom.entity.ChatRoom;
-import com.divary.domain.chatroom.repository.ChatRoomRepository;
-import com.divary.domain.image.dto.response.ImageResponse;
-import com.divary.domain.image.enums.ImageType;
-import com.divary.domain.image.service.ImageService;
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.OpenAIStreamEvent;
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.Usage;
+import com.divary.global.config.properties.ChatContextProperties;
+import com.divary.global.config.properties.ChatStreamProperties;
 import com.divary.global.exception.BusinessException;
 import com.divary.global.exception.ErrorCode;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Service
@@ -35,282 +36,466 @@ import java.util.concurrent.atomic.AtomicLong;
 @Slf4j
 public class ChatRoomStreamService {
 
-    private final ChatRoomRepository chatRoomRepository;
-    private final OpenAIStreamService openAIStreamService;
-    private final OpenAIService openAIService;
-    private final MessageFactory messageFactory;
-    private final ImageService imageService;
-    private final ChatRoomMetadataService metadataService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 캐시 답변 재생 시 청크 크기 (업스트림 delta와 비슷한 크기)
+    private static final int REPLAY_CHUNK_CODE_POINTS = 8;
 
-    private final ConcurrentHashMap<String, SseEmitter> activeConnections = new ConcurrentHashMap<>();
+    private final ChatStreamPersistenceService persistenceService;
+    private final ChatContextBuilder contextBuilder;
+    private final ChatContextProperties contextProperties;
+    private final OpenAIStreamService openAIStreamService;
+    private final OpenAIClient openAIClient;
+    private final ChatRoomTitleService titleService;
+    private final ChatStreamProperties streamProperties;
+    private final ChatStreamMetrics streamMetrics;
+    private final ChatAnswerCache answerCache;
+    private final ChatImageUploadService imageUploadService;
+    private final ChatUsageMeter usageMeter;
+
+    // 진행 중이거나 재연결 대기 중인 스트림 세션 (connectionId -> 세션)
+    private final ConcurrentHashMap<String, ChatStreamSession> activeConnections = new ConcurrentHashMap<>();
     private final AtomicLong connectionIdGenerator = new AtomicLong(0);
+    // SseEmitter 전송 큐 writer (연결마다 쓰기 중일 때만 가상 스레드 하나 사용)
+    private final ExecutorService sseWriter = Executors.newVirtualThreadPerTaskExecutor();
 
-    @Transactional
-    public SseEmitter streamChatRoomMessage(ChatRoomMessageRequest request, Long userId) {
-        String connectionId = "conn_" + userId + "_" + connectionIdGenerator.incrementAndGet();
+    // permit은 ChatStreamAdmissionService에서 받은 입장 자리로, 스트림이 끝나면 반납된다
+    public SseEmitter streamChatRoomMessage(ChatRoomMessageRequest request, Long userId,
+                                            ChatStreamAdmissionService.Permit permit) {
+        prepareImage(request);
         SseEmitter emitter = new SseEmitter(300_000L);
+        ChatStreamSink sink = outbound(emitter);
+        ChatStreamSession session = openSession(request, userId, sink, permit);
+        registerEmitterCallbacks(session, emitter, sink);
+
+        startStream(session, request, userId);
+        return emitter;
+    }
+
+    /**
+     * Flux&lt;ServerSentEvent&gt; 기반 스트리밍
+     * 채팅방 준비(DB 저장, 이미지 업로드 시작)부터 bounded elastic 스케줄러에서 실행하고 요청 스레드는 바로 반환한다.
+     * 이벤트 형식, SSE id, 재연결(GET /stream/{connectionId})은 SseEmitter 경로와 동일하다.
+     */
+    public Flux<ServerSentEvent<Object>> streamChatRoomMessageReactive(ChatRoomMessageRequest request, Long userId,
+                                                                      ChatStreamAdmissionService.Permit permit) {
+        prepareImage(request);
+        ChatStreamSink.ReactiveSink reactiveSink = ChatStreamSink.reactive();
+        ChatStreamSink sink = outbound(reactiveSink);
+        ChatStreamSession session = openSession(request, userId, sink, permit);
+
+        Mono.fromRunnable(() -> startStream(session, request, userId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+
+        // 클라이언트 이탈/비동기 요청 타임아웃은 구독 취소로 들어온다
+        return reactiveSink.asFlux()
+                .doOnCancel(() -> session.detach(sink));
+    }
+
+    private ChatStreamSink outbound(SseEmitter emitter) {
+        return outbound(ChatStreamSink.of(emitter));
+    }
+
+    // SSE 쓰기는 연결별 전송 큐를 거쳐 writer 가상 스레드에서 실행 (느린 클라이언트가 업스트림 스레드를 막지 않도록)
+    // Flux 경로도 같은 큐를 거쳐, 구독자 요청이 없을 때 쌓이는 양을 queueCapacity와 overflowPolicy로 제한한다
+    private ChatStreamSink outbound(ChatStreamSink delegate) {
+        ChatStreamProperties.Outbound outbound = streamProperties.getOutbound();
+        return new ChatStreamOutbound(delegate, outbound.getQueueCapacity(),
+                outbound.getOverflowPolicy(), sseWriter, streamMetrics);
+    }
+
+    // 요청 스레드에서 이미지를 메모리로 복사 (요청이 먼저 반환돼 임시 파일이 정리돼도 S3 업로드와 모델 요청이 같은 바이트 사용)
+    private void prepareImage(ChatRoomMessageRequest request) {
+        request.setImage(imageUploadService.toInMemory(request.getImage()));
+    }
+
+    private ChatStreamSession openSession(ChatRoomMessageRequest request, Long userId, ChatStreamSink sink,
+                                          ChatStreamAdmissionService.Permit permit) {
+        String connectionId = "conn_" + userId + "_" + connectionIdGenerator.incrementAndGet();
+        ChatStreamSession session = new ChatStreamSession(
+                connectionId, userId, sink, request.getStreamMode(), streamProperties.getReplayBufferSize());
+
+        streamMetrics.recordStreamOpened();
+        session.onFinish(outcome -> {
+            permit.release();
+            streamMetrics.recordStreamFinished(outcome, System.nanoTime() - session.getOpenedAtNanos());
+        });
+        activeConnections.put(connectionId, session);
+        session.onDetach(() -> scheduleUpstreamCancel(session));
+        return session;
+    }
 
+    private void startStream(ChatStreamSession session, ChatRoomMessageRequest request, Long userId) {
         try {
-            ChatRoom chatRoom = prepareChatRoomAndSaveUserMessage(request, userId);
+            ChatRoom chatRoom = persistenceService.prepareChatRoomAndSaveUserMessage(request, userId);
+            Long chatRoomId = chatRoom.getId();
 
-            activeConnections.put(connectionId, emitter);
-            emitter.onCompletion(() -> cleanupConnection(connectionId));
-            emitter.onTimeout(() -> cleanupConnection(connectionId));
-            emitter.onError(error -> cleanupConnection(connectionId));
+            sendStreamStartEvent(session, request);
 
-            
-            sendStreamStartEvent(emitter, connectionId, request);
+            // 새 채팅방은 임시 제목으로 시작하고, 제목은 답변 스트림과 동시에 생성해 title_ready 이벤트로 전달
+            if (request.getChatRoomId() == null) {
+                titleService.startTitleGeneration(chatRoomId, userId, request.getMessage(),
+                        title -> sendTitleReadyEvent(session, chatRoomId, title));
+            }
+
+            // 캐시 대상 첫 질문은 저장된 답변을 같은 청크 이벤트로 재생하고, 미스면 스트림 완료 후 답변을 캐시
+            String cacheQuestion = answerCache.isCacheable(request) ? request.getMessage() : null;
+            if (cacheQuestion != null) {
+                Optional<String> cachedAnswer = answerCache.find(cacheQuestion);
+                if (cachedAnswer.isPresent()) {
+                    replayCachedAnswer(session, chatRoomId, cachedAnswer.get());
+                    return;
+                }
+            }
 
-            List<Map<String, Object>> messageHistory = buildMessageHistoryForOpenAI(chatRoom);
-            Flux<String> streamFlux = openAIStreamService.sendMessageStream(
-                    request.getMessage(),
-                    request.getImage(),
-                    messageHistory
-            )
-            .timeout(Duration.ofMinutes(3))
-            .retry(2);
+            // 재시도마다 시도 위치를 초기화해 이미 보낸 앞부분을 다시 보내지 않도록 한다
+            Flux<String> upstream = openUpstream(chatRoom, request);
+            Flux<String> streamFlux = Flux.defer(() -> {
+                        session.beginAttempt();
+                        return upstream;
+                    })
+                    .timeout(Duration.ofMinutes(3))
+                    .retryWhen(openAIClient.retry("stream", error -> allowUpstreamRetry(session)));
 
-            processStreamEvents(streamFlux, emitter, connectionId, chatRoom);
+            processStreamEvents(streamFlux, session, chatRoomId, cacheQuestion);
 
         } catch (Exception e) {
-            log.error("스트림 처리 중 오류 발생 [{}]: {}", connectionId, e.getMessage());
-            sendErrorToClient(emitter, connectionId, "스트림 초기화 실패", e);
+            log.error("스트림 처리 중 오류 발생 [{}]: {}", session.getConnectionId(), e.getMessage());
+            sendErrorToClient(session, "스트림 초기화 실패", e);
         }
+    }
 
-        return emitter;
+    // 직전 AI 응답이 체인으로 이어지면 새 메시지만 보내고, 아니면(또는 체인 만료 시) 요약 + 최근 메시지로 요청
+    private Flux<String> openUpstream(ChatRoom chatRoom, ChatRoomMessageRequest request) {
+        // 방금 저장한 사용자 메시지는 요청 본문에 따로 들어가므로 그 이전까지만 컨텍스트로 사용
+        int currentSeq = chatRoom.getLastMessageSeq();
+        String previousResponseId = contextProperties.isResponseChainEnabled()
+                ? chatRoom.getChainableResponseId(currentSeq) : null;
+
+        if (previousResponseId == null) {
+            List<Map<String, Object>> messageHistory = contextBuilder.build(chatRoom, currentSeq);
+            return openAIStreamService.sendMessageStream(request.getMessage(), request.getImage(), messageHistory);
+        }
+        // 체인 만료는 업스트림(Netty) 스레드에서 감지되므로 히스토리 조회는 bounded elastic에서 실행
+        Mono<List<Map<String, Object>>> fallbackHistory = Mono.fromCallable(() -> contextBuilder.build(chatRoom, currentSeq))
+                .subscribeOn(Schedulers.boundedElastic());
+        return openAIStreamService.sendMessageStreamWithPreviousResponse(
+                request.getMessage(), request.getImage(), previousResponseId, fallbackHistory);
     }
 
-    private ChatRoom prepareChatRoomAndSaveUserMessage(ChatRoomMessageRequest request, Long userId) {
-        if (request.getChatRoomId() == null) {
-            return createNewChatRoom(userId, request);
-        } else {
-            return addMessageToExistingChatRoom(request.getChatRoomId(), userId, request);
+    // 입장 거절: 재시도 대기 시간을 담은 stream_rejected 이벤트를 보내고 바로 종료
+    public SseEmitter rejectStream(ChatStreamAdmissionService.Admission admission) {
+        SseEmitter emitter = new SseEmitter(0L);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("stream_rejected")
+                    .reconnectTime(admission.retryAfterMs())
+                    .data(buildRejectedEvent(admission)));
+        } catch (Exception e) {
+            log.warn("입장 거절 이벤트 전송 실패: {}", e.getMessage());
+        } finally {
+            emitter.complete();
         }
+        return emitter;
     }
 
-    private ChatRoom createNewChatRoom(Long userId, ChatRoomMessageRequest request) {
-        String title = openAIService.generateTitle(request.getMessage());
+    public Flux<ServerSentEvent<Object>> rejectStreamReactive(ChatStreamAdmissionService.Admission admission) {
+        return Flux.just(ServerSentEvent.<Object>builder(buildRejectedEvent(admission))
+                .event("stream_rejected")
+                .retry(Duration.ofMillis(admission.retryAfterMs()))
+                .build());
+    }
 
-        ChatRoom chatRoom = buildChatRoomWithoutImage(userId, title, request);
-        ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+    private Map<String, Object> buildRejectedEvent(ChatStreamAdmissionService.Admission admission) {
+        ErrorCode errorCode = ChatStreamAdmissionService.REJECT_QUOTA_EXCEEDED.equals(admission.rejectReason())
+                ? ErrorCode.CHAT_USAGE_QUOTA_EXCEEDED : ErrorCode.CHAT_STREAM_BUSY;
+        return Map.of(
+            "eventType", "stream_rejected",
+            "error", Map.of(
+                "type", errorCode.getCode(),
+                "reason", admission.rejectReason(),
+                "message", errorCode.getMessage()),
+            "retryAfterMs", admission.retryAfterMs(),
+            "timestamp", System.currentTimeMillis()
+        );
+    }
 
-        if (request.getImage() != null && !request.getImage().isEmpty()) {
-            updateImageInfoInMessage(savedChatRoom, request.getImage(), userId);
+    /**
+     * 끊긴 스트림에 재연결
+     * Last-Event-ID 이후 이벤트를 재전송하고, 업스트림이 아직 진행 중이면 이후 청크를 이어서 받는다.
+     */
+    public SseEmitter resumeStream(String connectionId, Long userId, long lastEventId) {
+        SseEmitter emitter = new SseEmitter(300_000L);
+        ChatStreamSession session;
+        try {
+            session = findSession(connectionId, userId);
+        } catch (BusinessException e) {
+            sendErrorToClient(emitter, connectionId, e);
+            return emitter;
         }
-        return savedChatRoom;
-    }
-    
-    private ChatRoom addMessageToExistingChatRoom(Long chatRoomId, Long userId, ChatRoomMessageRequest request) {
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
-        
-        validateChatRoomOwnership(chatRoom, userId);
-        
-        addUserMessageToChatRoom(chatRoom, request, userId);
-        return chatRoom;
-    }
 
-    @Transactional
-    public void saveAssistantResponse(ChatRoom chatRoom, String finalMessage) {
+        ChatStreamSink sink = outbound(emitter);
         try {
-            OpenAIResponse aiResponse = OpenAIResponse.builder()
-                    .content(finalMessage)
-                    .model("gpt-5-nano") // GPT-5-nano 모델로 변경
-                    .promptTokens(0) .completionTokens(0) .totalTokens(0) .cost(0.0)
-                    .build();
-
-            addAiResponseToMessages(chatRoom, aiResponse);
-            chatRoomRepository.save(chatRoom);
+            session.attach(sink, lastEventId);
+            registerEmitterCallbacks(session, emitter, sink);
+            log.info("스트림 재연결 [{}] - lastEventId: {}, finished: {}", connectionId, lastEventId, session.isFinished());
         } catch (Exception e) {
-            log.error("AI 응답 저장 실패 - 채팅방 ID: {}: {}", chatRoom.getId(), e.getMessage(), e);
+            log.warn("스트림 재연결 실패 [{}]: {}", connectionId, e.getMessage());
+            session.detach(sink);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // 재연결할 세션 (이미 정리됐거나 없는 연결이면 CHAT_STREAM_NOT_FOUND, 다른 사용자의 연결이면 CHAT_ROOM_ACCESS_DENIED)
+    ChatStreamSession findSession(String connectionId, Long userId) {
+        ChatStreamSession session = activeConnections.get(connectionId);
+        if (session == null) {
+            throw new BusinessException(ErrorCode.CHAT_STREAM_NOT_FOUND);
+        }
+        if (!session.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.CHAT_ROOM_ACCESS_DENIED);
+        }
+        return session;
+    }
+
+    // 클라이언트 연결이 끝나면 sink를 분리하고, 재연결 유예 시간 안에 돌아오지 않으면 업스트림을 취소
+    // 타임아웃은 유예 없이 즉시 취소
+    private void registerEmitterCallbacks(ChatStreamSession session, SseEmitter emitter, ChatStreamSink sink) {
+        emitter.onCompletion(() -> session.detach(sink));
+        emitter.onTimeout(() -> {
+            session.detach(sink);
+            cancelUpstream(session, "timeout", ChatStreamMetrics.OUTCOME_TIMEOUT);
+        });
+        emitter.onError(error -> session.detach(sink));
+    }
+
+    private void scheduleUpstreamCancel(ChatStreamSession session) {
+        long graceMs = streamProperties.getResumeGrace().toMillis();
+        if (graceMs <= 0) {
+            cancelUpstream(session, "client_disconnect", ChatStreamMetrics.OUTCOME_CLIENT_CANCELLED);
+            return;
+        }
+        Schedulers.parallel().schedule(() -> {
+            if (!session.isAttached()) {
+                cancelUpstream(session, "client_disconnect", ChatStreamMetrics.OUTCOME_CLIENT_CANCELLED);
+            }
+        }, graceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelUpstream(ChatStreamSession session, String reason, String outcome) {
+        if (session.cancelUpstream(outcome)) {
+            // 이미 생성된 분량(추정 토큰)을 평소 답변 길이에서 뺀 만큼을 절약분으로 본다
+            int generatedTokens = TokenEstimator.estimate(session.accumulatedMessage());
+            long tokensSaved = Math.max(0, streamProperties.getTypicalCompletionTokens() - generatedTokens);
+            streamMetrics.recordUpstreamCancelled(reason, tokensSaved);
+            log.info("업스트림 스트림 취소 [{}] - reason: {}, 생성 토큰 추정: {}, 절약 토큰 추정: {}",
+                    session.getConnectionId(), reason, generatedTokens, tokensSaved);
         }
     }
 
-    // 스트림 이벤트 처리
-    private void processStreamEvents(Flux<String> streamFlux, SseEmitter emitter, String connectionId,
-            ChatRoom chatRoom) {
-        StringBuilder messageBuilder = new StringBuilder();
-        AtomicLong chunkCounter = new AtomicLong(0);
+    // 캐시된 답변을 업스트림 delta와 같은 크기의 message_chunk 이벤트로 나눠 전송
+    private void replayCachedAnswer(ChatStreamSession session, Long chatRoomId, String answer) {
+        int index = 0;
+        while (index < answer.length()) {
+            int end = answer.offsetByCodePoints(index, Math.min(REPLAY_CHUNK_CODE_POINTS, answer.codePointCount(index, answer.length())));
+            session.bufferDelta(answer.substring(index, end));
+            if (session.markDelta(System.nanoTime()) == 0) {
+                recordFirstDelta(session, ChatStreamMetrics.SOURCE_CACHE);
+            }
+            flushFrame(session);
+            index = end;
+        }
+        session.setUsage(Usage.none(ChatAnswerCache.MODEL));
+        completeStream(session, chatRoomId, null);
+    }
 
-        streamFlux
-                .map(raw -> raw == null ? "" : raw.trim())
-                .map(line -> line.startsWith("data:") ? line.substring(5).trim() : line)
-                .filter(line -> !line.isEmpty() && !"[DONE]".equals(line))
-                .filter(line -> line.startsWith("{"))
+    // 스트림 이벤트 처리 (cacheQuestion이 있으면 정상 완료 시 답변을 캐시)
+    private void processStreamEvents(Flux<String> streamFlux, ChatStreamSession session, Long chatRoomId, String cacheQuestion) {
+        String connectionId = session.getConnectionId();
+
+        // 줄 단위 trim/substring 없이 파서가 첫 '{'부터 직접 읽는다 ([DONE] 등 JSON이 아닌 줄은 무시)
+        // 재시도된 시도는 이미 보낸 앞부분을 건너뛰고, 앞부분이 다르면 오류로 종료한다
+        // response.failed/error 이벤트도 오류로 바꿔 부분 답변이 정상 완료로 저장/캐시되지 않게 한다
+        Disposable upstream = streamFlux
+                .map(line -> parseOpenAIEvent(line, connectionId))
+                .<OpenAIStreamEvent>handle((event, sink) -> {
+                    if (event.isFailed()) {
+                        sink.error(new OpenAIStreamFailedException());
+                    } else {
+                        sink.next(event);
+                    }
+                })
+                .map(event -> event.hasDelta() ? skipDelivered(session, event) : event)
                 .subscribe(
-                        line -> {
+                        event -> {
                             try {
-                                String content = parseOpenAIJSON(line, connectionId);
-                                if (content != null && !content.isEmpty()) {
-                                    messageBuilder.append(content);
-                                    long chunkIndex = chunkCounter.incrementAndGet();
-                                    sendMessageChunkEvent(emitter, connectionId, content, messageBuilder.toString(),
-                                            chunkIndex);
+                                if (event.hasResponseId()) {
+                                    session.setResponseId(event.responseId());
+                                } else if (event.hasUsage()) {
+                                    session.setUsage(event.usage());
+                                } else if (event.hasDelta()) {
+                                    int pendingBytes = session.bufferDelta(event.delta());
+                                    recordDelta(session);
+                                    queueFrame(session, pendingBytes);
                                 }
                             } catch (Exception e) {
                                 log.error("SSE 이벤트 전송 오류 [{}]: {}", connectionId, e.getMessage());
                             }
                         },
                         error -> {
+                            if (error instanceof StreamPrefixDivergedException) {
+                                streamMetrics.recordUpstreamRetry(ChatStreamMetrics.RETRY_PREFIX_DIVERGED);
+                            }
                             log.error("스트림 오류 [{}]: {}", connectionId, error.getMessage());
-                            sendErrorToClient(emitter, connectionId, "스트림 처리 오류", error);
+                            sendErrorToClient(session, "스트림 처리 오류", error);
                         },
                         () -> {
-                            try {
-                                String finalMessage = messageBuilder.toString();
-                                saveAssistantResponse(chatRoom, finalMessage);
-
-                                sendStreamCompleteEvent(emitter, connectionId, finalMessage, chunkCounter.get());
-                                emitter.complete();
-                            } catch (Exception e) {
-                                log.error("스트림 완료 처리 오류 [{}]: {}", connectionId, e.getMessage());
-                            }
+                            completeStream(session, chatRoomId, cacheQuestion);
+                            streamMetrics.recordCoalescing(session.getDeltaCount(), session.getChunkCount(),
+                                    session.getFrameEnvelopeBytes());
                         });
+        session.bindUpstream(upstream);
     }
 
-    private void updateImageInfoInMessage(ChatRoom chatRoom, MultipartFile image, Long userId) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        String firstMessageId = (String) chatRoom.getMetadata().get("lastMessageId");
-        HashMap<String, Object> userMessage = TypeConverter.castToHashMap(messages.get(firstMessageId));
-
-        processImageUpload(userMessage, image, userId, chatRoom.getId());
-
-        messages.put(firstMessageId, userMessage);
-        chatRoom.updateMessages(messages);
+    // 첫 delta와 모인 내용이 기준 크기 이상이면 바로, 나머지는 코얼레싱 창이 끝날 때 한 프레임으로 전송
+    private void queueFrame(ChatStreamSession session, int pendingBytes) {
+        ChatStreamProperties.Coalesce coalesce = streamProperties.getCoalesce();
+        long windowMs = coalesce.getWindow().toMillis();
+        if (windowMs <= 0 || session.getChunkCount() == 0 || pendingBytes >= coalesce.getMaxFrameBytes()) {
+            flushFrame(session);
+            return;
+        }
+        if (session.scheduleFlush()) {
+            Schedulers.parallel().schedule(() -> flushFrame(session), windowMs, TimeUnit.MILLISECONDS);
+        }
     }
 
-    private void addUserMessageToChatRoom(ChatRoom chatRoom, ChatRoomMessageRequest request, Long userId) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        String newMessageId = messageFactory.generateNextMessageId(messages);
-        HashMap<String, Object> messageData = messageFactory.createUserMessageData(request.getMessage(), null);
-
-        processImageUpload(messageData, request.getImage(), userId, chatRoom.getId());
-
-        messages.put(newMessageId, messageData);
-
-        HashMap<String, Object> metadata = chatRoom.getMetadata();
-        metadata.put("lastMessageId", newMessageId);
-        metadata.put("messageCount", messages.size());
-
-        chatRoom.updateMessages(messages);
-        chatRoom.updateMetadata(metadata);
+    // delta 모드는 청크만 전송하고 checkpointInterval마다 누적 길이/체크섬을 함께 보냄
+    // ACCUMULATED 모드는 기존처럼 매 청크마다 누적 메시지 전체를 보냄
+    // 청크는 가장 빈번한 이벤트라 Map/ObjectMapper 대신 템플릿 인코더로 만든 byte[]를 그대로 전송
+    private void flushFrame(ChatStreamSession session) {
+        try {
+            session.flushFrame(streamProperties.getCheckpointInterval());
+        } catch (Exception e) {
+            log.warn("청크 전송 오류 [{}]: {}", session.getConnectionId(), e.getMessage());
+        }
     }
 
-    private String addAiResponseToMessages(ChatRoom chatRoom, OpenAIResponse aiResponse) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        HashMap<String, Object> assistantMessage = messageFactory.createAssistantMessageData(aiResponse);
-        String nextMessageId = messageFactory.generateNextMessageId(messages);
-        messages.put(nextMessageId, assistantMessage);
-
-        HashMap<String, Object> metadata = chatRoom.getMetadata();
-        ChatRoomMetadata chatRoomMetadata = metadataService.createMetadata(aiResponse, nextMessageId, messages.size());
-        HashMap<String, Object> updatedMetadata = metadataService.convertToMap(chatRoomMetadata);
-        metadata.putAll(updatedMetadata);
+    // 첫 delta는 요청 수락부터의 지연, 이후는 직전 delta와의 간격 기록
+    private void recordDelta(ChatStreamSession session) {
+        long now = System.nanoTime();
+        long previous = session.markDelta(now);
+        if (previous == 0) {
+            recordFirstDelta(session, ChatStreamMetrics.SOURCE_UPSTREAM);
+        } else {
+            streamMetrics.recordChunkGap(now - previous);
+        }
+    }
 
-        chatRoom.updateMessages(messages);
-        chatRoom.updateMetadata(metadata);
-        return nextMessageId;
+    private void recordFirstDelta(ChatStreamSession session, String source) {
+        streamMetrics.recordFirstDelta(source, session.getFirstDeltaAtNanos() - session.getOpenedAtNanos());
     }
 
-    private void validateChatRoomOwnership(ChatRoom chatRoom, Long userId) {
-        if (!chatRoom.getUserId().equals(userId)) {
-            throw new BusinessException(ErrorCode.CHAT_ROOM_ACCESS_DENIED);
+    private OpenAIStreamEvent skipDelivered(ChatStreamSession session, OpenAIStreamEvent event) {
+        String fresh = session.skipDelivered(event.delta());
+        int suppressed = event.delta().length() - fresh.length();
+        if (suppressed > 0) {
+            streamMetrics.recordSuppressedCharacters(suppressed);
+        }
+        if (fresh.isEmpty()) {
+            return OpenAIStreamEvent.IGNORED;
         }
+        return suppressed > 0 ? OpenAIStreamEvent.delta(fresh) : event;
     }
 
-    private void processImageUpload(HashMap<String, Object> messageData, MultipartFile image, Long userId, Long chatRoomId) {
-        if (image != null && !image.isEmpty()) {
-            ImageResponse imageResponse = imageService.uploadImageByType(
-                ImageType.USER_CHAT, image, userId, chatRoomId);
-            messageFactory.addImageToMessage(messageData, imageResponse.getFileUrl(), image.getOriginalFilename());
+    // 업스트림 재시도 허용 여부: 첫 토큰 전에는 항상, 이후에는 설정에 따라 (이미 보낸 앞부분은 건너뜀)
+    private boolean allowUpstreamRetry(ChatStreamSession session) {
+        if (session.characterCount() == 0) {
+            streamMetrics.recordUpstreamRetry(ChatStreamMetrics.RETRY_BEFORE_FIRST_TOKEN);
+            return true;
+        }
+        if (streamProperties.isRetryAfterFirstToken()) {
+            streamMetrics.recordUpstreamRetry(ChatStreamMetrics.RETRY_AFTER_FIRST_TOKEN);
+            return true;
         }
+        streamMetrics.recordUpstreamRetry(ChatStreamMetrics.RETRY_REJECTED_AFTER_FIRST_TOKEN);
+        return false;
     }
 
-    private ChatRoom buildChatRoomWithoutImage(Long userId, String title, ChatRoomMessageRequest request) {
-        HashMap<String, Object> initialMessages = messageFactory.createUserMessageData(request.getMessage(), null);
-        HashMap<String, Object> messages = new HashMap<>();
-        String firstMessageId = messageFactory.generateNextMessageId(messages);
-        messages.put(firstMessageId, initialMessages);
-
-        HashMap<String, Object> metadataMap = new HashMap<>();
-        metadataMap.put("lastMessageId", firstMessageId);
-        metadataMap.put("messageCount", 1);
-
-        return ChatRoom.builder()
-                .userId(userId)
-                .title(title)
-                .messages(messages)
-                .metadata(metadataMap)
-                .build();
-    }
-
-    private List<Map<String, Object>> buildMessageHistoryForOpenAI(ChatRoom chatRoom) {
-        HashMap<String, Object> messages = chatRoom.getMessages();
-        List<String> sortedMessageIds = messages.keySet().stream()
-                .filter(key -> key.startsWith("msg_"))
-                .sorted().toList();
-
-        int maxMessages = 20;
-        int startIndex = Math.max(0, sortedMessageIds.size() - maxMessages);
-        List<String> recentMessageIds = sortedMessageIds.subList(startIndex, sortedMessageIds.size());
-
-        List<Map<String, Object>> messageHistory = new ArrayList<>();
-        for (String messageId : recentMessageIds) {
-            HashMap<String, Object> messageData = TypeConverter.castToHashMap(messages.get(messageId));
-            String type = (String) messageData.get("type");
-            String content = (String) messageData.get("content");
-            messageHistory.add(Map.of("role", "user".equals(type) ? "user" : "assistant", "content", content));
+    // 응답 저장은 블로킹 JPA 호출이므로 업스트림(Netty) 스레드가 아닌 bounded elastic 스케줄러에서 실행한 뒤 완료 이벤트 전송
+    private void completeStream(ChatStreamSession session, Long chatRoomId, String cacheQuestion) {
+        flushFrame(session);
+        String connectionId = session.getConnectionId();
+        String finalMessage = session.accumulatedMessage();
+        String responseId = session.getResponseId();
+        Usage usage = session.getUsage();
+        if (usage == null) {
+            log.warn("스트림 사용량 이벤트 없음 [{}] - responseId: {}", connectionId, responseId);
+            usage = Usage.none(openAIStreamService.getModel());
         }
-        return messageHistory;
+        usageMeter.record(session.getUserId(), usage.model(), usage.inputTokens(), usage.outputTokens());
+        if (session.getFirstDeltaAtNanos() != 0) {
+            streamMetrics.recordTokensPerSecond(usage.outputTokens(), System.nanoTime() - session.getFirstDeltaAtNanos());
+        }
+        Usage completedUsage = usage;
+
+        Mono.fromRunnable(() -> {
+                    persistenceService.saveAssistantResponse(chatRoomId, finalMessage, responseId, completedUsage);
+                    if (cacheQuestion != null) {
+                        answerCache.put(cacheQuestion, finalMessage);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> log.error("AI 응답 저장 실패 [{}] - 채팅방 ID: {}: {}", connectionId, chatRoomId, e.getMessage(), e))
+                .onErrorComplete()
+                .doFinally(signal -> {
+                    try {
+                        sendStreamCompleteEvent(session, finalMessage);
+                        session.finish(null);
+                    } catch (Exception e) {
+                        log.error("스트림 완료 처리 오류 [{}]: {}", connectionId, e.getMessage());
+                    }
+                })
+                .subscribe();
     }
 
-    private String parseOpenAIJSON(String jsonLine, String connectionId) {
+    private OpenAIStreamEvent parseOpenAIEvent(String line, String connectionId) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(jsonLine.trim());
-            String eventType = jsonNode.path("type").asText();
-            
-            // Responses API 스트리밍 이벤트 처리
-            if ("response.output_text.delta".equals(eventType)) {
-                String delta = jsonNode.path("delta").asText();
-                if (!delta.isEmpty()) {
-                    return delta;
-                }
-            } else if ("response.completed".equals(eventType) || "response.failed".equals(eventType)) { }
-            
-            return null;
+            return OpenAIStreamEventParser.parse(line);
         } catch (Exception e) {
-            log.error("OpenAI JSON 파싱 오류 [{}] - JSON: '{}'", connectionId, jsonLine);
-            return null;
+            log.error("OpenAI JSON 파싱 오류 [{}] - JSON: '{}'", connectionId, line);
+            return OpenAIStreamEvent.IGNORED;
         }
     }
 
-    private void sendStreamStartEvent(SseEmitter emitter, String connectionId, ChatRoomMessageRequest request) {
+    private void sendStreamStartEvent(ChatStreamSession session, ChatRoomMessageRequest request) {
         try {
             Map<String, Object> startEvent = Map.of(
-                "eventType", "stream_start", "connectionId", connectionId,
+                "eventType", "stream_start", "connectionId", session.getConnectionId(),
+                "protocol", Map.of("version", ChatStreamProperties.PROTOCOL_VERSION, "mode", session.getMode().name()),
                 "requestInfo", Map.of("messageLength", request.getMessage().length(), "hasImage", request.getImage() != null),
                 "timestamp", System.currentTimeMillis()
             );
-            emitter.send(SseEmitter.event().name("stream_start").data(startEvent));
+            session.send("stream_start", startEvent);
         } catch (Exception e) {
-            log.warn("스트림 시작 이벤트 전송 실패 [{}]: {}", connectionId, e.getMessage());
+            log.warn("스트림 시작 이벤트 전송 실패 [{}]: {}", session.getConnectionId(), e.getMessage());
         }
     }
 
-    private void sendMessageChunkEvent(SseEmitter emitter, String connectionId, String chunkContent, String accumulatedMessage, long chunkIndex) {
+    private void sendTitleReadyEvent(ChatStreamSession session, Long chatRoomId, String title) {
         try {
-            Map<String, Object> chunkEvent = Map.of(
-                "eventType", "message_chunk",
-                "chunk", Map.of("content", chunkContent, "index", chunkIndex),
-                "message", Map.of("accumulated", accumulatedMessage, "characterCount", accumulatedMessage.length()),
+            Map<String, Object> titleEvent = Map.of(
+                "eventType", "title_ready",
+                "chatRoom", Map.of("id", chatRoomId, "title", title),
                 "timestamp", System.currentTimeMillis()
             );
-            emitter.send(SseEmitter.event().name("message_chunk").data(chunkEvent));
-        } catch (Exception e) { }
+            session.send("title_ready", titleEvent);
+        } catch (Exception e) {
+            log.warn("제목 이벤트 전송 실패 [{}]: {}", session.getConnectionId(), e.getMessage());
+        }
     }
 
-    private void sendStreamCompleteEvent(SseEmitter emitter, String connectionId, String finalMessage, long totalChunks) {
+    private void sendStreamCompleteEvent(ChatStreamSession session, String finalMessage) {
         try {
             long wordCount = 0;
             if (finalMessage != null) {
@@ -319,33 +504,75 @@ public class ChatRoomStreamService {
                     wordCount = trimmed.split("\\s+").length;
                 }
             }
+            Map<String, Object> finalInfo = new HashMap<>();
+            finalInfo.put("totalChunks", session.getChunkCount());
+            finalInfo.put("wordCount", wordCount);
+            finalInfo.put("characterCount", session.characterCount());
+            finalInfo.put("checksum", session.checksumHex());
+            if (session.isLegacyMode()) {
+                finalInfo.put("content", finalMessage);
+            }
             Map<String, Object> completeEvent = Map.of(
                 "eventType", "stream_complete",
-                "finalMessage", Map.of("content", finalMessage, "totalChunks", totalChunks, "wordCount", wordCount),
+                "finalMessage", finalInfo,
                 "timestamp", System.currentTimeMillis()
             );
-            emitter.send(SseEmitter.event().name("stream_complete").data(completeEvent));
+            session.send("stream_complete", completeEvent);
         } catch (Exception e) {
-            log.warn("스트림 완료 이벤트 전송 실패 [{}]: {}", connectionId, e.getMessage());
+            log.warn("스트림 완료 이벤트 전송 실패 [{}]: {}", session.getConnectionId(), e.getMessage());
         }
     }
 
-    private void sendErrorToClient(SseEmitter emitter, String connectionId, String errorType, Throwable error) {
+    private void sendErrorToClient(ChatStreamSession session, String errorType, Throwable error) {
+        flushFrame(session);
         try {
-            Map<String, Object> errorEvent = Map.of(
-                "eventType", "stream_error",
-                "error", Map.of("type", errorType, "message", error.getMessage()),
-                "timestamp", System.currentTimeMillis()
-            );
-            emitter.send(SseEmitter.event().name("stream_error").data(errorEvent));
+            session.send("stream_error", buildErrorEvent(errorType, error));
+        } catch (Exception e) {
+            log.warn("에러 정보 전송 실패 [{}]: {}", session.getConnectionId(), e.getMessage());
+        } finally {
+            session.finish(error);
+        }
+    }
+
+    // 세션이 없는 연결(재연결 실패 등)에 오류 이벤트를 보내고 종료
+    private void sendErrorToClient(SseEmitter emitter, String connectionId, BusinessException error) {
+        try {
+            emitter.send(SseEmitter.event().name("stream_error").data(buildErrorEvent(error.getErrorCode().getCode(), error)));
         } catch (Exception e) {
             log.warn("에러 정보 전송 실패 [{}]: {}", connectionId, e.getMessage());
         } finally {
-            emitter.completeWithError(error);
+            emitter.complete();
         }
     }
 
-    private void cleanupConnection(String connectionId) {
-        if (activeConnections.remove(connectionId) != null) { }
+    private Map<String, Object> buildErrorEvent(String errorType, Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : errorType;
+        return Map.of(
+            "eventType", "stream_error",
+            "error", Map.of("type", errorType, "message", message),
+            "timestamp", System.currentTimeMillis()
+        );
+    }
+
+    @PreDestroy
+    public void shutdownWriter() {
+        sseWriter.shutdown();
+    }
+
+    // 종료 후 보존 기간이 지났거나, 클라이언트 없이 오래 방치된 세션 정리
+    @Scheduled(fixedDelayString = "${chat.stream.session-cleanup-interval-ms:30000}")
+    public void cleanupSessions() {
+        long now = System.currentTimeMillis();
+        long retentionMs = streamProperties.getResumeRetention().toMillis();
+        long idleMs = streamProperties.getDetachedIdleTimeout().toMillis();
+
+        activeConnections.entrySet().removeIf(entry -> {
+            ChatStreamSession session = entry.getValue();
+            long idle = now - session.getLastActivityAt();
+            if (session.isFinished()) {
+                return idle > retentionMs;
+            }
+            return !session.isAttached() && idle > idleMs;
+        });
     }
 }
@@ -0,0 +1,86 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import com.divary.global.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 채팅방 제목 비동기 생성
+ * 채팅방은 임시 제목으로 먼저 만들고, 답변 생성과 동시에 제목을 요청한 뒤 도착하면 제목만 따로 갱신한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatRoomTitleService {
+
+    public static final String PLACEHOLDER_TITLE = OpenAIService.DEFAULT_TITLE;
+
+    private final OpenAIService openAIService;
+    private final ChatRoomRepository chatRoomRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * 제목 생성 요청을 즉시 시작한다.
+     * 저장은 채팅방 생성 트랜잭션 커밋 이후에 수행하며, 실제로 반영된 경우에만 onTitleReady를 호출한다.
+     * 반환된 future로 호출자가 이미 도착한 제목을 바로 사용할 수도 있다.
+     */
+    public CompletableFuture<String> startTitleGeneration(Long chatRoomId, Long userId, String userMessage,
+                                                         Consumer<String> onTitleReady) {
+        Mono<String> title = openAIService.generateTitleAsync(userMessage).cache();
+        CompletableFuture<String> future = title.toFuture();
+
+        runAfterCommit(() -> title
+                .publishOn(Schedulers.boundedElastic())
+                .filter(generated -> applyGeneratedTitle(chatRoomId, userId, generated))
+                .subscribe(
+                        generated -> {
+                            if (onTitleReady != null) {
+                                onTitleReady.accept(generated);
+                            }
+                        },
+                        error -> log.warn("채팅방 제목 저장 실패 - 채팅방 ID: {}: {}", chatRoomId, error.getMessage())));
+        return future;
+    }
+
+    private boolean applyGeneratedTitle(Long chatRoomId, Long userId, String title) {
+        int updated = chatRoomRepository.updateTitleIfPlaceholder(chatRoomId, title, PLACEHOLDER_TITLE);
+        if (updated == 0) {
+            return false;
+        }
+        evict(CacheConfig.CACHE_CHATROOMS_BY_USER, userId);
+        evict(CacheConfig.CACHE_CHATROOM_DETAIL, chatRoomId);
+        log.debug("채팅방 제목 비동기 반영 - 채팅방 ID: {}, 제목: {}", chatRoomId, title);
+        return true;
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.ChatStreamProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스트리밍 채팅 입장 제어
+ * 전체 동시 스트림 수, 사용자별 동시 스트림 수를 제한하고, 전체 한도가 찼을 때는 제한된 대기열에서 잠시 기다린다.
+ * 대기열까지 가득 차면 즉시 거절하고 재시도 시점을 알려준다. 일일 토큰 한도를 다 쓴 사용자는 자정까지 거절한다.
+ */
+@Slf4j
+@Service
+public class ChatStreamAdmissionService {
+
+    public static final String REJECT_USER_LIMIT = "user_limit";
+    public static final String REJECT_QUEUE_FULL = "queue_full";
+    public static final String REJECT_QUEUE_TIMEOUT = "queue_timeout";
+    public static final String REJECT_QUOTA_EXCEEDED = "quota_exceeded";
+
+    private final ChatStreamProperties.Admission properties;
+    private final MeterRegistry meterRegistry;
+    private final ChatUsageMeter usageMeter;
+
+    private final Semaphore globalPermits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentHashMap<Long, Integer> perUserStreams = new ConcurrentHashMap<>();
+
+    public ChatStreamAdmissionService(ChatStreamProperties streamProperties, MeterRegistry meterRegistry, ChatUsageMeter usageMeter) {
+        this.properties = streamProperties.getAdmission();
+        this.meterRegistry = meterRegistry;
+        this.usageMeter = usageMeter;
+        this.globalPermits = new Semaphore(properties.getMaxConcurrentStreams(), true);
+
+        Gauge.builder("divary.chat.stream.admission.inflight", inFlight, AtomicInteger::get)
+                .description("진행 중인 스트리밍 채팅 수")
+                .register(meterRegistry);
+        Gauge.builder("divary.chat.stream.admission.queued", queued, AtomicInteger::get)
+                .description("입장 대기 중인 스트리밍 채팅 요청 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 스트림 입장 시도
+     * 토큰 한도/사용자 한도 초과 또는 대기열 포화는 즉시 거절, 전체 한도 초과는 queueTimeout까지 대기 후 판단한다.
+     */
+    public Admission tryAdmit(Long userId) {
+        if (usageMeter.isQuotaExceeded(userId)) {
+            return reject(userId, REJECT_QUOTA_EXCEEDED, usageMeter.untilQuotaReset().toMillis());
+        }
+        if (!tryAcquireUserSlot(userId)) {
+            return reject(userId, REJECT_USER_LIMIT);
+        }
+
+        if (!globalPermits.tryAcquire()) {
+            if (queued.incrementAndGet() > properties.getMaxQueueSize()) {
+                queued.decrementAndGet();
+                releaseUserSlot(userId);
+                return reject(userId, REJECT_QUEUE_FULL);
+            }
+            boolean acquired;
+            try {
+                acquired = globalPermits.tryAcquire(properties.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                releaseUserSlot(userId);
+                return reject(userId, REJECT_QUEUE_TIMEOUT);
+            }
+        }
+
+        inFlight.incrementAndGet();
+        return Admission.admitted(new Permit(userId));
+    }
+
+    private Admission reject(Long userId, String reason) {
+        return reject(userId, reason, properties.getRetryAfter().toMillis());
+    }
+
+    private Admission reject(Long userId, String reason, long retryAfterMs) {
+        meterRegistry.counter("divary.chat.stream.admission.rejected", "reason", reason).increment();
+        log.warn("스트리밍 채팅 입장 거절 - userId: {}, reason: {}, inFlight: {}, queued: {}",
+                userId, reason, inFlight.get(), queued.get());
+        return Admission.rejected(reason, retryAfterMs);
+    }
+
+    private boolean tryAcquireUserSlot(Long userId) {
+        boolean[] acquired = {false};
+        perUserStreams.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= properties.getMaxStreamsPerUser()) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseUserSlot(Long userId) {
+        perUserStreams.computeIfPresent(userId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    // 스트림을 점유 중인 사용자 수 (마지막 스트림이 끝나면 항목을 지우므로 동시 사용자 수를 넘지 않음)
+    int trackedUserCount() {
+        return perUserStreams.size();
+    }
+
+    // 입장 결과 (admitted이면 permit 보유, 아니면 거절 사유와 재시도 대기 시간)
+    public record Admission(Permit permit, String rejectReason, long retryAfterMs) {
+
+        static Admission admitted(Permit permit) {
+            return new Admission(permit, null, 0);
+        }
+
+        static Admission rejected(String reason, long retryAfterMs) {
+            return new Admission(null, reason, retryAfterMs);
+        }
+
+        public boolean isAdmitted() {
+            return permit != null;
+        }
+    }
+
+    // 스트림 하나가 점유한 자리, 스트림 종료 시 한 번만 반납
+    public class Permit {
+
+        private final Long userId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Long userId) {
+            this.userId = userId;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                globalPermits.release();
+                releaseUserSlot(userId);
+            }
+        }
+    }
+}
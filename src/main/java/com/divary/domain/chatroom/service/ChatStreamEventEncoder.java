@@ -0,0 +1,198 @@
+package com.divary.domain.chatroom.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * message_chunk 이벤트 인코더
+ * 미리 UTF-8로 인코딩해 둔 JSON 조각 사이에 값만 채워 넣어 재사용 버퍼에 쓴다.
+ * Map 생성과 ObjectMapper 직렬화를 거치지 않으며, 결과는 SseEmitter가 그대로 쓰는 byte[]이다.
+ * 세션마다 하나씩 두고 세션 락 안에서만 사용한다 (thread-safe 아님).
+ */
+final class ChatStreamEventEncoder {
+
+    private static final byte[] CHUNK_PREFIX = utf8("{\"eventType\":\"message_chunk\",\"chunk\":{\"content\":");
+    private static final byte[] CHUNK_INDEX = utf8(",\"index\":");
+    private static final byte[] CHUNK_TIMESTAMP = utf8("},\"timestamp\":");
+    private static final byte[] CHECKPOINT_CHARACTER_COUNT = utf8(",\"checkpoint\":{\"characterCount\":");
+    private static final byte[] CHECKPOINT_CHECKSUM = utf8(",\"checksum\":\"");
+    private static final byte[] CHECKPOINT_SUFFIX = utf8("\"}}");
+    private static final byte[] MESSAGE_ACCUMULATED = utf8(",\"message\":{\"accumulated\":");
+    private static final byte[] MESSAGE_CHARACTER_COUNT = utf8(",\"characterCount\":");
+    private static final byte[] OBJECT_END = utf8("}");
+    private static final byte[] OBJECT_END_2 = utf8("}}");
+
+    private static final byte[] HEX = utf8("0123456789abcdef");
+
+    private byte[] buffer = new byte[512];
+    private int length;
+    private final byte[] digits = new byte[20];
+
+    // 일반 delta 청크
+    byte[] messageChunk(String content, long index, long timestamp) {
+        writeChunkHead(content, index, timestamp);
+        writeRaw(OBJECT_END);
+        return toBytes();
+    }
+
+    // checkpointInterval마다 누적 길이와 CRC32를 함께 보내는 청크
+    byte[] messageChunkWithCheckpoint(String content, long index, long timestamp, int characterCount, long crc32) {
+        writeChunkHead(content, index, timestamp);
+        writeRaw(CHECKPOINT_CHARACTER_COUNT);
+        writeLong(characterCount);
+        writeRaw(CHECKPOINT_CHECKSUM);
+        writeHex8(crc32);
+        writeRaw(CHECKPOINT_SUFFIX);
+        return toBytes();
+    }
+
+    // ACCUMULATED(레거시) 모드 청크: 누적 메시지 전체 포함
+    byte[] messageChunkWithAccumulated(String content, long index, long timestamp, CharSequence accumulated) {
+        writeChunkHead(content, index, timestamp);
+        writeRaw(MESSAGE_ACCUMULATED);
+        writeQuoted(accumulated);
+        writeRaw(MESSAGE_CHARACTER_COUNT);
+        writeLong(accumulated.length());
+        writeRaw(OBJECT_END_2);
+        return toBytes();
+    }
+
+    // String.getBytes(UTF_8) 없이 재사용 버퍼로 인코딩해 CRC32 갱신 (짝 없는 surrogate는 getBytes와 같이 '?'), UTF-8 바이트 수 반환
+    int updateChecksum(CRC32 checksum, CharSequence text) {
+        length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            i = writeUtf8Char(text, i);
+        }
+        checksum.update(buffer, 0, length);
+        return length;
+    }
+
+    private void writeChunkHead(String content, long index, long timestamp) {
+        length = 0;
+        writeRaw(CHUNK_PREFIX);
+        writeQuoted(content);
+        writeRaw(CHUNK_INDEX);
+        writeLong(index);
+        writeRaw(CHUNK_TIMESTAMP);
+        writeLong(timestamp);
+    }
+
+    // emitter가 비동기로 쓸 수 있으므로 버퍼는 재사용하고 결과만 정확한 크기로 복사
+    private byte[] toBytes() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void writeRaw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        int count = digits.length - pos;
+        ensureCapacity(count);
+        System.arraycopy(digits, pos, buffer, length, count);
+        length += count;
+    }
+
+    private void writeHex8(long value) {
+        ensureCapacity(8);
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            buffer[length++] = HEX[(int) ((value >>> shift) & 0xF)];
+        }
+    }
+
+    // JSON 문자열 리터럴로 이스케이프하며 UTF-8로 기록
+    private void writeQuoted(CharSequence text) {
+        writeByte('"');
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                ensureCapacity(2);
+                buffer[length++] = '\\';
+                buffer[length++] = (byte) c;
+            } else if (c < 0x20) {
+                writeControlChar(c);
+            } else {
+                i = writeUtf8Char(text, i);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeControlChar(char c) {
+        switch (c) {
+            case '\n' -> writeEscape('n');
+            case '\r' -> writeEscape('r');
+            case '\t' -> writeEscape('t');
+            case '\b' -> writeEscape('b');
+            case '\f' -> writeEscape('f');
+            default -> {
+                ensureCapacity(6);
+                buffer[length++] = '\\';
+                buffer[length++] = 'u';
+                buffer[length++] = '0';
+                buffer[length++] = '0';
+                buffer[length++] = HEX[(c >> 4) & 0xF];
+                buffer[length++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void writeEscape(char escaped) {
+        ensureCapacity(2);
+        buffer[length++] = '\\';
+        buffer[length++] = (byte) escaped;
+    }
+
+    // i번째 문자를 UTF-8로 기록하고, surrogate pair를 소비했다면 마지막으로 읽은 인덱스를 반환
+    private int writeUtf8Char(CharSequence text, int i) {
+        char c = text.charAt(i);
+        ensureCapacity(4);
+        if (c < 0x80) {
+            buffer[length++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[length++] = (byte) (0xC0 | (c >> 6));
+            buffer[length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, text.charAt(i + 1));
+            buffer[length++] = (byte) (0xF0 | (cp >> 18));
+            buffer[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buffer[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            buffer[length++] = (byte) (0x80 | (cp & 0x3F));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer[length++] = '?';
+        } else {
+            buffer[length++] = (byte) (0xE0 | (c >> 12));
+            buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,203 @@
+package com.divary.domain.chatroom.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 채팅 스트리밍 관련 Micrometer 메트릭
+ * 지연 시간 지표는 Prometheus 히스토그램(_bucket)으로 내보내 서버 전체 분위수/SLO를 계산할 수 있게 한다.
+ */
+@Component
+public class ChatStreamMetrics {
+
+    // 업스트림 재시도 결정
+    public static final String RETRY_BEFORE_FIRST_TOKEN = "before_first_token";
+    public static final String RETRY_AFTER_FIRST_TOKEN = "after_first_token";
+    public static final String RETRY_REJECTED_AFTER_FIRST_TOKEN = "rejected_after_first_token";
+    public static final String RETRY_PREFIX_DIVERGED = "prefix_diverged";
+
+    // 스트림 종료 결과 (outcome 태그)
+    public static final String OUTCOME_COMPLETED = "completed";
+    public static final String OUTCOME_CLIENT_CANCELLED = "client_cancelled";
+    public static final String OUTCOME_UPSTREAM_ERROR = "upstream_error";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+
+    // 첫 delta 출처 (source 태그)
+    public static final String SOURCE_UPSTREAM = "upstream";
+    public static final String SOURCE_CACHE = "cache";
+
+    // 프레임마다 붙는 "id:...\nevent:message_chunk\ndata:...\n\n" 줄 바이트 추정치
+    private static final long SSE_EVENT_OVERHEAD_BYTES = 36;
+
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofSeconds(30);
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofMinutes(5);
+
+    private final MeterRegistry meterRegistry;
+    private final Counter tokensSavedByCancellation;
+    private final Counter suppressedCharacters;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Timer chunkGap;
+    private final DistributionSummary tokensPerSecond;
+    private final AtomicInteger outboundQueued = new AtomicInteger();
+    private final DistributionSummary outboundQueueDepth;
+    private final Counter outboundCoalesced;
+    private final DistributionSummary coalescedFramesSaved;
+    private final DistributionSummary coalescedBytesSaved;
+
+    public ChatStreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.tokensSavedByCancellation = Counter.builder("divary.chat.stream.tokens.saved")
+                .description("클라이언트 이탈로 업스트림을 조기 취소해 생성되지 않은 출력 토큰 추정치 (평소 답변 길이 - 생성분)")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.suppressedCharacters = Counter.builder("divary.chat.stream.retry.suppressed")
+                .description("재시도한 업스트림 응답에서 이미 전송돼 건너뛴 글자 수")
+                .baseUnit("characters")
+                .register(meterRegistry);
+        Gauge.builder("divary.chat.stream.active", activeStreams, AtomicInteger::get)
+                .description("진행 중인 채팅 스트림 수 (클라이언트 재연결 대기 포함)")
+                .register(meterRegistry);
+        this.chunkGap = Timer.builder("divary.chat.stream.chunk.gap")
+                .description("업스트림 delta 사이 간격")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                .register(meterRegistry);
+        this.tokensPerSecond = DistributionSummary.builder("divary.chat.stream.tokens.per.second")
+                .description("첫 delta부터 완료까지의 출력 토큰 생성 속도")
+                .baseUnit("tokens")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1_000.0)
+                .register(meterRegistry);
+        Gauge.builder("divary.chat.stream.outbound.queued", outboundQueued, AtomicInteger::get)
+                .description("모든 연결의 전송 큐에서 쓰기를 기다리는 이벤트 수")
+                .register(meterRegistry);
+        this.outboundQueueDepth = DistributionSummary.builder("divary.chat.stream.outbound.queue.depth")
+                .description("이벤트를 넣은 직후 연결별 전송 큐 길이 (느린 클라이언트일수록 큼)")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1_024.0)
+                .register(meterRegistry);
+        this.outboundCoalesced = Counter.builder("divary.chat.stream.outbound.coalesced")
+                .description("전송 큐가 넘쳐 스냅샷 하나로 합쳐진 청크 이벤트 수")
+                .register(meterRegistry);
+        this.coalescedFramesSaved = DistributionSummary.builder("divary.chat.stream.coalesce.frames.saved")
+                .description("스트림별로 delta를 묶어 줄인 message_chunk 프레임 수")
+                .baseUnit("frames")
+                .register(meterRegistry);
+        this.coalescedBytesSaved = DistributionSummary.builder("divary.chat.stream.coalesce.bytes.saved")
+                .description("스트림별로 줄인 프레임의 JSON 틀과 SSE 줄 바이트 추정치")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordStreamOpened() {
+        activeStreams.incrementAndGet();
+    }
+
+    // 스트림 종료 (outcome: completed, client_cancelled, upstream_error, timeout), 세션당 한 번
+    public void recordStreamFinished(String outcome, long durationNanos) {
+        activeStreams.decrementAndGet();
+        Timer.builder("divary.chat.stream.duration")
+                .description("스트림 요청 수락부터 종료까지 걸린 시간")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 업스트림 요청부터 첫 SSE 이벤트(response.created)까지 (context: chain, history), 재시도는 시도마다 기록
+    public void recordUpstreamConnect(String context, long nanos) {
+        Timer.builder("divary.chat.stream.upstream.connect")
+                .description("업스트림 스트림 요청부터 첫 이벤트 수신까지 걸린 시간")
+                .tag("context", context)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 스트림 요청 수락부터 첫 message_chunk 전송까지 (source: upstream, cache)
+    public void recordFirstDelta(String source, long nanos) {
+        Timer.builder("divary.chat.stream.first.delta")
+                .description("스트림 요청 수락부터 첫 응답 청크 전송까지 걸린 시간")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordChunkGap(long nanos) {
+        chunkGap.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokensPerSecond(int outputTokens, long generationNanos) {
+        if (outputTokens > 0 && generationNanos > 0) {
+            tokensPerSecond.record(outputTokens * 1e9 / generationNanos);
+        }
+    }
+
+    public void recordOutboundQueued(int depth) {
+        outboundQueued.incrementAndGet();
+        outboundQueueDepth.record(depth);
+    }
+
+    public void recordOutboundDequeued(int count) {
+        outboundQueued.addAndGet(-count);
+    }
+
+    // 전송 큐 넘침 (policy: coalesce, drop)
+    public void recordOutboundOverflow(String policy) {
+        meterRegistry.counter("divary.chat.stream.outbound.overflow", "policy", policy).increment();
+    }
+
+    public void recordOutboundCoalesced(int events) {
+        outboundCoalesced.increment(events);
+    }
+
+    // 스트림 완료 시 코얼레싱 효과 (delta 수 - 프레임 수, 줄인 프레임 x 프레임당 평균 JSON 틀 + SSE id/event 줄)
+    public void recordCoalescing(long deltas, long frames, long frameEnvelopeBytes) {
+        if (frames <= 0) {
+            return;
+        }
+        long framesSaved = Math.max(0, deltas - frames);
+        coalescedFramesSaved.record(framesSaved);
+        coalescedBytesSaved.record(framesSaved * (frameEnvelopeBytes / frames + SSE_EVENT_OVERHEAD_BYTES));
+    }
+
+    // 오류로 끝난 스트림의 outcome (업스트림 무응답 타임아웃과 그 외 오류 구분)
+    public static String outcomeOf(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof ReadTimeoutException
+                || error.getCause() instanceof ReadTimeoutException) {
+            return OUTCOME_TIMEOUT;
+        }
+        return OUTCOME_UPSTREAM_ERROR;
+    }
+
+    // 업스트림 조기 취소 기록 (reason: client_disconnect, timeout)
+    public void recordUpstreamCancelled(String reason, long tokensSaved) {
+        meterRegistry.counter("divary.chat.stream.upstream.cancelled", "reason", reason).increment();
+        if (tokensSaved > 0) {
+            tokensSavedByCancellation.increment(tokensSaved);
+        }
+    }
+
+    // 업스트림 재시도 결정 기록 (decision: before_first_token, after_first_token, rejected_after_first_token, prefix_diverged)
+    public void recordUpstreamRetry(String decision) {
+        meterRegistry.counter("divary.chat.stream.upstream.retry", "decision", decision).increment();
+    }
+
+    public void recordSuppressedCharacters(long characters) {
+        suppressedCharacters.increment(characters);
+    }
+}
@@ -0,0 +1,210 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.ChatStreamProperties.OverflowPolicy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 연결별 전송 큐 (느린 클라이언트 격리)
+ * SseEmitter 쓰기는 클라이언트 TCP 윈도가 가득 차면 블로킹되므로, 세션(업스트림 Netty 스레드)은 큐에 넣기만 하고
+ * 실제 쓰기는 writer 실행기(가상 스레드)에서 연결마다 하나씩 순서대로 처리한다.
+ * 대기 중인 청크가 queueCapacity에 닿으면 overflowPolicy에 따라
+ * COALESCE는 대기 중인 청크를 누적 메시지 스냅샷(message_snapshot) 하나로 합치고, DROP은 연결을 오류로 끊는다.
+ */
+@Slf4j
+final class ChatStreamOutbound implements ChatStreamSink {
+
+    static final String CHUNK_EVENT = "message_chunk";
+    static final String SNAPSHOT_EVENT = "message_snapshot";
+
+    private final ChatStreamSink delegate;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor writer;
+    private final ChatStreamMetrics metrics;
+
+    // 아래 상태는 this로 보호
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private int queuedChunks;
+    private boolean draining;
+    private boolean closed;
+    private Runnable terminal;
+    private Exception failure;
+    // 현재까지 누적 메시지 스냅샷 (세션 락 안에서 호출)
+    private Supplier<Object> snapshot;
+
+    ChatStreamOutbound(ChatStreamSink delegate, int capacity, OverflowPolicy overflowPolicy,
+                       Executor writer, ChatStreamMetrics metrics) {
+        this.delegate = delegate;
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.writer = writer;
+        this.metrics = metrics;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    synchronized void coalesceWith(Supplier<Object> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 이벤트를 큐에 넣고 writer가 쉬고 있으면 깨운다 (블로킹 없음).
+     * 청크는 세션이 누적 메시지를 갱신한 직후 보내므로, 넘칠 때 만든 스냅샷은 이 이벤트까지의 상태와 같다.
+     * 이전 쓰기가 실패했거나 DROP으로 끊긴 연결이면 예외를 던져 세션이 sink를 분리하게 한다.
+     */
+    @Override
+    public void send(long eventId, String eventName, Object data) throws Exception {
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IllegalStateException("SSE 연결이 종료되었습니다");
+            }
+            Entry entry = new Entry(eventId, eventName, data);
+            if (entry.replaceable() && queuedChunks >= capacity) {
+                overflow(eventId);
+            } else {
+                enqueue(entry);
+            }
+            wakeWriter();
+        }
+    }
+
+    @Override
+    public synchronized void complete() {
+        close(delegate::complete);
+    }
+
+    @Override
+    public synchronized void completeWithError(Throwable error) {
+        close(() -> delegate.completeWithError(error));
+    }
+
+    private void close(Runnable action) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        terminal = action;
+        wakeWriter();
+    }
+
+    private void enqueue(Entry entry) {
+        queue.addLast(entry);
+        if (entry.replaceable()) {
+            queuedChunks++;
+        }
+        metrics.recordOutboundQueued(queue.size());
+    }
+
+    private void overflow(long eventId) throws Exception {
+        metrics.recordOutboundOverflow(overflowPolicy.name().toLowerCase());
+        if (overflowPolicy == OverflowPolicy.COALESCE && snapshot != null) {
+            // 대기 중인 청크/스냅샷을 빼고 현재 누적 메시지 스냅샷 하나로 대체 (순서상 이 이벤트 자리)
+            int coalesced = 0;
+            Iterator<Entry> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().replaceable()) {
+                    iterator.remove();
+                    coalesced++;
+                }
+            }
+            metrics.recordOutboundDequeued(coalesced);
+            metrics.recordOutboundCoalesced(coalesced + 1);
+            queuedChunks = 0;
+            enqueue(new Entry(eventId, SNAPSHOT_EVENT, snapshot.get()));
+            return;
+        }
+        SlowConsumerException error = new SlowConsumerException(capacity);
+        log.warn("느린 클라이언트 연결 종료 - 대기 청크: {}", queuedChunks);
+        failure = error;
+        discardQueue();
+        close(() -> delegate.completeWithError(error));
+        throw error;
+    }
+
+    private void discardQueue() {
+        metrics.recordOutboundDequeued(queue.size());
+        queue.clear();
+        queuedChunks = 0;
+    }
+
+    private void wakeWriter() {
+        if (!draining && (!queue.isEmpty() || terminal != null)) {
+            draining = true;
+            writer.execute(this::drain);
+        }
+    }
+
+    // writer 스레드: 큐가 빌 때까지 순서대로 쓰고, 종료 요청이 있으면 마지막에 실행
+    private void drain() {
+        while (true) {
+            Entry entry;
+            Runnable finish = null;
+            synchronized (this) {
+                entry = queue.pollFirst();
+                if (entry == null) {
+                    finish = terminal;
+                    terminal = null;
+                    if (finish == null) {
+                        draining = false;
+                        return;
+                    }
+                } else if (entry.replaceable()) {
+                    queuedChunks--;
+                }
+            }
+            if (entry != null) {
+                metrics.recordOutboundDequeued(1);
+                write(entry);
+            } else {
+                runTerminal(finish);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            delegate.send(entry.id(), entry.name(), entry.data());
+        } catch (Exception e) {
+            log.debug("SSE 쓰기 실패: {}", e.getMessage());
+            synchronized (this) {
+                failure = e;
+                discardQueue();
+                closed = true;
+            }
+        }
+    }
+
+    private void runTerminal(Runnable finish) {
+        try {
+            finish.run();
+        } catch (Exception e) {
+            log.debug("SSE 종료 실패: {}", e.getMessage());
+        }
+    }
+
+    private record Entry(long id, String name, Object data) {
+
+        // 스냅샷으로 합칠 수 있는 이벤트 (청크, 이전 스냅샷)
+        boolean replaceable() {
+            return CHUNK_EVENT.equals(name) || SNAPSHOT_EVENT.equals(name);
+        }
+    }
+
+    // 전송 큐가 가득 차 연결을 끊음 (DROP 정책)
+    static class SlowConsumerException extends Exception {
+
+        SlowConsumerException(int capacity) {
+            super("클라이언트 수신이 느려 스트림을 중단했습니다 (대기 청크 " + capacity + "개 초과)");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.ChatRoomMetadata;
+import com.divary.domain.chatroom.dto.request.ChatRoomMessageRequest;
+import com.divary.domain.chatroom.dto.response.OpenAIResponse;
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.entity.ChatRoom;
+import com.divary.domain.chatroom.event.ChatRoomChangedEvent;
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import com.divary.global.exception.BusinessException;
+import com.divary.global.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.HashMap;
+
+/**
+ * 스트리밍 채팅의 DB 작업
+ * 스트림 서비스와 분리해 트랜잭션 프록시를 타게 하고, 호출 측은 bounded elastic 스케줄러에서 실행해
+ * Netty 이벤트 루프나 요청 스레드에서 블로킹 JPA 호출이 일어나지 않게 한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatStreamPersistenceService {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageService chatMessageService;
+    private final ChatImageUploadService imageUploadService;
+    private final ChatRoomMetadataService metadataService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OpenAIPricing pricing;
+
+    // 새 채팅방 생성 또는 기존 채팅방에 사용자 메시지 추가 (이미지는 AI 응답 스트림과 동시에 업로드, 커밋 후 URL 반영)
+    // 상세/목록 캐시는 커밋 후 ChatRoomChangedEvent로 무효화
+    @Transactional
+    public ChatRoom prepareChatRoomAndSaveUserMessage(ChatRoomMessageRequest request, Long userId) {
+        ChatRoom chatRoom = request.getChatRoomId() == null
+                ? createNewChatRoom(userId, request)
+                : addMessageToExistingChatRoom(request.getChatRoomId(), userId, request);
+        eventPublisher.publishEvent(new ChatRoomChangedEvent(chatRoom.getId(), userId));
+        return chatRoom;
+    }
+
+    private ChatRoom createNewChatRoom(Long userId, ChatRoomMessageRequest request) {
+        // 이미지 업로드에 채팅방 ID가 필요하므로 채팅방을 먼저 저장
+        ChatRoom savedChatRoom = chatRoomRepository.save(buildChatRoom(userId, ChatRoomTitleService.PLACEHOLDER_TITLE));
+        addUserMessage(savedChatRoom, request, userId);
+        return savedChatRoom;
+    }
+
+    private ChatRoom addMessageToExistingChatRoom(Long chatRoomId, Long userId, ChatRoomMessageRequest request) {
+        chatMessageService.ensureMigrated(chatRoomId);
+        // 같은 채팅방에 동시에 메시지를 추가하면 seq가 겹치므로 채팅방 행을 잠그고 순번을 읽는다
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(chatRoomId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
+
+        validateChatRoomOwnership(chatRoom, userId);
+
+        addUserMessage(chatRoom, request, userId);
+        return chatRoom;
+    }
+
+    // 스트림 완료 후 AI 응답 저장 (responseId는 다음 요청의 previous_response_id, usage는 response.completed의 모델/토큰)
+    // 스트림 시작 시점의 엔티티를 merge하면 그 사이 비동기로 반영된 제목을 덮어쓰므로 다시 조회해서 추가한다
+    // 실패는 그대로 던져 롤백하고, 호출 측(스트림 완료 처리)이 로그를 남기고 답변 캐시에도 넣지 않는다
+    @Transactional
+    public void saveAssistantResponse(Long chatRoomId, String finalMessage, String responseId, OpenAIStreamEventParser.Usage usage) {
+        ChatRoom chatRoom = chatRoomRepository.findByIdForUpdate(chatRoomId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.CHAT_ROOM_NOT_FOUND));
+
+        OpenAIResponse aiResponse = OpenAIResponse.builder()
+                .responseId(responseId)
+                .content(finalMessage)
+                .model(usage.model())
+                .promptTokens(usage.inputTokens())
+                .completionTokens(usage.outputTokens())
+                .totalTokens(usage.totalTokens())
+                .cost(pricing.calculateCost(usage.model(), usage.inputTokens(), usage.outputTokens()))
+                .build();
+
+        ChatMessage assistantMessage = chatMessageService.appendAssistantMessage(chatRoom, aiResponse.getContent());
+        chatRoom.updateLastResponse(aiResponse.getResponseId(), assistantMessage.getSeq());
+        updateUsageMetadata(chatRoom, aiResponse, assistantMessage);
+        eventPublisher.publishEvent(new ChatRoomChangedEvent(chatRoomId, chatRoom.getUserId()));
+    }
+
+    private void addUserMessage(ChatRoom chatRoom, ChatRoomMessageRequest request, Long userId) {
+        MultipartFile image = request.getImage();
+        String imageName = null;
+        if (image != null && !image.isEmpty()) {
+            imageUploadService.validate(image);
+            imageName = image.getOriginalFilename();
+        }
+        ChatMessage userMessage = chatMessageService.appendUserMessage(chatRoom, request.getMessage(), null, imageName);
+        if (imageName != null) {
+            imageUploadService.uploadAndAttach(userMessage, image, userId);
+        }
+    }
+
+    private void updateUsageMetadata(ChatRoom chatRoom, OpenAIResponse aiResponse, ChatMessage assistantMessage) {
+        HashMap<String, Object> metadata = chatRoom.getMetadata();
+        ChatRoomMetadata chatRoomMetadata = metadataService.createMetadata(
+                aiResponse, assistantMessage.getMessageId(), chatRoom.getMessageCount());
+        metadata.putAll(metadataService.convertToMap(chatRoomMetadata));
+        chatRoom.updateMetadata(metadata);
+    }
+
+    private void validateChatRoomOwnership(ChatRoom chatRoom, Long userId) {
+        if (!chatRoom.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.CHAT_ROOM_ACCESS_DENIED);
+        }
+    }
+
+    // 메시지는 chat_message에 저장하므로 JSON 컬럼 없이 생성 (lastMessageSeq = 0)
+    private ChatRoom buildChatRoom(Long userId, String title) {
+        return ChatRoom.builder()
+                .userId(userId)
+                .title(title)
+                .metadata(new HashMap<>())
+                .lastMessageSeq(0)
+                .build();
+    }
+}
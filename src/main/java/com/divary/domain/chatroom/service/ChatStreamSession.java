@@ -0,0 +1,406 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.enums.StreamMode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * SSE 연결 하나의 스트림 상태 (누적 메시지, 청크 번호, 체크섬, 재전송 버퍼)
+ * 클라이언트 연결이 끊겨도 세션은 유지되며, 재연결 시 Last-Event-ID 이후 이벤트를 재전송한 뒤 새 sink를 붙인다.
+ */
+@Slf4j
+class ChatStreamSession {
+
+    @Getter
+    private final String connectionId;
+    @Getter
+    private final Long userId;
+    @Getter
+    private final StreamMode mode;
+    private final int replayBufferSize;
+
+    private final StringBuilder messageBuilder = new StringBuilder();
+    private final CRC32 checksum = new CRC32();
+    private final ChatStreamEventEncoder encoder = new ChatStreamEventEncoder();
+    private long chunkCount;
+    // 업스트림에서 받은 delta 수 (코얼레싱 전), 코얼레싱 대기 중인 delta와 UTF-8 바이트 수
+    private long deltaCount;
+    private final StringBuilder pendingFrame = new StringBuilder();
+    private int pendingFrameBytes;
+    private boolean flushScheduled;
+    // message_chunk 프레임의 JSON 틀(내용 제외) 바이트 합계 (코얼레싱 절약량 추정용)
+    private long frameEnvelopeBytes;
+    // 업스트림 응답 ID (response.created), 다음 요청의 previous_response_id로 저장
+    private String responseId;
+    // 업스트림 응답의 모델/토큰 사용량 (response.completed), 없으면 null
+    private OpenAIStreamEventParser.Usage usage;
+    // 현재 업스트림 시도에서 받은 글자 수 (재시도 시 이미 보낸 앞부분을 건너뛰는 기준)
+    private int attemptOffset;
+
+    // 재연결용 이벤트 버퍼 (SSE id 오름차순, 최대 replayBufferSize개)
+    private final ArrayDeque<BufferedEvent> replayBuffer = new ArrayDeque<>();
+    private long lastEventId;
+
+    private ChatStreamSink sink;
+    private boolean finished;
+    private long lastActivityAt = System.currentTimeMillis();
+
+    // 지표용 시각 (System.nanoTime, delta 시각은 0이면 아직 없음)
+    @Getter
+    private final long openedAtNanos = System.nanoTime();
+    private long firstDeltaAtNanos;
+    private long lastDeltaAtNanos;
+
+    // 업스트림(OpenAI 스트림) 구독과 클라이언트 분리 시 호출할 콜백
+    private Disposable upstream;
+    private Runnable detachListener = () -> { };
+    private Consumer<String> finishListener = outcome -> { };
+
+    ChatStreamSession(String connectionId, Long userId, ChatStreamSink sink, StreamMode mode, int replayBufferSize) {
+        this.connectionId = connectionId;
+        this.userId = userId;
+        this.sink = sink;
+        this.mode = mode != null ? mode : StreamMode.DELTA;
+        this.replayBufferSize = Math.max(1, replayBufferSize);
+        bindSnapshot(sink);
+    }
+
+    /**
+     * delta를 누적하고 다음 프레임에 보낼 대기 내용에 붙인 뒤 대기 중인 UTF-8 바이트 수를 반환한다.
+     * 누적 메시지/체크섬은 바로 갱신하므로 재시도 시 건너뛰기 기준에는 대기 중인 내용도 포함된다.
+     */
+    synchronized int bufferDelta(String delta) {
+        messageBuilder.append(delta);
+        pendingFrameBytes += encoder.updateChecksum(checksum, delta);
+        pendingFrame.append(delta);
+        deltaCount++;
+        return pendingFrameBytes;
+    }
+
+    // 코얼레싱 창 타이머 예약 (이미 예약돼 있으면 false)
+    synchronized boolean scheduleFlush() {
+        if (flushScheduled) {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * 대기 중인 delta를 message_chunk 프레임 하나로 보낸다 (checkpointInterval 프레임마다 체크포인트 포함).
+     * 번호 부여와 전송을 락 안에서 함께 해 타이머와 업스트림 스레드가 동시에 호출해도 순서가 유지된다.
+     * 대기 내용이 있으면 true를 반환한다.
+     */
+    synchronized boolean flushFrame(int checkpointInterval) {
+        flushScheduled = false;
+        if (pendingFrame.isEmpty()) {
+            return false;
+        }
+        String content = pendingFrame.toString();
+        int contentBytes = pendingFrameBytes;
+        pendingFrame.setLength(0);
+        pendingFrameBytes = 0;
+
+        long chunkIndex = ++chunkCount;
+        boolean checkpoint = checkpointInterval > 0 && chunkIndex % checkpointInterval == 0;
+        byte[] frame = encodeChunkEvent(content, chunkIndex, checkpoint);
+        frameEnvelopeBytes += frame.length - contentBytes;
+        send("message_chunk", frame);
+        return true;
+    }
+
+    synchronized long getDeltaCount() {
+        return deltaCount;
+    }
+
+    synchronized long getFrameEnvelopeBytes() {
+        return frameEnvelopeBytes;
+    }
+
+    // 클라이언트로 보낸 delta 시각 기록 후 직전 delta 시각 반환 (첫 delta면 0)
+    synchronized long markDelta(long nowNanos) {
+        long previous = lastDeltaAtNanos;
+        if (firstDeltaAtNanos == 0) {
+            firstDeltaAtNanos = nowNanos;
+        }
+        lastDeltaAtNanos = nowNanos;
+        return previous;
+    }
+
+    synchronized long getFirstDeltaAtNanos() {
+        return firstDeltaAtNanos;
+    }
+
+    // 업스트림 (재)구독 시작
+    synchronized void beginAttempt() {
+        attemptOffset = 0;
+    }
+
+    /**
+     * 현재 시도의 delta 중 아직 보내지 않은 부분을 반환한다 (모두 보낸 부분이면 빈 문자열).
+     * 재시도한 응답은 이미 보낸 글자와 하나씩 비교하며 건너뛰고, 다르면 이어 붙일 수 없으므로 예외를 던진다.
+     */
+    synchronized String skipDelivered(String delta) {
+        int start = attemptOffset;
+        attemptOffset += delta.length();
+        int delivered = messageBuilder.length();
+        if (start >= delivered) {
+            return delta;
+        }
+        int overlap = Math.min(delta.length(), delivered - start);
+        for (int i = 0; i < overlap; i++) {
+            if (delta.charAt(i) != messageBuilder.charAt(start + i)) {
+                throw new StreamPrefixDivergedException(start + i);
+            }
+        }
+        return delta.substring(overlap);
+    }
+
+    // message_chunk 이벤트 본문을 템플릿 인코더로 생성 (ACCUMULATED 모드는 누적 메시지 포함)
+    private byte[] encodeChunkEvent(String delta, long chunkIndex, boolean checkpoint) {
+        long timestamp = System.currentTimeMillis();
+        if (isLegacyMode()) {
+            return encoder.messageChunkWithAccumulated(delta, chunkIndex, timestamp, messageBuilder);
+        }
+        if (checkpoint) {
+            return encoder.messageChunkWithCheckpoint(delta, chunkIndex, timestamp, messageBuilder.length(), checksum.getValue());
+        }
+        return encoder.messageChunk(delta, chunkIndex, timestamp);
+    }
+
+    synchronized void setResponseId(String responseId) {
+        this.responseId = responseId;
+    }
+
+    synchronized String getResponseId() {
+        return responseId;
+    }
+
+    synchronized void setUsage(OpenAIStreamEventParser.Usage usage) {
+        this.usage = usage;
+    }
+
+    synchronized OpenAIStreamEventParser.Usage getUsage() {
+        return usage;
+    }
+
+    synchronized long getChunkCount() {
+        return chunkCount;
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    synchronized long getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    synchronized String accumulatedMessage() {
+        return messageBuilder.toString();
+    }
+
+    // 누적 메시지 길이 (UTF-16 코드 유닛 기준, JS/Swift utf16.count와 동일)
+    synchronized int characterCount() {
+        return messageBuilder.length();
+    }
+
+    // 누적 메시지 UTF-8 바이트의 CRC32 (8자리 16진수)
+    synchronized String checksumHex() {
+        return String.format("%08x", checksum.getValue());
+    }
+
+    boolean isLegacyMode() {
+        return mode == StreamMode.ACCUMULATED;
+    }
+
+    /**
+     * 이벤트에 단조 증가 SSE id를 부여해 버퍼에 기록하고, 연결된 sink가 있으면 전송한다.
+     * 전송 실패는 클라이언트 이탈로 보고 sink만 분리한다 (업스트림은 계속 진행).
+     */
+    synchronized void send(String eventName, Object data) {
+        long eventId = ++lastEventId;
+        if (replayBuffer.size() >= replayBufferSize) {
+            replayBuffer.pollFirst();
+        }
+        replayBuffer.addLast(new BufferedEvent(eventId, eventName, data));
+        lastActivityAt = System.currentTimeMillis();
+
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.send(eventId, eventName, data);
+        } catch (Exception e) {
+            log.debug("SSE 전송 실패, 클라이언트 분리 [{}]: {}", connectionId, e.getMessage());
+            sink = null;
+            detachListener.run();
+        }
+    }
+
+    synchronized void bindUpstream(Disposable upstream) {
+        if (finished) {
+            upstream.dispose();
+            return;
+        }
+        this.upstream = upstream;
+    }
+
+    synchronized void onDetach(Runnable listener) {
+        this.detachListener = listener;
+    }
+
+    /**
+     * 진행 중인 업스트림 구독을 즉시 해제하고 세션을 종료 상태로 만든다.
+     * 이미 끝났거나 구독 전이면 false를 반환한다.
+     */
+    synchronized boolean cancelUpstream(String outcome) {
+        if (finished || upstream == null || upstream.isDisposed()) {
+            return false;
+        }
+        upstream.dispose();
+        markFinished(outcome);
+        return true;
+    }
+
+    // 스트림 종료 시 한 번 실행할 콜백 (입장 permit 반납, 종료 지표 등), 인자는 ChatStreamMetrics의 outcome
+    synchronized void onFinish(Consumer<String> listener) {
+        this.finishListener = listener;
+    }
+
+    private void markFinished(String outcome) {
+        lastActivityAt = System.currentTimeMillis();
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            finishListener.accept(outcome);
+        } catch (Exception e) {
+            log.warn("스트림 종료 콜백 실패 [{}]: {}", connectionId, e.getMessage());
+        }
+    }
+
+    // 스트림 종료 (완료 또는 오류 이벤트 전송 이후 호출)
+    synchronized void finish(Throwable error) {
+        markFinished(error == null ? ChatStreamMetrics.OUTCOME_COMPLETED : ChatStreamMetrics.outcomeOf(error));
+        if (sink == null) {
+            return;
+        }
+        try {
+            if (error != null) {
+                sink.completeWithError(error);
+            } else {
+                sink.complete();
+            }
+        } catch (Exception e) {
+            log.debug("sink 종료 실패 [{}]: {}", connectionId, e.getMessage());
+        }
+        sink = null;
+    }
+
+    /**
+     * 새 sink를 세션에 붙인다.
+     * lastSeenEventId 이후 이벤트가 버퍼에 모두 남아 있으면 그대로 재전송하고,
+     * 이미 밀려난 이벤트가 있으면 지금까지 보낸 누적 메시지 스냅샷을 대신 보낸다.
+     */
+    synchronized void attach(ChatStreamSink newSink, long lastSeenEventId) throws Exception {
+        bindSnapshot(newSink);
+        BufferedEvent oldest = replayBuffer.peekFirst();
+        BufferedEvent newest = replayBuffer.peekLast();
+        // 재전송할 이벤트가 전송 큐보다 많으면 큐에서 합쳐지기 전에 스냅샷으로 대신한다
+        boolean gap = oldest != null && (oldest.id() > lastSeenEventId + 1
+                || newest.id() - lastSeenEventId > replayLimit(newSink));
+
+        if (gap) {
+            boolean terminal = isTerminal(newest.name());
+            long snapshotId = terminal ? newest.id() - 1 : newest.id();
+            newSink.send(snapshotId, "message_snapshot", snapshotEvent());
+            if (terminal) {
+                newSink.send(newest.id(), newest.name(), newest.data());
+            }
+        } else {
+            for (BufferedEvent event : replayBuffer) {
+                if (event.id() > lastSeenEventId) {
+                    newSink.send(event.id(), event.name(), event.data());
+                }
+            }
+        }
+        lastActivityAt = System.currentTimeMillis();
+
+        if (finished) {
+            newSink.complete();
+            return;
+        }
+        if (sink != null && sink != newSink) {
+            try {
+                sink.complete();
+            } catch (Exception ignored) {
+            }
+        }
+        sink = newSink;
+    }
+
+    // 전송 큐가 넘치면 대기 중인 청크를 현재 누적 메시지 스냅샷으로 합치도록 연결
+    private void bindSnapshot(ChatStreamSink target) {
+        if (target instanceof ChatStreamOutbound outbound) {
+            outbound.coalesceWith(this::snapshotEvent);
+        }
+    }
+
+    private long replayLimit(ChatStreamSink target) {
+        return target instanceof ChatStreamOutbound outbound ? outbound.capacity() : Long.MAX_VALUE;
+    }
+
+    // sink가 종료/타임아웃/오류/구독 취소로 끝났을 때 현재 연결된 sink인 경우에만 분리
+    synchronized void detach(ChatStreamSink closedSink) {
+        if (sink == closedSink) {
+            sink = null;
+            lastActivityAt = System.currentTimeMillis();
+            if (!finished) {
+                detachListener.run();
+            }
+        }
+    }
+
+    synchronized boolean isAttached() {
+        return sink != null;
+    }
+
+    /**
+     * 재전송 버퍼에서 밀려났거나 전송 큐에서 합쳐진 구간을 대신하는 누적 메시지 스냅샷
+     * 코얼레싱 대기 중인 내용은 다음 message_chunk로 나가므로 이미 보낸 부분까지만 담는다 (중복 방지).
+     */
+    synchronized Map<String, Object> snapshotEvent() {
+        int delivered = messageBuilder.length() - pendingFrame.length();
+        String accumulated = messageBuilder.substring(0, delivered);
+        long deliveredChecksum = checksum.getValue();
+        if (!pendingFrame.isEmpty()) {
+            CRC32 crc = new CRC32();
+            encoder.updateChecksum(crc, accumulated);
+            deliveredChecksum = crc.getValue();
+        }
+        return Map.of(
+            "eventType", "message_snapshot",
+            "message", Map.of(
+                "accumulated", accumulated,
+                "characterCount", delivered,
+                "checksum", String.format("%08x", deliveredChecksum)),
+            "chunkIndex", chunkCount,
+            "timestamp", System.currentTimeMillis()
+        );
+    }
+
+    private boolean isTerminal(String eventName) {
+        return "stream_complete".equals(eventName) || "stream_error".equals(eventName);
+    }
+
+    record BufferedEvent(long id, String name, Object data) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.divary.domain.chatroom.service;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스트림 세션이 이벤트를 내보내는 대상
+ * 서블릿 SseEmitter와 Flux&lt;ServerSentEvent&gt; 응답을 같은 세션(재전송 버퍼, 재연결, 업스트림 취소)으로 다루기 위한 추상화
+ * 호출은 ChatStreamSession 락 안에서 직렬화된다.
+ */
+interface ChatStreamSink {
+
+    // 전송 실패 시 예외를 던지면 세션이 클라이언트 이탈로 보고 분리한다
+    void send(long eventId, String eventName, Object data) throws Exception;
+
+    void complete();
+
+    void completeWithError(Throwable error);
+
+    static ChatStreamSink of(SseEmitter emitter) {
+        return new EmitterSink(emitter);
+    }
+
+    static ReactiveSink reactive() {
+        return new ReactiveSink();
+    }
+
+    final class EmitterSink implements ChatStreamSink {
+
+        private final SseEmitter emitter;
+
+        private EmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(long eventId, String eventName, Object data) throws Exception {
+            emitter.send(SseEmitter.event().id(String.valueOf(eventId)).name(eventName).data(data));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            emitter.completeWithError(error);
+        }
+    }
+
+    /**
+     * Flux 응답용 sink
+     * 구독자가 요청(request)한 만큼만 내보내고, 요청이 없으면 send가 기다린다 (대기분은 앞단 ChatStreamOutbound 큐에만 쌓임).
+     * 그래서 writer 실행기(가상 스레드)에서만 호출해야 하며, 요청 없이 DEMAND_TIMEOUT이 지나면 전송 실패로 본다.
+     * 데이터(byte[] 또는 Map)는 MVC 메시지 컨버터가 그대로 쓴다.
+     */
+    final class ReactiveSink implements ChatStreamSink {
+
+        private static final long DEMAND_TIMEOUT_SECONDS = 60;
+
+        private final Semaphore demand = new Semaphore(0);
+        private final CompletableFuture<FluxSink<ServerSentEvent<Object>>> subscriber = new CompletableFuture<>();
+        private final Flux<ServerSentEvent<Object>> flux;
+        private volatile boolean disposed;
+
+        private ReactiveSink() {
+            this.flux = Flux.create(target -> {
+                if (!subscriber.complete(target)) {
+                    target.error(new IllegalStateException("SSE 스트림은 한 번만 구독할 수 있습니다"));
+                    return;
+                }
+                target.onRequest(this::grant);
+                target.onDispose(() -> {
+                    disposed = true;
+                    demand.release();
+                });
+            }, FluxSink.OverflowStrategy.ERROR);
+        }
+
+        Flux<ServerSentEvent<Object>> asFlux() {
+            return flux;
+        }
+
+        private void grant(long requested) {
+            // 무제한 요청(Long.MAX_VALUE)도 세마포어 허용 범위 안으로 자른다
+            int permits = (int) Math.min(requested, Integer.MAX_VALUE / 2 - demand.availablePermits());
+            if (permits > 0) {
+                demand.release(permits);
+            }
+        }
+
+        @Override
+        public void send(long eventId, String eventName, Object data) throws Exception {
+            if (disposed || !demand.tryAcquire(DEMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS) || disposed) {
+                throw new IllegalStateException("SSE 구독이 종료되었거나 수신 요청이 없습니다");
+            }
+            ServerSentEvent<Object> event = ServerSentEvent.builder(data)
+                    .id(String.valueOf(eventId))
+                    .event(eventName)
+                    .build();
+            subscriber.join().next(event);
+        }
+
+        // 구독 전에 끝나면 구독 시점에 종료 신호를 전달
+        @Override
+        public void complete() {
+            subscriber.thenAccept(FluxSink::complete);
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            subscriber.thenAccept(target -> target.error(error));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.entity.ChatMessage;
+import com.divary.domain.chatroom.repository.ChatMessageRepository;
+import com.divary.domain.chatroom.repository.ChatRoomRepository;
+import com.divary.global.config.properties.ChatContextProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 오래된 대화의 누적 요약 생성
+ * 응답 경로와 분리해 백그라운드에서 만들고 채팅방에 저장하며, 다음 요청부터 컨텍스트에 사용된다.
+ * 같은 채팅방의 요약은 동시에 하나만 진행한다 (노드 간 중복은 저장 시 summaryThroughSeq 조건으로 무시).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatSummaryService {
+
+    private final OpenAIService openAIService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatContextProperties contextProperties;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * (summarizedThroughSeq, throughSeq] 구간을 이전 요약에 합쳐 새 요약을 만든다.
+     * 즉시 반환하며, 실패하면 다음 요청에서 다시 시도된다.
+     */
+    public void requestSummary(Long chatRoomId, String previousSummary, int summarizedThroughSeq, int throughSeq) {
+        ChatContextProperties.Summary summary = contextProperties.getSummary();
+        if (!summary.isEnabled() || throughSeq <= summarizedThroughSeq || !inFlight.add(chatRoomId)) {
+            return;
+        }
+
+        Mono.fromCallable(() -> chatMessageRepository.findByChatRoomIdAndSeqBetweenOrderBySeqAsc(
+                        chatRoomId, summarizedThroughSeq + 1, throughSeq))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(messages -> !messages.isEmpty())
+                .flatMap(messages -> openAIService.summarizeAsync(previousSummary, toTurns(messages), summary.getMaxOutputTokens()))
+                .publishOn(Schedulers.boundedElastic())
+                .doFinally(signal -> inFlight.remove(chatRoomId))
+                .subscribe(
+                        generated -> {
+                            int updated = chatRoomRepository.updateContextSummary(chatRoomId, generated, throughSeq);
+                            log.debug("대화 요약 갱신 - 채팅방 ID: {}, throughSeq: {}, 반영: {}", chatRoomId, throughSeq, updated > 0);
+                        },
+                        error -> log.warn("대화 요약 생성 실패 - 채팅방 ID: {}: {}", chatRoomId, error.getMessage()));
+    }
+
+    // 요약 입력도 메시지당 토큰 상한을 적용
+    private List<Map<String, Object>> toTurns(List<ChatMessage> messages) {
+        int maxMessageTokens = contextProperties.getMaxMessageTokens();
+        return messages.stream()
+                .map(message -> Map.<String, Object>of(
+                        "role", message.getRole(),
+                        "content", TokenEstimator.truncate(message.getContent(), maxMessageTokens)))
+                .toList();
+    }
+}
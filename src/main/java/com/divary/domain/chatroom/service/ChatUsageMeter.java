@@ -0,0 +1,206 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.entity.ChatUsageDaily;
+import com.divary.domain.chatroom.repository.ChatUsageDailyRepository;
+import com.divary.global.config.properties.ChatUsageProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 사용자별 일일 AI 토큰 사용량 집계와 한도 확인
+ * 응답마다 DB를 쓰지 않고 (사용자, 날짜)별 LongAdder에 더한 뒤, 주기적으로 모은 증분만 chat_usage_daily에 반영한다.
+ * 한도 확인은 DB 합계(반영 주기 동안 캐시) + 아직 반영하지 않은 증분 기준이다.
+ */
+@Slf4j
+@Service
+public class ChatUsageMeter {
+
+    private final ChatUsageProperties properties;
+    private final ChatUsageDailyRepository usageRepository;
+    private final OpenAIPricing pricing;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+
+    // (사용자, 날짜) -> 아직 DB에 반영하지 않은 사용량
+    private final ConcurrentHashMap<UsageKey, PendingUsage> pending = new ConcurrentHashMap<>();
+    // DB에 반영된 하루 토큰 합계 (한도 확인용, 반영할 때마다 무효화)
+    private final Cache<UsageKey, Long> persistedTotals;
+
+    public ChatUsageMeter(ChatUsageProperties properties, ChatUsageDailyRepository usageRepository, OpenAIPricing pricing,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.usageRepository = usageRepository;
+        this.pricing = pricing;
+        this.promptTokens = Counter.builder("divary.chat.usage.tokens")
+                .tag("type", "prompt")
+                .description("AI 응답에 사용된 토큰 수")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.completionTokens = Counter.builder("divary.chat.usage.tokens")
+                .tag("type", "completion")
+                .description("AI 응답에 사용된 토큰 수")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.persistedTotals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(properties.getFlushIntervalMs()))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    // AI 응답 하나의 사용량 기록 (캐시 답변처럼 토큰이 없으면 무시, 비용은 응답 모델 가격 기준)
+    public void record(Long userId, String model, int promptTokens, int completionTokens) {
+        if (!properties.isEnabled() || userId == null || promptTokens + completionTokens <= 0) {
+            return;
+        }
+        double cost = pricing.calculateCost(model, promptTokens, completionTokens);
+        pending.computeIfAbsent(new UsageKey(userId, today()), key -> new PendingUsage())
+                .add(promptTokens, completionTokens, 1, cost);
+        this.promptTokens.increment(promptTokens);
+        this.completionTokens.increment(completionTokens);
+    }
+
+    /**
+     * 오늘 토큰 한도를 다 썼는지 확인 (한도 0이면 항상 false)
+     * 이미 진행 중인 스트림은 끝날 때 반영되므로, 동시 스트림 수만큼 한도를 조금 넘을 수 있다.
+     * 사용량 조회 실패는 한도 미초과로 처리한다.
+     */
+    public boolean isQuotaExceeded(Long userId) {
+        long quota = properties.getDailyTokenQuota();
+        if (!properties.isEnabled() || quota <= 0) {
+            return false;
+        }
+        UsageKey key = new UsageKey(userId, today());
+        long persisted;
+        try {
+            persisted = persistedTotals.get(key, k -> usageRepository.findTotalTokens(k.userId(), k.usageDate()).orElse(0L));
+        } catch (Exception e) {
+            log.warn("토큰 사용량 조회 실패 - userId: {}: {}", userId, e.getMessage());
+            return false;
+        }
+        PendingUsage usage = pending.get(key);
+        return persisted + (usage != null ? usage.totalTokens() : 0) >= quota;
+    }
+
+    // 한도가 초기화되는 다음 자정까지 남은 시간
+    public Duration untilQuotaReset() {
+        ZonedDateTime now = ZonedDateTime.now(properties.getZone());
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(properties.getZone()));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.usage.flush-interval-ms:30000}", initialDelayString = "${chat.usage.flush-interval-ms:30000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        LocalDate today = today();
+        int flushed = 0;
+        for (Map.Entry<UsageKey, PendingUsage> entry : pending.entrySet()) {
+            UsageKey key = entry.getKey();
+            // 지난 날짜는 더 이상 기록되지 않으므로 맵에서 빼고 마지막 증분만 반영
+            if (key.usageDate().isBefore(today)) {
+                pending.remove(key, entry.getValue());
+            }
+            UsageDelta delta = entry.getValue().drain();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            try {
+                persist(key, delta);
+                persistedTotals.invalidate(key);
+                flushed++;
+            } catch (Exception e) {
+                // 반영하지 못한 증분은 되돌려 다음 주기에 다시 시도
+                log.warn("토큰 사용량 반영 실패 - userId: {}, date: {}: {}", key.userId(), key.usageDate(), e.getMessage());
+                pending.computeIfAbsent(key, k -> new PendingUsage())
+                        .add(delta.promptTokens(), delta.completionTokens(), delta.requestCount(), delta.cost());
+            }
+        }
+        if (flushed > 0) {
+            log.debug("토큰 사용량 반영 - 사용자/날짜 {}건", flushed);
+        }
+    }
+
+    // 종료 시 남은 증분 반영
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // 기존 행에 증분을 더하고, 없으면 새로 저장 (다른 서버가 먼저 만들었으면 다시 더함)
+    private void persist(UsageKey key, UsageDelta delta) {
+        if (addUsage(key, delta) > 0) {
+            return;
+        }
+        try {
+            usageRepository.save(ChatUsageDaily.builder()
+                    .userId(key.userId())
+                    .usageDate(key.usageDate())
+                    .promptTokens(delta.promptTokens())
+                    .completionTokens(delta.completionTokens())
+                    .requestCount(delta.requestCount())
+                    .cost(delta.cost())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            addUsage(key, delta);
+        }
+    }
+
+    private int addUsage(UsageKey key, UsageDelta delta) {
+        return usageRepository.addUsage(key.userId(), key.usageDate(),
+                delta.promptTokens(), delta.completionTokens(), delta.requestCount(), delta.cost());
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(properties.getZone());
+    }
+
+    private record UsageKey(Long userId, LocalDate usageDate) {
+    }
+
+    private record UsageDelta(long promptTokens, long completionTokens, long requestCount, double cost) {
+
+        boolean isEmpty() {
+            return requestCount == 0 && promptTokens == 0 && completionTokens == 0;
+        }
+    }
+
+    // 동시 기록이 많아도 경합하지 않도록 스트라이프 카운터 사용 (반영 시 sumThenReset으로 증분만 꺼냄)
+    private static final class PendingUsage {
+
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder requestCount = new LongAdder();
+        private final DoubleAdder cost = new DoubleAdder();
+
+        void add(long prompt, long completion, long requests, double cost) {
+            promptTokens.add(prompt);
+            completionTokens.add(completion);
+            requestCount.add(requests);
+            this.cost.add(cost);
+        }
+
+        long totalTokens() {
+            return promptTokens.sum() + completionTokens.sum();
+        }
+
+        UsageDelta drain() {
+            return new UsageDelta(promptTokens.sumThenReset(), completionTokens.sumThenReset(),
+                    requestCount.sumThenReset(), cost.sumThenReset());
+        }
+    }
+}
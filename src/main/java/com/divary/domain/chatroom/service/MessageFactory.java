@@ -2,11 +2,14 @@ package com.divary.domain.chatroom.service;
 
 import com.divary.domain.chatroom.dto.Message;
 import com.divary.domain.chatroom.dto.response.OpenAIResponse;
+import com.divary.domain.chatroom.entity.ChatMessage;
 import com.divary.common.converter.TypeConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 
@@ -91,6 +94,25 @@ public class MessageFactory {
                 .build();
     }
 
+    // chat_message 엔티티를 Message DTO로 변환
+    public Message createMessageDto(ChatMessage chatMessage) {
+        Message.MessageBuilder builder = Message.builder()
+                .id(chatMessage.getMessageId())
+                .role(chatMessage.getRole())
+                .content(chatMessage.getContent())
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(chatMessage.getSentAt()), ZoneId.systemDefault()));
+
+        if (chatMessage.hasImage()) {
+            Message.AttachmentDto attachment = Message.AttachmentDto.builder()
+                    .id(1L)
+                    .fileUrl(chatMessage.getImageUrl())
+                    .originalFilename(chatMessage.getImageName())
+                    .build();
+            builder.attachments(List.of(attachment));
+        }
+        return builder.build();
+    }
+
     // 다음 메시지 ID 생성
     public String generateNextMessageId(HashMap<String, Object> messages) {
         int maxNumber = 0;
@@ -0,0 +1,22 @@
+package com.divary.domain.chatroom.service;
+
+import lombok.Getter;
+
+// OpenAI가 오류 상태 코드로 응답함 (본문은 호출 측에서 오류 종류 판단에 사용)
+@Getter
+class OpenAIApiException extends RuntimeException {
+
+    private final int status;
+    private final String body;
+
+    OpenAIApiException(int status, String body) {
+        super("OpenAI API Error " + status + ": " + body);
+        this.status = status;
+        this.body = body;
+    }
+
+    // 업스트림 장애로 보는 응답 (재시도/서킷 브레이커 실패 집계 대상)
+    boolean isTransient() {
+        return status >= 500 || status == 429;
+    }
+}
@@ -0,0 +1,109 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIClientProperties;
+
+/**
+ * OpenAI 호출 서킷 브레이커
+ * CLOSED: 최근 slidingWindowSize개 호출 중 실패율이 임계치를 넘으면 OPEN
+ * OPEN: openDuration 동안 호출을 즉시 실패시키고, 이후 HALF_OPEN
+ * HALF_OPEN: 시험 호출 하나만 허용, 성공하면 CLOSED, 실패하면 다시 OPEN
+ * 실패는 5xx/429/연결·타임아웃만 센다 (잘못된 요청 등 4xx는 업스트림 장애가 아님).
+ */
+final class OpenAICircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final OpenAIClientProperties.CircuitBreaker properties;
+
+    // 최근 호출 결과 링 버퍼 (true = 실패)
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    OpenAICircuitBreaker(OpenAIClientProperties.CircuitBreaker properties) {
+        this.properties = properties;
+        this.outcomes = new boolean[Math.max(1, properties.getSlidingWindowSize())];
+    }
+
+    // 호출 허용 여부 (허용되면 결과를 반드시 onSuccess/onFailure/onIgnored로 알려야 함)
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < properties.getOpenDuration().toMillis()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= properties.getMinimumCalls()
+                && failures * 100 >= properties.getFailureRateThreshold() * recorded) {
+            open();
+        }
+    }
+
+    // 취소 또는 업스트림 장애가 아닌 오류: 통계에 넣지 않고 시험 호출 자리만 반납
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failed;
+        if (failed) {
+            failures++;
+        }
+        position = (position + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.divary.domain.chatroom.service;
+
+// 서킷 브레이커가 열려 OpenAI 호출을 보내지 않음
+class OpenAICircuitOpenException extends RuntimeException {
+
+    OpenAICircuitOpenException() {
+        super("OpenAI circuit breaker is open");
+    }
+}
@@ -0,0 +1,297 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * OpenAI Responses API 공용 HTTP 클라이언트 (OpenAIService, OpenAIStreamService가 공유)
+ * - 커넥션 풀: 최대 연결/대기 수, 유휴·수명 기반 정리, 연결·응답 타임아웃, https면 HTTP/2
+ * - 기동 시 연결을 미리 열고, 유휴 상태가 길어지면 가벼운 요청으로 연결을 유지 (첫 요청의 DNS/TLS 비용 제거)
+ * - 서킷 브레이커: 업스트림 장애가 이어지면 호출을 즉시 실패시킴
+ * - 재시도: 일시적 오류만, 요청 수에 비례한 재시도 예산 안에서
+ * - 스케줄러: 분당 토큰 예산 안에서 채팅 응답을 제목/요약보다 먼저 보냄 (OpenAIRequestScheduler)
+ * - 스텁: openai.client.stub.enabled면 HTTP 대신 OpenAIStubProvider가 응답 (위 단계는 그대로 거침)
+ * 풀/연결 지표는 reactor.netty.*, 호출 지표는 divary.openai.* 로 노출된다.
+ */
+@Slf4j
+@Component
+public class OpenAIClient {
+
+    private static final String RESPONSES_URI = "/responses";
+    private static final String WARMUP_URI = "/models";
+    private static final String REQUEST_METRIC = "divary.openai.requests";
+    private static final long BUDGET_UNIT = 1_000;
+
+    private final OpenAIClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+    private final WebClient webClient;
+    private final OpenAICircuitBreaker circuitBreaker;
+    private final OpenAIRequestScheduler scheduler;
+    // 로컬 스텁 (사용하지 않으면 null)
+    private final OpenAIStubProvider stub;
+
+    // 재시도 예산 (BUDGET_UNIT = 재시도 1회)
+    private final AtomicLong retryBudget;
+    private final AtomicLong lastRequestAt = new AtomicLong(System.currentTimeMillis());
+
+    public OpenAIClient(@Value("${openai.api.key}") String apiKey,
+                        @Value("${openai.api.base-url}") String baseUrl,
+                        OpenAIClientProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new OpenAICircuitBreaker(properties.getCircuitBreaker());
+        this.scheduler = new OpenAIRequestScheduler(properties.getRateLimit(), meterRegistry);
+        this.stub = properties.getStub().isEnabled() ? new OpenAIStubProvider(properties.getStub()) : null;
+        if (stub != null) {
+            log.warn("OpenAI 로컬 스텁 사용 - 실제 API를 호출하지 않습니다");
+        }
+        this.retryBudget = new AtomicLong(budgetMax());
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("openai")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+
+        HttpClient client = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .metrics(true, Function.identity());
+        if (properties.isHttp2Enabled() && baseUrl.startsWith("https")) {
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        this.httpClient = client;
+
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader("Authorization", "Bearer " + apiKey)
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+
+        Gauge.builder("divary.openai.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("OpenAI 서킷 브레이커 상태 (0 closed, 1 open, 2 half-open)")
+                .register(meterRegistry);
+        Gauge.builder("divary.openai.retry.budget", retryBudget, budget -> (double) budget.get() / BUDGET_UNIT)
+                .description("남은 재시도 예산 (회)")
+                .register(meterRegistry);
+    }
+
+    // 단건 응답 요청 (일시적 오류는 예산 안에서 재시도)
+    public Mono<String> post(String operation, Map<String, Object> requestBody) {
+        Mono<String> call = stub != null ? stub.respond(requestBody) : webClient.post()
+                .uri(RESPONSES_URI)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, this::toApiException)
+                .bodyToMono(String.class);
+        return guard(operation, requestBody, call.flux())
+                .singleOrEmpty()
+                .retryWhen(retry(operation));
+    }
+
+    // 스트림 요청 (이미 받은 청크가 있을 수 있으므로 재시도는 호출 측에서 결정)
+    public Flux<String> stream(String operation, Map<String, Object> requestBody) {
+        Flux<String> call = stub != null ? stub.stream(requestBody) : webClient.post()
+                .uri(RESPONSES_URI)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, this::toApiException)
+                .bodyToFlux(String.class);
+        return guard(operation, requestBody, call);
+    }
+
+    /**
+     * 일시적 오류(5xx, 429, 연결 실패, 타임아웃)만 재시도하며, 재시도 예산이 없으면 바로 실패시킨다.
+     * 서킷이 열린 경우와 잘못된 요청(4xx)은 재시도하지 않는다.
+     */
+    public Retry retry(String operation) {
+        return retry(operation, error -> true);
+    }
+
+    // allowed: 호출 측 재시도 조건 (일시적 오류이고 예산이 남아 있을 때만 평가)
+    public Retry retry(String operation, Predicate<Throwable> allowed) {
+        OpenAIClientProperties.Retry retry = properties.getRetry();
+        return Retry.backoff(retry.getMaxAttempts(), retry.getBackoff())
+                .filter(error -> isRetryable(error) && hasRetryBudget(operation) && allowed.test(error))
+                .doBeforeRetry(signal -> {
+                    retryBudget.addAndGet(-BUDGET_UNIT);
+                    meterRegistry.counter("divary.openai.retries", "operation", operation, "result", "retried").increment();
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    // 분당 토큰 예산을 확보하고 서킷 브레이커 확인 후 호출하며, 결과를 브레이커와 지표에 기록
+    private Flux<String> guard(String operation, Map<String, Object> requestBody, Flux<String> call) {
+        int tokens = scheduler.estimateTokens(requestBody);
+        return scheduler.acquire(OpenAIRequestScheduler.priorityOf(operation), tokens).thenMany(Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                meterRegistry.counter(REQUEST_METRIC + ".rejected", "operation", operation).increment();
+                return Flux.error(new OpenAICircuitOpenException());
+            }
+            lastRequestAt.set(System.currentTimeMillis());
+            long start = System.nanoTime();
+            return call
+                    .doOnComplete(() -> {
+                        // 재시도 예산은 성공한 호출만 적립 (재시도 자체가 예산을 채우면 장애 중에도 재시도가 줄지 않음)
+                        depositRetryBudget();
+                        circuitBreaker.onSuccess();
+                        recordRequest(operation, "success", start);
+                    })
+                    .doOnError(error -> {
+                        if (isRateLimited(error)) {
+                            scheduler.onRateLimited();
+                        }
+                        if (isUpstreamFailure(error)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onIgnored();
+                        }
+                        recordRequest(operation, outcome(error), start);
+                    })
+                    .doOnCancel(() -> {
+                        circuitBreaker.onIgnored();
+                        recordRequest(operation, "cancelled", start);
+                    });
+        }));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int connections = properties.getWarmupConnections();
+        if (connections <= 0 || stub != null) {
+            return;
+        }
+        // 이벤트 루프/DNS 리졸버/SSL 초기화 후 연결을 미리 열어 풀에 둔다
+        httpClient.warmup()
+                .thenMany(Flux.range(0, connections).flatMap(i -> ping("warmup"), connections))
+                .subscribe(null, e -> log.warn("OpenAI 연결 예열 실패: {}", e.getMessage()),
+                        () -> log.info("OpenAI 연결 예열 완료 - 연결 수: {}", connections));
+    }
+
+    // 요청이 뜸하면 연결이 유휴 정리되기 전에 가벼운 요청으로 유지
+    @Scheduled(fixedDelayString = "${openai.client.keep-warm-check-interval-ms:10000}")
+    public void keepWarm() {
+        long interval = properties.getKeepWarmInterval().toMillis();
+        if (interval <= 0 || stub != null || System.currentTimeMillis() - lastRequestAt.get() < interval) {
+            return;
+        }
+        lastRequestAt.set(System.currentTimeMillis());
+        ping("keep_warm").subscribe();
+    }
+
+    // 토큰을 쓰지 않는 모델 목록 조회로 연결만 확보 (결과와 오류는 무시, 브레이커에 반영하지 않음)
+    private Mono<Void> ping(String operation) {
+        long start = System.nanoTime();
+        return webClient.get()
+                .uri(WARMUP_URI)
+                .retrieve()
+                .toBodilessEntity()
+                .doOnSuccess(response -> recordRequest(operation, "success", start))
+                .doOnError(e -> {
+                    recordRequest(operation, outcome(e), start);
+                    log.debug("OpenAI 연결 유지 요청 실패: {}", e.getMessage());
+                })
+                .onErrorComplete()
+                .then();
+    }
+
+    private Mono<? extends Throwable> toApiException(ClientResponse response) {
+        int status = response.statusCode().value();
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> new OpenAIApiException(status, body));
+    }
+
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof OpenAIApiException apiException) {
+            return apiException.isTransient();
+        }
+        return error instanceof WebClientRequestException || isTimeout(error);
+    }
+
+    // 업스트림 장애로 보는 오류 (서킷 브레이커 실패 집계 대상)
+    private boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof OpenAIApiException apiException) {
+            return apiException.isTransient();
+        }
+        return !(error instanceof OpenAICircuitOpenException);
+    }
+
+    private boolean isRateLimited(Throwable error) {
+        return error instanceof OpenAIApiException apiException && apiException.getStatus() == 429;
+    }
+
+    private boolean isTimeout(Throwable error) {
+        return error instanceof TimeoutException || error instanceof ReadTimeoutException
+                || error.getCause() instanceof ReadTimeoutException;
+    }
+
+    private String outcome(Throwable error) {
+        if (isRateLimited(error)) {
+            return "rate_limited";
+        }
+        if (error instanceof OpenAIApiException apiException) {
+            return apiException.isTransient() ? "server_error" : "client_error";
+        }
+        return isTimeout(error) ? "timeout" : "io_error";
+    }
+
+    private void recordRequest(String operation, String outcome, long startNanos) {
+        meterRegistry.timer(REQUEST_METRIC, "operation", operation, "outcome", outcome)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean hasRetryBudget(String operation) {
+        if (retryBudget.get() >= BUDGET_UNIT) {
+            return true;
+        }
+        meterRegistry.counter("divary.openai.retries", "operation", operation, "result", "budget_exhausted").increment();
+        return false;
+    }
+
+    private void depositRetryBudget() {
+        long deposit = Math.round(properties.getRetry().getBudgetRatio() * BUDGET_UNIT);
+        long max = budgetMax();
+        retryBudget.getAndUpdate(current -> Math.min(max, current + deposit));
+    }
+
+    private long budgetMax() {
+        return properties.getRetry().getBudgetMax() * BUDGET_UNIT;
+    }
+}
@@ -0,0 +1,131 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIRoutingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 요청별 모델 선택과 보조 모델 전환 (OpenAIService, OpenAIStreamService가 OpenAIClient 대신 사용)
+ * - 제목/요약은 light, 일반 채팅은 standard, 이미지가 있거나 입력이 긴 채팅은 heavy 모델
+ * - 단건 응답이 responseTimeout, 스트림 첫 이벤트가 streamFirstEventTimeout 안에 오지 않으면 fallbackModel로 한 번 더 요청
+ *   (스트림은 아직 받은 이벤트가 없을 때만 전환하므로 클라이언트에 중복 청크가 가지 않음)
+ * 지표: divary.openai.route{class, model}, divary.openai.fallback{operation, from, to}
+ */
+@Slf4j
+@Component
+public class OpenAIModelRouter {
+
+    public enum RequestClass { TITLE, SUMMARY, CHAT }
+
+    private final OpenAIClient openAIClient;
+    private final OpenAIRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String lightModel;
+    private final String standardModel;
+    private final String heavyModel;
+
+    public OpenAIModelRouter(@Value("${openai.api.model}") String defaultModel,
+                             OpenAIClient openAIClient,
+                             OpenAIRoutingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.openAIClient = openAIClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.lightModel = orDefault(properties.getLightModel(), defaultModel);
+        this.standardModel = orDefault(properties.getStandardModel(), defaultModel);
+        this.heavyModel = orDefault(properties.getHeavyModel(), defaultModel);
+    }
+
+    // 요청 본문(input)의 길이와 이미지 유무로 모델 선택
+    public String route(RequestClass requestClass, Map<String, Object> requestBody) {
+        String model = switch (requestClass) {
+            case TITLE, SUMMARY -> lightModel;
+            // 이미지는 hasImage로 따로 판단하므로 길이에는 넣지 않음 (base64 본문이 토큰으로 세어지지 않게)
+            case CHAT -> hasImage(requestBody.get("input"))
+                    || TokenEstimator.estimateInput(requestBody.get("input"), 0) >= properties.getLongInputTokens() ? heavyModel : standardModel;
+        };
+        meterRegistry.counter("divary.openai.route", "class", requestClass.name().toLowerCase(), "model", model).increment();
+        return model;
+    }
+
+    // 단건 응답 요청 (타임아웃이면 보조 모델로 재요청)
+    public Mono<String> post(String operation, Map<String, Object> requestBody) {
+        Mono<String> primary = openAIClient.post(operation, requestBody).timeout(properties.getResponseTimeout());
+        String fallback = fallbackFor(requestBody);
+        if (fallback == null) {
+            return primary;
+        }
+        return primary.onErrorResume(this::isTimeout, error -> {
+            recordFallback(operation, requestBody, fallback);
+            return openAIClient.post(operation, withModel(requestBody, fallback)).timeout(properties.getResponseTimeout());
+        });
+    }
+
+    // 스트림 요청 (첫 이벤트 전에 타임아웃이면 보조 모델로 재요청)
+    public Flux<String> stream(String operation, Map<String, Object> requestBody) {
+        Flux<String> primary = firstEventTimeout(openAIClient.stream(operation, requestBody));
+        String fallback = fallbackFor(requestBody);
+        if (fallback == null) {
+            return primary;
+        }
+        return primary.onErrorResume(TimeoutException.class, error -> {
+            recordFallback(operation, requestBody, fallback);
+            return firstEventTimeout(openAIClient.stream(operation, withModel(requestBody, fallback)));
+        });
+    }
+
+    // 첫 이벤트에만 타임아웃 적용 (이후 청크 간격은 HTTP 클라이언트 응답 타임아웃이 담당)
+    private Flux<String> firstEventTimeout(Flux<String> stream) {
+        return stream.timeout(Mono.delay(properties.getStreamFirstEventTimeout()), line -> Mono.never());
+    }
+
+    private String fallbackFor(Map<String, Object> requestBody) {
+        String fallback = properties.getFallbackModel();
+        if (fallback == null || fallback.isBlank() || fallback.equals(requestBody.get("model"))) {
+            return null;
+        }
+        return fallback;
+    }
+
+    private Map<String, Object> withModel(Map<String, Object> requestBody, String model) {
+        Map<String, Object> copy = new HashMap<>(requestBody);
+        copy.put("model", model);
+        return copy;
+    }
+
+    private void recordFallback(String operation, Map<String, Object> requestBody, String fallback) {
+        String model = String.valueOf(requestBody.get("model"));
+        log.warn("OpenAI 응답 지연, 보조 모델로 전환 - operation: {}, {} -> {}", operation, model, fallback);
+        meterRegistry.counter("divary.openai.fallback", "operation", operation, "from", model, "to", fallback).increment();
+    }
+
+    private boolean isTimeout(Throwable error) {
+        return error instanceof TimeoutException || error.getCause() instanceof TimeoutException;
+    }
+
+    private boolean hasImage(Object input) {
+        if (input instanceof Map<?, ?> map) {
+            return "input_image".equals(map.get("type")) || map.values().stream().anyMatch(this::hasImage);
+        }
+        if (input instanceof Iterable<?> items) {
+            for (Object item : items) {
+                if (hasImage(item)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String orDefault(String model, String defaultModel) {
+        return model == null || model.isBlank() ? defaultModel : model;
+    }
+}
@@ -0,0 +1,39 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIPricingProperties;
+import com.divary.global.config.properties.OpenAIPricingProperties.Price;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 응답 모델별 비용 계산 (openai.pricing)
+ * 요청마다 라우팅된 모델이 다르므로 응답에 담긴 모델의 가격을 쓴다. (응답 메타데이터, 일일 사용량 집계)
+ */
+@Component
+public class OpenAIPricing {
+
+    private final OpenAIPricingProperties properties;
+    // 응답 모델명 -> 찾은 가격 (스냅샷 이름마다 접두사 검색을 반복하지 않도록)
+    private final Map<String, Price> resolved = new ConcurrentHashMap<>();
+
+    public OpenAIPricing(OpenAIPricingProperties properties) {
+        this.properties = properties;
+    }
+
+    public double calculateCost(String model, int promptTokens, int completionTokens) {
+        Price price = model == null ? properties.getDefaultPrice() : resolved.computeIfAbsent(model, this::findPrice);
+        return (promptTokens * price.getInputPer1k() / 1000) + (completionTokens * price.getOutputPer1k() / 1000);
+    }
+
+    private Price findPrice(String model) {
+        String matched = null;
+        for (String name : properties.getModels().keySet()) {
+            if (model.startsWith(name) && (matched == null || name.length() > matched.length())) {
+                matched = name;
+            }
+        }
+        return matched != null ? properties.getModels().get(matched) : properties.getDefaultPrice();
+    }
+}
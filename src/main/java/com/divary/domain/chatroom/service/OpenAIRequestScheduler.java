@@ -0,0 +1,266 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI 호출 스케줄러 (조직 단위 분당 토큰 한도 공유)
+ * - 토큰 버킷: tokensPerMinute만큼 채워지고, 호출마다 프롬프트 크기로 추정한 토큰(입력 + max_output_tokens)을 뺀다
+ * - 우선순위: INTERACTIVE(채팅 응답/스트림)가 먼저, BACKGROUND(제목/요약)는 backgroundReserveRatio만큼 남겨 두고만 사용
+ * - 버킷이 부족하면 우선순위별 큐에서 기다리고, 큐가 가득 차면 BACKGROUND부터 밀어내며, 대기 시간이 넘으면 거절한다
+ * - 429를 받으면 버킷을 비워 한도가 회복될 때까지 새 호출을 늦춘다
+ * 지표는 divary.openai.scheduler.* 로 노출된다.
+ */
+final class OpenAIRequestScheduler {
+
+    enum Priority { INTERACTIVE, BACKGROUND }
+
+    private static final String METRIC = "divary.openai.scheduler";
+
+    private final OpenAIClientProperties.RateLimit properties;
+    private final MeterRegistry meterRegistry;
+    private final double capacity;
+    private final double refillPerNano;
+
+    // 아래 상태는 this로 보호
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private double available;
+    private long refilledAt = System.nanoTime();
+    private long drainAt = Long.MAX_VALUE;
+
+    OpenAIRequestScheduler(OpenAIClientProperties.RateLimit properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.capacity = Math.max(0, properties.getTokensPerMinute());
+        this.refillPerNano = capacity / TimeUnit.MINUTES.toNanos(1);
+        this.available = capacity;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            Gauge.builder(METRIC + ".queued", this, scheduler -> scheduler.queuedCount(queue))
+                    .description("토큰 한도 대기 중인 OpenAI 호출 수")
+                    .tag("priority", tag(priority))
+                    .register(meterRegistry);
+        }
+        Gauge.builder(METRIC + ".tokens", this, OpenAIRequestScheduler::availableTokens)
+                .description("분당 토큰 버킷 잔량 (추정)")
+                .register(meterRegistry);
+    }
+
+    // 호출 종류별 우선순위 (제목/요약은 늦어지거나 빠져도 되는 백그라운드 작업)
+    static Priority priorityOf(String operation) {
+        return switch (operation) {
+            case "title", "summary" -> Priority.BACKGROUND;
+            default -> Priority.INTERACTIVE;
+        };
+    }
+
+    /**
+     * 요청 본문으로 사용할 토큰 추정 (instructions + input + max_output_tokens)
+     * 이미지는 고정 비용, previous_response_id 체인은 서버에 보관된 대화 분량을 chainedContextTokens로 더한다.
+     */
+    int estimateTokens(Map<String, Object> requestBody) {
+        int tokens = TokenEstimator.estimateInput(requestBody.get("instructions"), properties.getImageTokens())
+                + TokenEstimator.estimateInput(requestBody.get("input"), properties.getImageTokens());
+        if (requestBody.get("max_output_tokens") instanceof Number maxOutput) {
+            tokens += maxOutput.intValue();
+        }
+        if (requestBody.containsKey("previous_response_id")) {
+            tokens += properties.getChainedContextTokens();
+        }
+        return tokens;
+    }
+
+    /**
+     * 토큰을 확보하면 완료되는 Mono (구독마다 새로 확보하므로 재시도도 한도에 포함)
+     * 거절되면 OpenAIRequestShedException, 대기 중 구독이 취소되면 큐에서 뺀다.
+     */
+    Mono<Void> acquire(Priority priority, int tokens) {
+        if (capacity <= 0) {
+            return Mono.empty();
+        }
+        return Mono.create(sink -> {
+            // 버킷 전체보다 큰 요청도 언젠가는 받도록 상한을 둔다 (BACKGROUND는 예비분을 뺀 만큼이 최대)
+            Waiter waiter = new Waiter(priority, Math.min(tokens, capacity - floorFor(priority)), sink, System.nanoTime());
+            List<Runnable> signals = new ArrayList<>();
+            synchronized (this) {
+                refill(waiter.enqueuedAt);
+                if (isFirstInLine(priority) && tryTake(waiter)) {
+                    signals.add(() -> grant(waiter));
+                } else if (queuedCount() >= properties.getMaxQueueSize()) {
+                    Waiter preempted = priority == Priority.INTERACTIVE ? queues.get(Priority.BACKGROUND).pollLast() : null;
+                    if (preempted == null) {
+                        signals.add(() -> shed(waiter, "queue_full"));
+                    } else {
+                        signals.add(() -> shed(preempted, "preempted"));
+                        enqueue(waiter);
+                    }
+                } else {
+                    enqueue(waiter);
+                }
+            }
+            sink.onCancel(() -> remove(waiter));
+            signals.forEach(Runnable::run);
+        });
+    }
+
+    // OpenAI가 429를 반환함: 버킷을 비워 한도가 다시 찰 때까지 대기시킨다
+    synchronized void onRateLimited() {
+        refill(System.nanoTime());
+        available = 0;
+        meterRegistry.counter(METRIC + ".rate_limited").increment();
+    }
+
+    private void enqueue(Waiter waiter) {
+        queues.get(waiter.priority).addLast(waiter);
+        Duration timeout = waiter.priority == Priority.INTERACTIVE
+                ? properties.getInteractiveQueueTimeout() : properties.getBackgroundQueueTimeout();
+        waiter.timeout = Schedulers.parallel().schedule(() -> expire(waiter), timeout.toMillis(), TimeUnit.MILLISECONDS);
+        scheduleDrain(System.nanoTime());
+    }
+
+    // 앞에서 기다리는 호출이 없을 때만 바로 가져간다 (BACKGROUND는 INTERACTIVE 대기도 없어야 함)
+    private boolean isFirstInLine(Priority priority) {
+        if (!queues.get(Priority.INTERACTIVE).isEmpty()) {
+            return false;
+        }
+        return priority == Priority.INTERACTIVE || queues.get(Priority.BACKGROUND).isEmpty();
+    }
+
+    private boolean tryTake(Waiter waiter) {
+        double floor = floorFor(waiter.priority);
+        if (available - waiter.tokens < floor) {
+            return false;
+        }
+        available -= waiter.tokens;
+        return true;
+    }
+
+    private double floorFor(Priority priority) {
+        return priority == Priority.BACKGROUND ? capacity * properties.getBackgroundReserveRatio() : 0;
+    }
+
+    private void refill(long now) {
+        available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+        refilledAt = now;
+    }
+
+    // 버킷이 찬 만큼 우선순위 순서대로 대기 호출을 내보낸다 (INTERACTIVE가 막혀 있으면 BACKGROUND는 기다림)
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            drainAt = Long.MAX_VALUE;
+            refill(now);
+            for (Priority priority : Priority.values()) {
+                ArrayDeque<Waiter> queue = queues.get(priority);
+                while (!queue.isEmpty() && tryTake(queue.peekFirst())) {
+                    granted.add(queue.pollFirst());
+                }
+                if (!queue.isEmpty()) {
+                    break;
+                }
+            }
+            scheduleDrain(now);
+        }
+        granted.forEach(this::grant);
+    }
+
+    // 맨 앞 대기 호출에 필요한 토큰이 찰 시점에 drain 예약 (이미 더 이른 예약이 있으면 생략)
+    private void scheduleDrain(long now) {
+        Waiter head = null;
+        for (Priority priority : Priority.values()) {
+            head = queues.get(priority).peekFirst();
+            if (head != null) {
+                break;
+            }
+        }
+        if (head == null) {
+            return;
+        }
+        double deficit = head.tokens + floorFor(head.priority) - available;
+        long delay = Math.max(1, (long) Math.ceil(deficit / refillPerNano));
+        if (now + delay >= drainAt) {
+            return;
+        }
+        drainAt = now + delay;
+        Schedulers.parallel().schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void expire(Waiter waiter) {
+        if (remove(waiter)) {
+            shed(waiter, "timeout");
+        }
+    }
+
+    private synchronized boolean remove(Waiter waiter) {
+        return queues.get(waiter.priority).remove(waiter);
+    }
+
+    private void grant(Waiter waiter) {
+        if (waiter.timeout != null) {
+            waiter.timeout.dispose();
+        }
+        meterRegistry.timer(METRIC + ".wait", "priority", tag(waiter.priority))
+                .record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        waiter.sink.success();
+    }
+
+    private void shed(Waiter waiter, String reason) {
+        if (waiter.timeout != null) {
+            waiter.timeout.dispose();
+        }
+        meterRegistry.counter(METRIC + ".shed", "priority", tag(waiter.priority), "reason", reason).increment();
+        waiter.sink.error(new OpenAIRequestShedException(tag(waiter.priority), reason));
+    }
+
+    private synchronized int queuedCount() {
+        int count = 0;
+        for (ArrayDeque<Waiter> queue : queues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    private synchronized int queuedCount(ArrayDeque<Waiter> queue) {
+        return queue.size();
+    }
+
+    private synchronized double availableTokens() {
+        refill(System.nanoTime());
+        return available;
+    }
+
+    private static String tag(Priority priority) {
+        return priority.name().toLowerCase();
+    }
+
+    private static final class Waiter {
+
+        private final Priority priority;
+        private final double tokens;
+        private final MonoSink<Void> sink;
+        private final long enqueuedAt;
+        private Disposable timeout;
+
+        private Waiter(Priority priority, double tokens, MonoSink<Void> sink, long enqueuedAt) {
+            this.priority = priority;
+            this.tokens = tokens;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.divary.domain.chatroom.service;
+
+// 분당 토큰 한도 때문에 스케줄러가 OpenAI 호출을 보내지 않음 (reason: queue_full, preempted, timeout)
+class OpenAIRequestShedException extends RuntimeException {
+
+    OpenAIRequestShedException(String priority, String reason) {
+        super("OpenAI request shed by rate limiter (priority: " + priority + ", reason: " + reason + ")");
+    }
+}
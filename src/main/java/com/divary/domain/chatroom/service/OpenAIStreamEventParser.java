@@ -0,0 +1,240 @@
+package com.divary.domain.chatroom.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Responses API 스트리밍 이벤트 파서
+ * JsonNode 트리를 만들지 않고 스트리밍 JsonParser로 type/delta(response.created는 response.id)만 읽는다.
+ * response.completed는 응답 본문 중 model/usage만 읽고, 그 외 type이면 나머지 본문은 읽지 않고 바로 반환한다.
+ * 필드 순서에는 의존하지 않는다 (type이 먼저 오면 나머지를 덜 읽을 뿐).
+ */
+final class OpenAIStreamEventParser {
+
+    // JsonFactory는 thread-safe, 필드명은 기본적으로 intern되어 == 비교 가능
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_DELTA = "delta";
+    private static final String FIELD_RESPONSE = "response";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_MODEL = "model";
+    private static final String FIELD_USAGE = "usage";
+    private static final String FIELD_INPUT_TOKENS = "input_tokens";
+    private static final String FIELD_OUTPUT_TOKENS = "output_tokens";
+    private static final String FIELD_TOTAL_TOKENS = "total_tokens";
+
+    private OpenAIStreamEventParser() {
+    }
+
+    /**
+     * SSE data 한 줄을 파싱한다.
+     * "data:" 접두사/공백이 남아 있어도 첫 '{'부터 읽으며, JSON이 아니거나 관심 없는 이벤트는 IGNORED를 반환한다.
+     */
+    static OpenAIStreamEvent parse(String line) throws IOException {
+        if (line == null) {
+            return OpenAIStreamEvent.IGNORED;
+        }
+        int start = line.indexOf('{');
+        if (start < 0) {
+            return OpenAIStreamEvent.IGNORED;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(start == 0 ? line : line.substring(start))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return OpenAIStreamEvent.IGNORED;
+            }
+
+            OpenAIStreamEventType type = null;
+            String delta = null;
+            ResponseFields response = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (field == FIELD_TYPE && value == JsonToken.VALUE_STRING) {
+                    type = OpenAIStreamEventType.of(parser.getText());
+                    if (type == OpenAIStreamEventType.CREATED && response == null) {
+                        return parseCreated(parser);
+                    }
+                    if (type == OpenAIStreamEventType.OTHER || type == OpenAIStreamEventType.FAILED) {
+                        return OpenAIStreamEvent.of(type);
+                    }
+                    if (delta != null || response != null) {
+                        break;
+                    }
+                } else if (field == FIELD_DELTA && value == JsonToken.VALUE_STRING) {
+                    delta = parser.getText();
+                    if (type != null) {
+                        break;
+                    }
+                } else if (field == FIELD_RESPONSE && value == JsonToken.START_OBJECT) {
+                    // type보다 먼저 오거나 completed의 본문: 필드 순서와 관계없이 id/model/usage를 모두 읽는다
+                    response = parseResponse(parser);
+                    if (type != null) {
+                        break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (type == OpenAIStreamEventType.OUTPUT_TEXT_DELTA && delta != null && !delta.isEmpty()) {
+                return OpenAIStreamEvent.delta(delta);
+            }
+            if (type == OpenAIStreamEventType.CREATED && response != null && response.id != null) {
+                return OpenAIStreamEvent.created(response.id);
+            }
+            if (type == OpenAIStreamEventType.COMPLETED && response != null && response.usage != null) {
+                Usage usage = response.usage;
+                return OpenAIStreamEvent.completed(new Usage(response.model, usage.inputTokens(), usage.outputTokens(), usage.totalTokens()));
+            }
+            return type != null ? OpenAIStreamEvent.of(type) : OpenAIStreamEvent.IGNORED;
+        }
+    }
+
+    // response.created: {"type": ..., "sequence_number": ..., "response": {"id": "resp_...", ...}}
+    // type이 먼저 온 경우 id만 읽고 나머지는 읽지 않는다
+    private static OpenAIStreamEvent parseCreated(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field == FIELD_RESPONSE && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String responseField = parser.currentName();
+                    JsonToken responseValue = parser.nextToken();
+                    if (responseField == FIELD_ID && responseValue == JsonToken.VALUE_STRING) {
+                        return OpenAIStreamEvent.created(parser.getText());
+                    }
+                    parser.skipChildren();
+                }
+                break;
+            }
+            parser.skipChildren();
+        }
+        return OpenAIStreamEvent.IGNORED;
+    }
+
+    // response 객체 안에서 호출: id/model/usage만 읽고 output 등 나머지는 skipChildren으로 건너뛴다
+    // (completed의 usage는 본문 끝쪽에 있고, model과의 순서는 보장되지 않음)
+    private static ResponseFields parseResponse(JsonParser parser) throws IOException {
+        ResponseFields response = new ResponseFields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field == FIELD_ID && value == JsonToken.VALUE_STRING) {
+                response.id = parser.getText();
+            } else if (field == FIELD_MODEL && value == JsonToken.VALUE_STRING) {
+                response.model = parser.getText();
+            } else if (field == FIELD_USAGE && value == JsonToken.START_OBJECT) {
+                response.usage = parseUsage(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return response;
+    }
+
+    // usage 객체 안에서 호출 (input_tokens_details 등 하위 객체는 건너뜀, 모델명은 호출 측에서 채움)
+    private static Usage parseUsage(JsonParser parser) throws IOException {
+        int inputTokens = 0;
+        int outputTokens = 0;
+        int totalTokens = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NUMBER_INT) {
+                parser.skipChildren();
+            } else if (field == FIELD_INPUT_TOKENS) {
+                inputTokens = parser.getIntValue();
+            } else if (field == FIELD_OUTPUT_TOKENS) {
+                outputTokens = parser.getIntValue();
+            } else if (field == FIELD_TOTAL_TOKENS) {
+                totalTokens = parser.getIntValue();
+            }
+        }
+        return new Usage(null, inputTokens, outputTokens, totalTokens >= 0 ? totalTokens : inputTokens + outputTokens);
+    }
+
+    private static final class ResponseFields {
+        private String id;
+        private String model;
+        private Usage usage;
+    }
+
+    enum OpenAIStreamEventType {
+        CREATED,
+        OUTPUT_TEXT_DELTA,
+        COMPLETED,
+        FAILED,
+        OTHER;
+
+        static OpenAIStreamEventType of(String type) {
+            return switch (type) {
+                case "response.created" -> CREATED;
+                case "response.output_text.delta" -> OUTPUT_TEXT_DELTA;
+                // max_output_tokens에 걸려 끝난 응답(incomplete)도 정상 종료로 보고 usage를 읽는다
+                case "response.completed", "response.incomplete" -> COMPLETED;
+                case "response.failed", "error" -> FAILED;
+                default -> OTHER;
+            };
+        }
+    }
+
+    // 응답 모델과 토큰 사용량 (response.completed의 response.model/usage)
+    record Usage(String model, int inputTokens, int outputTokens, int totalTokens) {
+
+        // 사용량을 알 수 없는 응답 (캐시 답변, usage 없이 끝난 스트림)
+        static Usage none(String model) {
+            return new Usage(model, 0, 0, 0);
+        }
+    }
+
+    // 파싱 결과 (delta/created/usage 있는 completed 이벤트만 새로 할당하고 나머지는 타입별 상수 재사용)
+    record OpenAIStreamEvent(OpenAIStreamEventType type, String delta, String responseId, Usage usage) {
+
+        static final OpenAIStreamEvent IGNORED = new OpenAIStreamEvent(OpenAIStreamEventType.OTHER, null, null, null);
+        private static final OpenAIStreamEvent COMPLETED = new OpenAIStreamEvent(OpenAIStreamEventType.COMPLETED, null, null, null);
+        private static final OpenAIStreamEvent FAILED = new OpenAIStreamEvent(OpenAIStreamEventType.FAILED, null, null, null);
+
+        static OpenAIStreamEvent delta(String delta) {
+            return new OpenAIStreamEvent(OpenAIStreamEventType.OUTPUT_TEXT_DELTA, delta, null, null);
+        }
+
+        static OpenAIStreamEvent created(String responseId) {
+            return new OpenAIStreamEvent(OpenAIStreamEventType.CREATED, null, responseId, null);
+        }
+
+        static OpenAIStreamEvent completed(Usage usage) {
+            return new OpenAIStreamEvent(OpenAIStreamEventType.COMPLETED, null, null, usage);
+        }
+
+        static OpenAIStreamEvent of(OpenAIStreamEventType type) {
+            return switch (type) {
+                case COMPLETED -> COMPLETED;
+                case FAILED -> FAILED;
+                default -> IGNORED;
+            };
+        }
+
+        boolean hasDelta() {
+            return delta != null;
+        }
+
+        boolean isFailed() {
+            return type == OpenAIStreamEventType.FAILED;
+        }
+
+        boolean hasResponseId() {
+            return responseId != null;
+        }
+
+        boolean hasUsage() {
+            return usage != null;
+        }
+    }
+}
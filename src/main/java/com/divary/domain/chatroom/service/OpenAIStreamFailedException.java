@@ -0,0 +1,9 @@
+package com.divary.domain.chatroom.service;
+
+// 업스트림 스트림이 response.failed 또는 error 이벤트를 보냄 (그때까지 받은 답변은 저장/캐시하지 않음)
+class OpenAIStreamFailedException extends RuntimeException {
+
+    OpenAIStreamFailedException() {
+        super("OpenAI 응답 생성이 실패했습니다 (response.failed)");
+    }
+}
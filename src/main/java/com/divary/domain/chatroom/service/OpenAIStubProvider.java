@@ -0,0 +1,129 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIClientProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * OpenAI Responses API 로컬 스텁 (openai.client.stub.enabled)
+ * 요청 본문(model/instructions/input)의 해시로 응답 ID와 본문을 만들어 같은 요청에는 항상 같은 응답을 돌려준다.
+ * 지연은 firstEventLatency + 모델별 추가 지연, stalledModels는 응답하지 않아 호출 측 타임아웃과 보조 모델 전환을 재현한다.
+ * OpenAIClient의 스케줄러/서킷 브레이커/재시도/지표는 실제 호출과 똑같이 거친다.
+ */
+final class OpenAIStubProvider {
+
+    private static final String[] WORDS = {
+            "다이빙", "전에", "장비를", "점검하고", "버디와", "수신호를", "확인하세요.", "수심", "18m", "이내에서",
+            "천천히", "상승하며", "안전정지를", "3분간", "유지합니다.", "중성부력을", "맞추면", "공기", "소모가", "줄어듭니다."
+    };
+
+    private final OpenAIClientProperties.Stub properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    OpenAIStubProvider(OpenAIClientProperties.Stub properties) {
+        this.properties = properties;
+    }
+
+    // 단건 응답: 지연 후 완료된 응답 본문 전체
+    Mono<String> respond(Map<String, Object> requestBody) {
+        return Mono.defer(() -> {
+            StubResponse response = generate(requestBody);
+            if (response == null) {
+                return Mono.never();
+            }
+            return Mono.delay(latency(response.model()))
+                    .then(Mono.fromCallable(() -> toJson(response.completedBody(String.join("", response.deltas())))));
+        });
+    }
+
+    // 스트림 응답: response.created, output_text.delta, response.completed 순의 SSE data 줄
+    Flux<String> stream(Map<String, Object> requestBody) {
+        return Flux.defer(() -> {
+            StubResponse response = generate(requestBody);
+            if (response == null) {
+                return Flux.never();
+            }
+            Flux<String> deltas = Flux.fromIterable(response.deltas())
+                    .map(delta -> toJson(ordered("type", "response.output_text.delta", "delta", delta)));
+            if (!properties.getChunkInterval().isZero()) {
+                deltas = deltas.delayElements(properties.getChunkInterval());
+            }
+            return Mono.delay(latency(response.model()))
+                    .thenMany(Flux.concat(
+                            Mono.fromCallable(() -> toJson(ordered("type", "response.created",
+                                    "response", ordered("id", response.id(), "model", response.model())))),
+                            deltas,
+                            Mono.fromCallable(() -> toJson(ordered("type", "response.completed",
+                                    "response", response.completedBody(null))))));
+        });
+    }
+
+    // stalledModels면 null
+    private StubResponse generate(Map<String, Object> requestBody) {
+        String model = String.valueOf(requestBody.get("model"));
+        if (properties.getStalledModels().contains(model)) {
+            return null;
+        }
+        String input = String.valueOf(requestBody.get("input"));
+        long seed = (model + '\n' + requestBody.get("instructions") + '\n' + input).hashCode();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int chunks = Math.max(1, properties.getOutputChunks());
+        if (requestBody.get("max_output_tokens") instanceof Number maxOutput) {
+            chunks = Math.min(chunks, Math.max(1, maxOutput.intValue()));
+        }
+        List<String> deltas = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            deltas.add(WORDS[random.nextInt(WORDS.length)] + (i < chunks - 1 ? " " : ""));
+        }
+        int inputTokens = TokenEstimator.estimate(String.valueOf(requestBody.get("instructions"))) + TokenEstimator.estimate(input);
+        return new StubResponse("resp_stub_" + Long.toHexString(seed & 0xffffffffL), model, deltas, inputTokens);
+    }
+
+    private Duration latency(String model) {
+        return properties.getFirstEventLatency().plus(properties.getModelLatency().getOrDefault(model, Duration.ZERO));
+    }
+
+    // 실제 Responses API와 같은 필드 순서 (type 먼저, usage는 본문 끝)
+    private static Map<String, Object> ordered(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StubResponse(String id, String model, List<String> deltas, int inputTokens) {
+
+        // Responses API 응답 본문 (text가 있으면 output 포함)
+        Map<String, Object> completedBody(String text) {
+            Map<String, Object> body = ordered("id", id, "model", model);
+            if (text != null) {
+                body.put("output", List.of(ordered("type", "message",
+                        "content", List.of(ordered("type", "output_text", "text", text)))));
+            }
+            body.put("usage", ordered(
+                    "input_tokens", inputTokens,
+                    "output_tokens", deltas.size(),
+                    "total_tokens", inputTokens + deltas.size()));
+            return body;
+        }
+    }
+}
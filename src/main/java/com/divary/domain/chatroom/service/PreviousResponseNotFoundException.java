@@ -0,0 +1,19 @@
+package com.divary.domain.chatroom.service;
+
+/**
+ * previous_response_id로 지정한 응답을 OpenAI가 찾지 못함 (보관 기간 만료, 삭제 등)
+ * 호출 측은 전체 히스토리로 다시 요청한다.
+ */
+class PreviousResponseNotFoundException extends RuntimeException {
+
+    private static final String ERROR_CODE = "previous_response_not_found";
+
+    PreviousResponseNotFoundException(String previousResponseId) {
+        super("Previous response not found: " + previousResponseId);
+    }
+
+    // Responses API 에러 본문으로 체인 만료 여부 판단
+    static boolean matches(String errorBody) {
+        return errorBody != null && errorBody.contains(ERROR_CODE);
+    }
+}
@@ -0,0 +1,164 @@
+package com.divary.domain.chatroom.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 답변 캐시용 질문 정규화 + n-gram 시그니처
+ * 정규화: NFKC, 소문자, 기호 제거, 질문 상투어/조사 제거 ("흰동가리의 특징 알려줘" -> "흰동가리 특징")
+ * 시그니처: 단어 내부 문자 bigram 집합의 MinHash, 밴드 단위로 묶어 유사 질문 후보를 찾는다 (LSH).
+ * 후보는 bigram 집합의 Jaccard 유사도로 최종 판정한다.
+ */
+final class QuestionSignature {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // 의미 없이 붙는 질문 상투어 (단어 단위로 제거)
+    private static final Set<String> FILLER_WORDS = Set.of(
+            "what", "is", "are", "a", "an", "the", "tell", "me", "about", "please",
+            "알려줘", "알려주세요", "알려줄래", "뭐야", "뭐예요", "뭔가요", "무엇인가요", "무엇", "설명해줘", "설명해주세요", "대해", "대해서");
+
+    // 단어 끝 조사 (3글자 이상 단어에서만 제거)
+    private static final String PARTICLES = "은는이가을를의에와과도";
+
+    private static final int HASH_COUNT = 16;
+    private static final int ROWS_PER_BAND = 2;
+    private static final long[] SEEDS = new long[HASH_COUNT];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final String normalized;
+    private final Set<String> shingles;
+
+    private QuestionSignature(String normalized, Set<String> shingles) {
+        this.normalized = normalized;
+        this.shingles = shingles;
+    }
+
+    static QuestionSignature of(String question) {
+        String normalized = normalize(question);
+        return new QuestionSignature(normalized, shingles(normalized));
+    }
+
+    String normalized() {
+        return normalized;
+    }
+
+    Set<String> shingles() {
+        return shingles;
+    }
+
+    // 정규화 질문의 단어 수
+    int wordCount() {
+        return normalized.isEmpty() ? 0 : normalized.split(" ").length;
+    }
+
+    boolean isEmpty() {
+        return shingles.isEmpty();
+    }
+
+    static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(question, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(text.length());
+        for (String word : NON_WORD.split(text)) {
+            if (word.isEmpty() || FILLER_WORDS.contains(word)) {
+                continue;
+            }
+            String stripped = stripParticle(word);
+            if (FILLER_WORDS.contains(stripped)) {
+                continue;
+            }
+            if (!result.isEmpty()) {
+                result.append(' ');
+            }
+            result.append(stripped);
+        }
+        return result.toString();
+    }
+
+    private static String stripParticle(String word) {
+        if (word.length() >= 3 && PARTICLES.indexOf(word.charAt(word.length() - 1)) >= 0) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    // 단어 내부 문자 bigram (한 글자 단어는 그대로), 띄어쓰기 차이에 덜 민감하도록 단어 경계는 넘지 않음
+    private static Set<String> shingles(String normalized) {
+        Set<String> result = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            int[] codePoints = word.codePoints().toArray();
+            if (codePoints.length == 1) {
+                result.add(word);
+                continue;
+            }
+            for (int i = 0; i + 1 < codePoints.length; i++) {
+                result.add(new String(codePoints, i, 2));
+            }
+        }
+        return result;
+    }
+
+    // MinHash 서명을 ROWS_PER_BAND개씩 묶은 밴드 키 (같은 밴드 키를 하나라도 공유하면 유사 후보)
+    List<String> bandKeys() {
+        long[] minHashes = new long[HASH_COUNT];
+        Arrays.fill(minHashes, Long.MAX_VALUE);
+        for (String shingle : shingles) {
+            long base = shingle.hashCode();
+            for (int i = 0; i < HASH_COUNT; i++) {
+                long hash = mix(base ^ SEEDS[i]);
+                if (hash < minHashes[i]) {
+                    minHashes[i] = hash;
+                }
+            }
+        }
+
+        List<String> keys = new ArrayList<>(HASH_COUNT / ROWS_PER_BAND);
+        for (int band = 0; band < HASH_COUNT / ROWS_PER_BAND; band++) {
+            long combined = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                combined = mix(combined * 31 + minHashes[band * ROWS_PER_BAND + row]);
+            }
+            keys.add(band + ":" + Long.toHexString(combined));
+        }
+        return keys;
+    }
+
+    double similarity(Set<String> other) {
+        if (shingles.isEmpty() || other.isEmpty()) {
+            return 0;
+        }
+        int intersection = 0;
+        for (String shingle : shingles) {
+            if (other.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (shingles.size() + other.size() - intersection);
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
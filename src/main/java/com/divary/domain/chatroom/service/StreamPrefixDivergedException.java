@@ -0,0 +1,9 @@
+package com.divary.domain.chatroom.service;
+
+// 재시도한 업스트림 응답이 이미 클라이언트에 보낸 앞부분과 달라 이어 붙일 수 없음
+class StreamPrefixDivergedException extends RuntimeException {
+
+    StreamPrefixDivergedException(int offset) {
+        super("재시도한 응답이 이미 전송된 내용과 달라 중단했습니다 (위치: " + offset + ")");
+    }
+}
@@ -0,0 +1,79 @@
+package com.divary.domain.chatroom.service;
+
+import java.util.Map;
+
+/**
+ * 로컬 토큰 수 추정 (토크나이저 없이 문자 종류로 근사)
+ * 영문/숫자/기호는 약 4자당 1토큰, 한글 등 비ASCII 문자는 1자당 1토큰으로 보수적으로 계산한다.
+ */
+public final class TokenEstimator {
+
+    // role 구분자 등 메시지마다 붙는 고정 비용
+    public static final int MESSAGE_OVERHEAD = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                ascii++;
+            } else if (!Character.isLowSurrogate(c)) {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    /**
+     * Responses API 요청 값(instructions, input)의 추정 토큰 (문자열/Map/리스트를 재귀로 합산)
+     * image_url 값(base64 data URL)은 길이와 무관하게 이미지 1장당 imageTokens로 센다.
+     */
+    public static int estimateInput(Object value, int imageTokens) {
+        if (value instanceof CharSequence text) {
+            return estimate(text);
+        }
+        int tokens = 0;
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                tokens += "image_url".equals(entry.getKey()) ? imageTokens : estimateInput(entry.getValue(), imageTokens);
+            }
+        } else if (value instanceof Iterable<?> items) {
+            for (Object item : items) {
+                tokens += estimateInput(item, imageTokens);
+            }
+        }
+        return tokens;
+    }
+
+    // 추정 토큰이 maxTokens를 넘지 않도록 앞부분만 남긴다
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || estimate(text) <= maxTokens) {
+            return text;
+        }
+        int ascii = 0;
+        int other = 0;
+        int end = 0;
+        for (int n = text.length(); end < n; end++) {
+            char c = text.charAt(end);
+            if (c < 0x80) {
+                ascii++;
+            } else if (!Character.isLowSurrogate(c)) {
+                other++;
+            }
+            if ((ascii + 3) / 4 + other > maxTokens) {
+                break;
+            }
+        }
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + "…";
+    }
+}
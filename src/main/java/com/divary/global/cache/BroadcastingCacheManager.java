@@ -0,0 +1,129 @@
+package com.divary.global.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 로컬 캐시 매니저 래퍼
+ * evict/clear(@CacheEvict, 직접 호출 모두)는 로컬에 바로 반영하고 CacheInvalidationBus로 다른 서버에 전파한다.
+ * 다른 서버에서 받은 무효화는 래핑하지 않은 로컬 캐시에만 반영해 다시 전파되지 않게 한다.
+ */
+public class BroadcastingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public BroadcastingCacheManager(CacheManager delegate, CacheInvalidationBus invalidationBus) {
+        this.delegate = delegate;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.onRemoteInvalidation(this::evictLocally);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache local = delegate.getCache(name);
+        if (local == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new BroadcastingCache(local));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    // 다른 서버의 무효화 반영 (key가 null이면 캐시 전체)
+    private void evictLocally(String cacheName, Object key) {
+        Cache local = delegate.getCache(cacheName);
+        if (local == null) {
+            return;
+        }
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+
+    private class BroadcastingCache implements Cache {
+
+        private final Cache local;
+
+        private BroadcastingCache(Cache local) {
+            this.local = local;
+        }
+
+        @Override
+        public String getName() {
+            return local.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return local.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return local.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return local.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            local.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return local.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            local.evict(key);
+            invalidationBus.publishEvict(getName(), key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean evicted = local.evictIfPresent(key);
+            // 이 서버에 없어도 다른 서버에는 있을 수 있으므로 항상 전파
+            invalidationBus.publishEvict(getName(), key);
+            return evicted;
+        }
+
+        @Override
+        public void clear() {
+            local.clear();
+            invalidationBus.publishClear(getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean invalidated = local.invalidate();
+            invalidationBus.publishClear(getName());
+            return invalidated;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.divary.global.cache;
+
+import com.divary.global.config.properties.CacheInvalidationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 로컬 캐시 무효화 전파 (Redis pub/sub)
+ * 무효화는 큐에 모았다가 batchInterval마다 (캐시, 키) 중복을 없애 한 메시지로 보내고,
+ * 다른 서버에서 받은 메시지는 등록된 핸들러로 로컬 캐시에만 반영한다 (자기 메시지는 무시).
+ * Redis 장애 시 전파만 빠지고 로컬 무효화와 캐시 TTL은 그대로 동작한다.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements MessageListener {
+
+    // 키 타입 접두사 (캐시 키는 Long/Integer/String만 그대로 전달, 그 외 타입은 캐시 전체 무효화)
+    private static final String CLEAR = "*";
+    private static final String LONG_KEY = "L:";
+    private static final String INTEGER_KEY = "I:";
+    private static final String STRING_KEY = "S:";
+
+    private final CacheInvalidationProperties properties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentLinkedQueue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private volatile BiConsumer<String, Object> remoteHandler = (cacheName, key) -> { };
+
+    private final Counter published;
+    private final Counter batches;
+    private final Counter received;
+    private final Counter publishFailures;
+    private final Timer propagationLag;
+
+    public CacheInvalidationBus(CacheInvalidationProperties properties,
+                                ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplateProvider = redisTemplateProvider;
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("divary.cache.invalidation.published")
+                .description("다른 서버로 전파한 캐시 무효화 수")
+                .register(meterRegistry);
+        this.batches = Counter.builder("divary.cache.invalidation.batches")
+                .description("전송한 캐시 무효화 메시지 수")
+                .register(meterRegistry);
+        this.received = Counter.builder("divary.cache.invalidation.received")
+                .description("다른 서버에서 받아 반영한 캐시 무효화 수")
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("divary.cache.invalidation.publish.failures")
+                .description("전송에 실패해 버려진 캐시 무효화 수")
+                .register(meterRegistry);
+        this.propagationLag = Timer.builder("divary.cache.invalidation.lag")
+                .description("무효화 발생부터 다른 서버 반영까지 걸린 시간 (서버 간 시계 차이 포함)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        long intervalMs = Math.max(1, properties.getBatchInterval().toMillis());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.isEnabled()) {
+            flusher.scheduleWithFixedDelay(this::flushSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 다른 서버의 무효화를 로컬 캐시에 반영할 핸들러 (캐시 이름, 키 - 키가 null이면 캐시 전체)
+    public void onRemoteInvalidation(BiConsumer<String, Object> handler) {
+        this.remoteHandler = handler;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        enqueue(cacheName, encodeKey(key));
+    }
+
+    public void publishClear(String cacheName) {
+        enqueue(cacheName, CLEAR);
+    }
+
+    private void enqueue(String cacheName, String key) {
+        if (properties.isEnabled()) {
+            pending.add(new Invalidation(cacheName, key, System.currentTimeMillis()));
+        }
+    }
+
+    // 큐를 비우며 (캐시, 키) 중복을 제거하고 maxBatchSize씩 전송
+    void flush() {
+        Map<String, Invalidation> batch = new LinkedHashMap<>();
+        Invalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            batch.putIfAbsent(invalidation.cache() + '\n' + invalidation.key(), invalidation);
+            if (batch.size() >= properties.getMaxBatchSize()) {
+                send(new ArrayList<>(batch.values()));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(new ArrayList<>(batch.values()));
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("캐시 무효화 전파 오류: {}", e.getMessage());
+        }
+    }
+
+    private void send(List<Invalidation> entries) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(new InvalidationBatch(nodeId, entries));
+            redisTemplate.convertAndSend(properties.getChannel(), payload);
+            published.increment(entries.size());
+            batches.increment();
+        } catch (Exception e) {
+            publishFailures.increment(entries.size());
+            log.warn("캐시 무효화 전파 실패 - {}건: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            InvalidationBatch batch = objectMapper.readValue(message.getBody(), InvalidationBatch.class);
+            if (nodeId.equals(batch.origin())) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (Invalidation invalidation : batch.entries()) {
+                remoteHandler.accept(invalidation.cache(), decodeKey(invalidation.key()));
+                propagationLag.record(Duration.ofMillis(Math.max(0, now - invalidation.queuedAt())));
+            }
+            received.increment(batch.entries().size());
+        } catch (Exception e) {
+            log.warn("캐시 무효화 메시지 처리 실패: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushSafely();
+    }
+
+    private String encodeKey(Object key) {
+        if (key instanceof Long value) {
+            return LONG_KEY + value;
+        }
+        if (key instanceof Integer value) {
+            return INTEGER_KEY + value;
+        }
+        if (key instanceof String value) {
+            return STRING_KEY + value;
+        }
+        return CLEAR;
+    }
+
+    // null이면 캐시 전체 무효화
+    private Object decodeKey(String key) {
+        if (key.startsWith(LONG_KEY)) {
+            return Long.valueOf(key.substring(LONG_KEY.length()));
+        }
+        if (key.startsWith(INTEGER_KEY)) {
+            return Integer.valueOf(key.substring(INTEGER_KEY.length()));
+        }
+        if (key.startsWith(STRING_KEY)) {
+            return key.substring(STRING_KEY.length());
+        }
+        return null;
+    }
+
+    // queuedAt: 무효화가 발생한 시각 (전파 지연 측정용)
+    record Invalidation(String cache, String key, long queuedAt) {
+    }
+
+    record InvalidationBatch(String origin, List<Invalidation> entries) {
+    }
+}
@@ -1,11 +1,18 @@
 package com.divary.global.config;
 
+import com.divary.global.cache.BroadcastingCacheManager;
+import com.divary.global.cache.CacheInvalidationBus;
+import com.divary.global.config.properties.CacheInvalidationProperties;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
@@ -20,8 +27,9 @@ public class CacheConfig {
     public static final String CACHE_ENCYCLOPEDIA_DETAIL = "encyclopedia:detail";
     public static final String CACHE_IMAGES_BY_PATH = "image:byPath";
 
+    // evict/clear는 로컬 Caffeine 캐시에 반영한 뒤 CacheInvalidationBus로 다른 서버에 전파
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheInvalidationBus invalidationBus) {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
 
         Caffeine<Object, Object> shortTtl = Caffeine.newBuilder()
@@ -44,8 +52,21 @@ public class CacheConfig {
                 new CaffeineCache(CACHE_ENCYCLOPEDIA_DETAIL, longTtl.build()),
                 new CaffeineCache(CACHE_IMAGES_BY_PATH, mediumTtl.build())
         ));
+        cacheManager.initializeCaches();
 
-        return cacheManager;
+        return new BroadcastingCacheManager(cacheManager, invalidationBus);
+    }
+
+    // 다른 서버가 보낸 캐시 무효화 수신
+    @Bean
+    @ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus invalidationBus,
+                                                                            CacheInvalidationProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(properties.getChannel()));
+        return container;
     }
 }
 
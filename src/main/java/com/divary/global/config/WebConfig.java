@@ -1,7 +1,9 @@
 package com.divary.global.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -31,6 +33,17 @@ public class WebConfig implements WebMvcConfigurer {
                 .addPathPatterns("/**")
                 // 인터셉터가 실행되지 않을 경로를 설정하는 필터
                 .excludePathPatterns("/h2-console/**", "/swagger-ui/**", "/v3/api-docs/**");
+
+        // Open EntityManager in View (spring.jpa.open-in-view 대신 직접 등록)
+        // 요청 동안 열린 EntityManager는 첫 트랜잭션의 DB 커넥션을 요청 끝까지 잡고 있으므로,
+        // AI 응답을 트랜잭션 밖에서 기다리는 논블로킹 채팅 API와 SSE 스트림(/stream, /stream/reactive, 재연결)은 제외한다
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns("/api/v1/chatrooms/async", "/api/v1/chatrooms/stream/**");
+    }
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
     }
     
     @Override
@@ -41,7 +54,7 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
-        registry.addMapping("/api/v1/chatrooms/stream")
+        registry.addMapping("/api/v1/chatrooms/stream/**")
                 .allowedOriginPatterns("*") // iOS 앱 개발 환경 고려
                 .allowedMethods("POST", "GET", "OPTIONS")
                 .allowedHeaders("*")
@@ -54,7 +67,8 @@ public class WebConfig implements WebMvcConfigurer {
     public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
         // 비동기 요청 타임아웃 설정 (5분)
         configurer.setDefaultTimeout(300_000L);        
-        Executor executor = Executors.newCachedThreadPool();
+        // Flux/SseEmitter 응답의 이벤트 쓰기는 짧은 작업이라 플랫폼 스레드 풀 대신 가상 스레드로 처리
+        Executor executor = Executors.newVirtualThreadPerTaskExecutor();
         Executor securityContextExecutor = new DelegatingSecurityContextExecutor(executor);
         AsyncTaskExecutor asyncTaskExecutor = new TaskExecutorAdapter(securityContextExecutor);
         configurer.setTaskExecutor(asyncTaskExecutor);
@@ -0,0 +1,26 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("cache.invalidation")
+public class CacheInvalidationProperties {
+
+    // 로컬 캐시 무효화를 Redis pub/sub으로 다른 서버에 전파 (false면 로컬만 무효화)
+    private boolean enabled = true;
+
+    private String channel = "divary:cache:invalidation";
+
+    // 무효화를 모아 한 메시지로 보내는 간격
+    private Duration batchInterval = Duration.ofMillis(50);
+
+    // 메시지 하나에 담는 최대 무효화 수 (넘으면 나눠서 전송)
+    private int maxBatchSize = 200;
+}
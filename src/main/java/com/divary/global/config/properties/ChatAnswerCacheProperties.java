@@ -0,0 +1,39 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("chat.answer-cache")
+public class ChatAnswerCacheProperties {
+
+    private boolean enabled = true;
+
+    // 캐시 유지 기간
+    private Duration ttl = Duration.ofHours(6);
+
+    // 로컬(L1) 최대 항목 수
+    private long maxSize = 5_000;
+
+    // 유사 질문으로 판정하는 최소 Jaccard 유사도 (1.0 이상이면 정규화 결과가 같은 질문만, 기본값)
+    // 한정어만 다른 질문에 다른 답이 나가지 않도록 유사 매칭은 명시적으로 낮출 때만 사용
+    private double similarityThreshold = 1.0;
+
+    // 이보다 긴 질문은 반복될 가능성이 낮아 캐시하지 않음
+    private int maxQuestionLength = 100;
+
+    // 서버 간 공유용 Redis(L2), 정규화 결과가 같은 질문만 조회
+    private boolean redisEnabled = false;
+
+    private String redisKeyPrefix = "chat:answer:";
+
+    public boolean isSimilarMatchEnabled() {
+        return similarityThreshold < 1.0;
+    }
+}
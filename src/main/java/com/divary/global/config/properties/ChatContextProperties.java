@@ -0,0 +1,40 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("chat.context")
+public class ChatContextProperties {
+
+    // 이전 대화(요약 + 최근 메시지)에 쓸 수 있는 입력 토큰 예산 (추정치 기준)
+    private int tokenBudget = 1500;
+
+    // 토큰 예산과 별개로 포함하는 최근 메시지 최대 개수
+    private int maxMessages = 20;
+
+    // 메시지 하나가 차지할 수 있는 최대 토큰 (넘으면 앞부분만 사용)
+    private int maxMessageTokens = 600;
+
+    // 직전 AI 응답 ID(previous_response_id)로 대화를 이어 새 메시지만 전송 (체인이 끊기거나 만료되면 위 예산으로 구성)
+    private boolean responseChainEnabled = true;
+
+    private Summary summary = new Summary();
+
+    // 예산 밖으로 밀려난 오래된 대화의 누적 요약
+    @Getter
+    @Setter
+    public static class Summary {
+        private boolean enabled = true;
+
+        // 요약되지 않은 채 밀려난 메시지가 이 개수 이상일 때 요약 갱신
+        private int minMessages = 4;
+
+        // 요약 응답 최대 출력 토큰
+        private int maxOutputTokens = 300;
+    }
+}
@@ -0,0 +1,27 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("chat.image")
+public class ChatImageProperties {
+
+    // 비전 모델 전송 전 이미지 축소/재압축 (false면 원본 그대로 전송)
+    private boolean enabled = true;
+
+    // 모델이 high detail에서 축소하는 기준과 동일 (긴 변 2048, 짧은 변 768), 이보다 큰 해상도는 토큰에 반영되지 않음
+    private int maxLongEdge = 2048;
+    private int maxShortEdge = 768;
+
+    // 재인코딩 JPEG 품질 (0.0 ~ 1.0)
+    private float jpegQuality = 0.8f;
+
+    // 축소가 필요 없는 이미지는 이 크기 이상일 때만 재압축
+    private DataSize recompressThreshold = DataSize.ofKilobytes(300);
+}
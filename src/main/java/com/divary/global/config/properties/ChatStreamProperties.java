@@ -0,0 +1,95 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("chat.stream")
+public class ChatStreamProperties {
+
+    // 스트림 프로토콜 버전 (stream_start 이벤트로 전달)
+    public static final int PROTOCOL_VERSION = 2;
+
+    // delta 모드에서 체크포인트(누적 길이 + 체크섬)를 보내는 청크 간격
+    private int checkpointInterval = 32;
+
+    // 재연결 시 재전송할 수 있도록 연결별로 보관하는 최근 이벤트 수
+    private int replayBufferSize = 512;
+
+    // 클라이언트 이탈 후 업스트림(OpenAI 스트림)을 취소하기 전 재연결을 기다리는 시간 (0이면 즉시 취소)
+    private Duration resumeGrace = Duration.ofSeconds(5);
+
+    // 스트림 종료 후 재연결(재전송)을 허용하는 기간
+    private Duration resumeRetention = Duration.ofSeconds(60);
+
+    // 클라이언트가 붙어 있지 않은 채 진행 중인 세션을 정리하기까지의 유휴 시간
+    private Duration detachedIdleTimeout = Duration.ofMinutes(5);
+
+    // 첫 토큰 이후 업스트림 오류도 재시도 (재시도 응답에서 이미 보낸 앞부분은 글자 단위로 확인하며 건너뛰고, 다르면 중단)
+    // false면 첫 토큰 전에만 재시도
+    private boolean retryAfterFirstToken = false;
+
+    // 취소로 절약한 출력 토큰 추정 기준: 평소 답변 길이 (추정 토큰, max_output_tokens 이하)
+    private int typicalCompletionTokens = 250;
+
+    private Admission admission = new Admission();
+
+    private Outbound outbound = new Outbound();
+
+    private Coalesce coalesce = new Coalesce();
+
+    // /chatrooms/stream 입장 제어
+    @Getter
+    @Setter
+    public static class Admission {
+        // 서버 전체 동시 스트림 한도
+        private int maxConcurrentStreams = 200;
+
+        // 사용자별 동시 스트림 한도
+        private int maxStreamsPerUser = 2;
+
+        // 전체 한도 초과 시 대기할 수 있는 요청 수
+        private int maxQueueSize = 50;
+
+        // 대기열에서 자리를 기다리는 최대 시간
+        private Duration queueTimeout = Duration.ofSeconds(2);
+
+        // 거절 시 클라이언트에 안내하는 재시도 대기 시간
+        private Duration retryAfter = Duration.ofSeconds(3);
+    }
+
+    // SseEmitter 연결별 전송 큐 (느린 클라이언트가 업스트림 스레드를 막지 않도록 writer 스레드에서 전송)
+    @Getter
+    @Setter
+    public static class Outbound {
+        // 연결별로 쓰기를 기다릴 수 있는 최대 청크 이벤트 수
+        private int queueCapacity = 256;
+
+        // 큐가 가득 찼을 때 처리 방식
+        private OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+    }
+
+    // 업스트림 delta를 묶어 message_chunk 프레임 수 줄이기 (첫 delta는 항상 바로 전송)
+    @Getter
+    @Setter
+    public static class Coalesce {
+        // 첫 delta 이후 delta를 모으는 시간 (0이면 delta마다 전송)
+        private Duration window = Duration.ofMillis(40);
+
+        // 모인 내용이 이 크기(UTF-8 바이트) 이상이면 창이 끝나기 전에 전송
+        private int maxFrameBytes = 256;
+    }
+
+    public enum OverflowPolicy {
+        // 대기 중인 청크를 누적 메시지 스냅샷(message_snapshot) 하나로 합침
+        COALESCE,
+        // 연결을 오류로 끊음 (클라이언트는 Last-Event-ID로 재연결 가능)
+        DROP
+    }
+}
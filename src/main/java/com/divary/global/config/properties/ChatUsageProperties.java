@@ -0,0 +1,27 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("chat.usage")
+public class ChatUsageProperties {
+
+    // 사용자별 일일 사용량 집계 (false면 집계/한도 모두 사용 안 함)
+    private boolean enabled = true;
+
+    // 메모리에 모은 사용량을 DB에 반영하는 주기
+    private long flushIntervalMs = 30_000;
+
+    // 사용자별 하루 토큰 한도 (입력 + 출력, 0이면 제한 없음), 스트림 입장 시 확인
+    private long dailyTokenQuota = 0;
+
+    // 일일 사용량의 날짜 기준 시간대 (한도 초기화 시각 = 이 시간대의 자정)
+    private ZoneId zone = ZoneId.of("Asia/Seoul");
+}
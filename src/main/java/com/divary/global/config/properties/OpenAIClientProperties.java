@@ -0,0 +1,120 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("openai.client")
+public class OpenAIClientProperties {
+
+    // 커넥션 풀 최대 연결 수 (HTTP/2면 연결당 여러 요청을 다중화)
+    private int maxConnections = 100;
+
+    // 풀이 가득 찼을 때 연결을 기다릴 수 있는 요청 수와 대기 시간
+    private int pendingAcquireMaxCount = 500;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    // 유휴 연결 정리 기준 (OpenAI 쪽 유휴 종료보다 짧게), 연결 최대 수명
+    private Duration maxIdleTime = Duration.ofSeconds(50);
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(3);
+
+    // 응답 데이터 사이 최대 대기 시간 (스트림은 청크 간격 기준)
+    private Duration responseTimeout = Duration.ofSeconds(60);
+
+    // https 엔드포인트에서 HTTP/2 사용 (ALPN으로 협상, 불가하면 HTTP/1.1)
+    private boolean http2Enabled = true;
+
+    // 기동 시 미리 열어 둘 연결 수 (DNS/TLS 비용을 첫 요청 전에 지불)
+    private int warmupConnections = 2;
+
+    // 이 시간 동안 요청이 없으면 가벼운 요청으로 연결 유지 (0이면 사용 안 함)
+    private Duration keepWarmInterval = Duration.ofSeconds(40);
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Retry retry = new Retry();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Stub stub = new Stub();
+
+    // 최근 호출의 실패율이 임계치를 넘으면 일정 시간 호출을 즉시 실패시킴
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        // 실패율을 계산하는 최근 호출 수와 판단에 필요한 최소 호출 수
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+
+        // 열림 기준 실패율 (%)
+        private int failureRateThreshold = 50;
+
+        // 열린 뒤 시험 호출을 허용하기까지의 시간
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    // 일시적 오류(5xx, 429, 연결/타임아웃) 재시도
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 2;
+        private Duration backoff = Duration.ofMillis(300);
+
+        // 재시도 예산: 성공한 요청마다 ratio만큼 적립하고 재시도마다 1씩 사용 (장애 시 재시도가 부하를 키우지 않도록)
+        private double budgetRatio = 0.1;
+        private int budgetMax = 20;
+    }
+
+    // 조직 분당 토큰 한도를 나눠 쓰는 호출 스케줄러 (제목/요약보다 채팅 응답 우선)
+    @Getter
+    @Setter
+    public static class RateLimit {
+        // 분당 토큰 예산 (조직 TPM 한도 이하, 0이면 사용 안 함)
+        private int tokensPerMinute = 200_000;
+
+        // 백그라운드 호출(제목/요약)이 건드리지 않고 남겨 두는 예산 비율
+        private double backgroundReserveRatio = 0.2;
+
+        // 예산을 기다릴 수 있는 호출 수 (넘치면 백그라운드 호출부터 거절)
+        private int maxQueueSize = 200;
+
+        // 우선순위별 최대 대기 시간
+        private Duration interactiveQueueTimeout = Duration.ofSeconds(10);
+        private Duration backgroundQueueTimeout = Duration.ofSeconds(30);
+
+        // 추정 보정값: 이미지 1장, previous_response_id로 이어지는 서버 보관 대화
+        private int imageTokens = 800;
+        private int chainedContextTokens = 1_500;
+    }
+
+    // OpenAI 대신 응답하는 로컬 스텁 (오프라인 라우팅/지연/장애 전환 측정용, 입력이 같으면 같은 응답)
+    @Getter
+    @Setter
+    public static class Stub {
+        private boolean enabled = false;
+
+        // 첫 이벤트(단건은 응답 전체)까지의 지연, 스트림 delta 간격, 응답 delta 수
+        private Duration firstEventLatency = Duration.ofMillis(300);
+        private Duration chunkInterval = Duration.ofMillis(15);
+        private int outputChunks = 40;
+
+        // 모델별 추가 지연
+        private Map<String, Duration> modelLatency = new HashMap<>();
+
+        // 응답하지 않는 모델 (타임아웃 후 보조 모델 전환 확인용)
+        private List<String> stalledModels = new ArrayList<>();
+    }
+}
@@ -0,0 +1,33 @@
+package com.divary.global.config.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("openai.pricing")
+public class OpenAIPricingProperties {
+
+    // 모델별 1K 토큰당 가격 (USD), 응답의 모델명(gpt-4.1-mini-2025-04-14 등)은 가장 긴 접두사가 같은 항목을 사용
+    private Map<String, Price> models = new HashMap<>();
+
+    // 표에 없는 모델의 가격
+    private Price defaultPrice = new Price(0.0006, 0.0024);
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Price {
+        private double inputPer1k;
+        private double outputPer1k;
+    }
+}
@@ -0,0 +1,31 @@
+package com.divary.global.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties("openai.routing")
+public class OpenAIRoutingProperties {
+
+    // 요청 종류별 모델 (비우면 openai.api.model)
+    // light: 제목/요약, standard: 일반 채팅, heavy: 이미지가 있거나 입력이 긴 채팅
+    private String lightModel = "";
+    private String standardModel = "";
+    private String heavyModel = "";
+
+    // 이 추정 토큰 이상인 채팅 입력은 heavy 모델로 보냄
+    private int longInputTokens = 2000;
+
+    // 타임아웃 시 한 번 더 보내 볼 보조 모델 (비우면 사용 안 함, 같은 파라미터를 받는 모델이어야 함)
+    private String fallbackModel = "";
+
+    // 보조 모델로 넘기는 기준: 단건 응답 전체 시간, 스트림 첫 이벤트까지의 시간
+    private Duration responseTimeout = Duration.ofSeconds(30);
+    private Duration streamFirstEventTimeout = Duration.ofSeconds(10);
+}
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -18,6 +19,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 
 @Configuration
 @EnableWebSecurity
@@ -26,6 +28,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final ObjectMapper objectMapper;
+    private final Environment environment;
 
     @PostConstruct
     public void init() {
@@ -45,8 +48,11 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/api/v1/v3/api-docs/**",
                                 "/api/v1/auth/**",
+                                "/actuator/health",
                                 "/api/v1/system/**" //TODO prod에서 안쓰게 막기
                         ).permitAll()
+                        // Prometheus 수집은 외부에 열지 않는 관리 포트로 들어온 요청만 허용
+                        .requestMatchers(this::isManagementPortRequest).permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exceptions -> exceptions
@@ -57,6 +63,12 @@ public class SecurityConfig {
                 .build();
     }
 
+    // 관리 서버가 별도 포트로 떠 있을 때만 local.management.port가 설정됨 (같은 포트면 액추에이터도 인증 필요)
+    private boolean isManagementPortRequest(HttpServletRequest request) {
+        Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+        return managementPort != null && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public AuthenticationEntryPoint customAuthenticationEntryPoint() {
         return (request, response, authException) -> {
@@ -58,6 +58,9 @@ public enum ErrorCode {
     CHAT_ROOM_NOT_FOUND(HttpStatus.NOT_FOUND, "CHAT_ROOM_001", "채팅방을 찾을 수 없습니다."),
     CHAT_ROOM_ACCESS_DENIED(HttpStatus.FORBIDDEN, "CHAT_ROOM_002", "채팅방에 접근 권한이 없습니다."),
     CHAT_ROOM_MESSAGE_TOO_LONG(HttpStatus.BAD_REQUEST, "CHAT_ROOM_003", "메시지가 너무 깁니다."),
+    CHAT_STREAM_NOT_FOUND(HttpStatus.NOT_FOUND, "CHAT_ROOM_004", "재연결할 스트림을 찾을 수 없습니다."),
+    CHAT_STREAM_BUSY(HttpStatus.TOO_MANY_REQUESTS, "CHAT_ROOM_005", "요청이 많아 답변을 시작할 수 없습니다. 잠시 후 다시 시도해주세요."),
+    CHAT_USAGE_QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "CHAT_ROOM_006", "오늘 사용할 수 있는 AI 답변 한도를 모두 사용했습니다."),
     
     // OpenAI API 관련 에러코드
     OPENAI_API_ERROR(HttpStatus.BAD_GATEWAY, "OPENAI_001", "AI 서비스에 일시적인 문제가 발생했습니다."),
@@ -0,0 +1,142 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.ChatStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 스트리밍 채팅 입장 제어 (전체 한도, 사용자별 한도, 대기열, 일일 토큰 한도)
+ * 전체 한도 1, 대기열 1로 두고 자리를 점유/반납하며 입장 결과와 내부 상태를 확인한다.
+ */
+class ChatStreamAdmissionServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChatUsageMeter usageMeter = mock(ChatUsageMeter.class);
+    private final ChatStreamProperties properties = new ChatStreamProperties();
+
+    @BeforeEach
+    void setUp() {
+        ChatStreamProperties.Admission admission = properties.getAdmission();
+        admission.setMaxConcurrentStreams(1);
+        admission.setMaxStreamsPerUser(2);
+        admission.setMaxQueueSize(1);
+        admission.setQueueTimeout(Duration.ofMillis(200));
+        admission.setRetryAfter(Duration.ofSeconds(3));
+    }
+
+    @Test
+    @DisplayName("전체 한도가 차면 대기열에서 기다리다 시간이 지나면 queue_timeout으로 거절한다")
+    void globalLimitTimesOut() {
+        ChatStreamAdmissionService service = service();
+        ChatStreamAdmissionService.Admission first = service.tryAdmit(1L);
+        assertTrue(first.isAdmitted());
+
+        ChatStreamAdmissionService.Admission second = service.tryAdmit(2L);
+        assertFalse(second.isAdmitted());
+        assertEquals(ChatStreamAdmissionService.REJECT_QUEUE_TIMEOUT, second.rejectReason());
+        assertEquals(3_000, second.retryAfterMs());
+        assertEquals(1, service.trackedUserCount());
+
+        first.permit().release();
+        assertTrue(service.tryAdmit(2L).isAdmitted());
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 기다리지 않고 queue_full로 거절하고, 자리가 나면 대기 중인 요청이 들어간다")
+    void boundedQueue() throws Exception {
+        properties.getAdmission().setQueueTimeout(Duration.ofSeconds(5));
+        ChatStreamAdmissionService service = service();
+        ChatStreamAdmissionService.Admission first = service.tryAdmit(1L);
+
+        CompletableFuture<ChatStreamAdmissionService.Admission> waiting = CompletableFuture.supplyAsync(() -> service.tryAdmit(2L));
+        awaitQueued(1);
+
+        ChatStreamAdmissionService.Admission overflow = service.tryAdmit(3L);
+        assertEquals(ChatStreamAdmissionService.REJECT_QUEUE_FULL, overflow.rejectReason());
+
+        first.permit().release();
+        assertTrue(waiting.get(5, TimeUnit.SECONDS).isAdmitted());
+        assertEquals(0, registry.get("divary.chat.stream.admission.queued").gauge().value());
+        assertEquals(1, registry.get("divary.chat.stream.admission.inflight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("사용자별 한도를 넘으면 user_limit으로 거절하고, 스트림이 끝나면 다시 들어갈 수 있다")
+    void perUserLimit() {
+        properties.getAdmission().setMaxConcurrentStreams(10);
+        ChatStreamAdmissionService service = service();
+        ChatStreamAdmissionService.Admission first = service.tryAdmit(1L);
+        ChatStreamAdmissionService.Admission second = service.tryAdmit(1L);
+        assertTrue(first.isAdmitted() && second.isAdmitted());
+
+        assertEquals(ChatStreamAdmissionService.REJECT_USER_LIMIT, service.tryAdmit(1L).rejectReason());
+        assertTrue(service.tryAdmit(2L).isAdmitted());
+
+        first.permit().release();
+        assertTrue(service.tryAdmit(1L).isAdmitted());
+        assertEquals(1, registry.get("divary.chat.stream.admission.rejected")
+                .tag("reason", ChatStreamAdmissionService.REJECT_USER_LIMIT).counter().count());
+    }
+
+    @Test
+    @DisplayName("일일 토큰 한도를 다 쓴 사용자는 자리를 잡지 않고 한도 초기화까지 남은 시간으로 거절한다")
+    void quotaExceeded() {
+        when(usageMeter.isQuotaExceeded(1L)).thenReturn(true);
+        when(usageMeter.untilQuotaReset()).thenReturn(Duration.ofMinutes(30));
+        ChatStreamAdmissionService service = service();
+
+        ChatStreamAdmissionService.Admission rejected = service.tryAdmit(1L);
+        assertEquals(ChatStreamAdmissionService.REJECT_QUOTA_EXCEEDED, rejected.rejectReason());
+        assertEquals(Duration.ofMinutes(30).toMillis(), rejected.retryAfterMs());
+        assertEquals(0, service.trackedUserCount());
+        assertTrue(service.tryAdmit(2L).isAdmitted());
+    }
+
+    @Test
+    @DisplayName("스트림이 끝나거나 거절되면 사용자별 항목을 지워 맵이 사용자 수만큼 늘어나지 않는다")
+    void perUserEntriesRemovedOnRelease() {
+        properties.getAdmission().setMaxConcurrentStreams(100);
+        ChatStreamAdmissionService service = service();
+        for (long userId = 1; userId <= 50; userId++) {
+            ChatStreamAdmissionService.Admission admission = service.tryAdmit(userId);
+            admission.permit().release();
+            // 두 번 반납해도 다른 스트림의 자리를 돌려주지 않음
+            admission.permit().release();
+        }
+        assertEquals(0, service.trackedUserCount());
+        assertEquals(0, registry.get("divary.chat.stream.admission.inflight").gauge().value());
+
+        // 대기열 초과/대기 시간 초과로 거절된 요청도 잡았던 사용자 자리를 돌려준다
+        properties.getAdmission().setMaxConcurrentStreams(1);
+        ChatStreamAdmissionService limited = new ChatStreamAdmissionService(properties, new SimpleMeterRegistry(), usageMeter);
+        ChatStreamAdmissionService.Admission holder = limited.tryAdmit(1L);
+        for (long userId = 2; userId <= 5; userId++) {
+            assertFalse(limited.tryAdmit(userId).isAdmitted());
+        }
+        assertEquals(1, limited.trackedUserCount());
+        holder.permit().release();
+        assertEquals(0, limited.trackedUserCount());
+    }
+
+    private ChatStreamAdmissionService service() {
+        return new ChatStreamAdmissionService(properties, registry, usageMeter);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("divary.chat.stream.admission.queued").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "대기열 진입 대기 시간 초과");
+            Thread.sleep(10);
+        }
+    }
+}
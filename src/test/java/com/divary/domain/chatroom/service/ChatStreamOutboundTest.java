@@ -0,0 +1,155 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.service.ChatStreamSessionTest.RecordingSink;
+import com.divary.global.config.properties.ChatStreamProperties.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 연결별 전송 큐 (느린 클라이언트)
+ * writer 실행기를 직접 돌려 클라이언트가 받지 못하는 동안 큐가 queueCapacity를 넘지 않는지 확인한다.
+ */
+class ChatStreamOutboundTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Runnable> writes = new ArrayList<>();
+
+    @Test
+    @DisplayName("COALESCE: 수신이 밀리면 대기 청크를 스냅샷 하나로 합쳐 큐가 용량을 넘지 않는다")
+    void coalesceKeepsQueueBounded() throws Exception {
+        RecordingSink client = new RecordingSink();
+        ChatStreamOutbound outbound = outbound(client, OverflowPolicy.COALESCE);
+        outbound.coalesceWith(() -> Map.of("accumulated", "12345"));
+
+        for (int i = 1; i <= 5; i++) {
+            outbound.send(i, ChatStreamOutbound.CHUNK_EVENT, String.valueOf(i));
+        }
+        outbound.complete();
+        drain();
+
+        // 3번째에서 1, 2가 스냅샷으로 합쳐지고, 5번째에서 그 스냅샷과 4가 다시 합쳐진다
+        assertEquals(List.of("message_snapshot"), client.names());
+        assertEquals(List.of(5L), client.ids());
+        assertTrue(client.completed);
+        assertEquals(0, registry.get("divary.chat.stream.outbound.queued").gauge().value());
+        assertEquals(2, registry.get("divary.chat.stream.outbound.overflow").counter().count());
+    }
+
+    @Test
+    @DisplayName("DROP: 수신이 밀려 용량을 넘으면 대기 이벤트를 버리고 연결을 오류로 끊는다")
+    void dropClosesSlowConsumer() throws Exception {
+        RecordingSink client = new RecordingSink();
+        ChatStreamOutbound outbound = outbound(client, OverflowPolicy.DROP);
+
+        outbound.send(1, ChatStreamOutbound.CHUNK_EVENT, "1");
+        outbound.send(2, ChatStreamOutbound.CHUNK_EVENT, "2");
+        assertThrows(ChatStreamOutbound.SlowConsumerException.class,
+                () -> outbound.send(3, ChatStreamOutbound.CHUNK_EVENT, "3"));
+        assertThrows(ChatStreamOutbound.SlowConsumerException.class,
+                () -> outbound.send(4, ChatStreamOutbound.CHUNK_EVENT, "4"));
+        drain();
+
+        assertTrue(client.events.isEmpty());
+        assertTrue(client.completed);
+        assertEquals(0, registry.get("divary.chat.stream.outbound.queued").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Flux sink는 구독자가 요청한 만큼만 보내고, 요청이 없으면 writer가 기다린다")
+    void reactiveSinkWaitsForDemand() throws Exception {
+        ChatStreamSink.ReactiveSink sink = ChatStreamSink.reactive();
+        DemandSubscriber subscriber = new DemandSubscriber();
+        sink.asFlux().subscribe(subscriber);
+
+        sink.send(1, ChatStreamOutbound.CHUNK_EVENT, "1");
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                sink.send(2, ChatStreamOutbound.CHUNK_EVENT, "2");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+        assertEquals(List.of("1"), subscriber.ids());
+
+        subscriber.request(1);
+        blocked.get(5, TimeUnit.SECONDS);
+        sink.complete();
+
+        assertEquals(List.of("1", "2"), subscriber.ids());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("Flux 구독이 취소되면 기다리던 전송이 실패해 세션이 sink를 분리한다")
+    void reactiveSinkFailsAfterCancel() throws Exception {
+        ChatStreamSink.ReactiveSink sink = ChatStreamSink.reactive();
+        DemandSubscriber subscriber = new DemandSubscriber();
+        sink.asFlux().subscribe(subscriber);
+        sink.send(1, ChatStreamOutbound.CHUNK_EVENT, "1");
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                sink.send(2, ChatStreamOutbound.CHUNK_EVENT, "2");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        subscriber.cancel();
+
+        Exception error = assertThrows(Exception.class, () -> blocked.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(List.of("1"), subscriber.ids());
+    }
+
+    private ChatStreamOutbound outbound(ChatStreamSink client, OverflowPolicy policy) {
+        return new ChatStreamOutbound(client, 2, policy, writes::add, new ChatStreamMetrics(registry));
+    }
+
+    // 밀려 있던 writer 작업 실행 (클라이언트가 다시 받기 시작)
+    private void drain() {
+        while (!writes.isEmpty()) {
+            writes.remove(0).run();
+        }
+    }
+
+    // 처음에 하나만 요청하고 이후 요청은 테스트가 직접 보낸다
+    private static final class DemandSubscriber extends BaseSubscriber<ServerSentEvent<Object>> {
+
+        final List<ServerSentEvent<Object>> received = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(1);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<Object> event) {
+            received.add(event);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+
+        List<String> ids() {
+            return received.stream().map(ServerSentEvent::id).toList();
+        }
+    }
+}
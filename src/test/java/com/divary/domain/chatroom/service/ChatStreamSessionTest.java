@@ -0,0 +1,270 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.enums.StreamMode;
+import com.divary.global.config.properties.ChatContextProperties;
+import com.divary.global.config.properties.ChatStreamProperties;
+import com.divary.global.config.properties.ChatStreamProperties.OverflowPolicy;
+import com.divary.global.exception.BusinessException;
+import com.divary.global.exception.ErrorCode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * SSE 스트림 세션 (스냅샷, Last-Event-ID 재연결 재전송, 재시도 중복 건너뛰기, 체크포인트)
+ * 클라이언트는 message_snapshot의 accumulated로 교체하고 message_chunk의 content를 이어 붙인다고 보고 결과 문자열을 비교한다.
+ */
+class ChatStreamSessionTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("코얼레싱 대기 중인 내용은 스냅샷에 넣지 않고 다음 청크로만 보낸다")
+    void snapshotExcludesPendingFrame() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        ChatStreamSession session = new ChatStreamSession("conn_1_1", 1L, sink, StreamMode.DELTA, 16);
+        session.bufferDelta("안전정지는 ");
+        session.flushFrame(0);
+        session.bufferDelta("5m에서 3분");
+
+        Map<?, ?> message = (Map<?, ?>) session.snapshotEvent().get("message");
+        assertEquals("안전정지는 ", message.get("accumulated"));
+        assertEquals("안전정지는 ".length(), message.get("characterCount"));
+        assertEquals(crc32("안전정지는 "), message.get("checksum"));
+
+        session.flushFrame(0);
+        assertEquals("안전정지는 5m에서 3분", message.get("accumulated") + chunkContent(sink.events.get(sink.events.size() - 1)));
+        assertEquals(crc32("안전정지는 5m에서 3분"), session.checksumHex());
+    }
+
+    @Test
+    @DisplayName("전송 큐가 넘쳐 스냅샷으로 합쳐져도 클라이언트가 받는 메시지에 중복이 없다")
+    void coalescedSnapshotDoesNotRepeatText() throws IOException {
+        RecordingSink client = new RecordingSink();
+        List<Runnable> writes = new ArrayList<>();
+        ChatStreamOutbound outbound = new ChatStreamOutbound(client, 1, OverflowPolicy.COALESCE, writes::add,
+                new ChatStreamMetrics(new SimpleMeterRegistry()));
+        ChatStreamSession session = new ChatStreamSession("conn_1_2", 1L, outbound, StreamMode.DELTA, 16);
+
+        // writer가 쓰기 전에 청크가 쌓여 두 번째 청크에서 넘침
+        session.bufferDelta("버디와 ");
+        session.flushFrame(0);
+        session.bufferDelta("수신호를 ");
+        session.flushFrame(0);
+        session.bufferDelta("확인하세요.");
+        writes.forEach(Runnable::run);
+        writes.clear();
+
+        session.flushFrame(0);
+        writes.forEach(Runnable::run);
+
+        assertEquals(List.of("message_snapshot", "message_chunk"), client.names());
+        assertEquals("버디와 수신호를 확인하세요.", replay(client.events));
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID 이후 이벤트가 버퍼에 남아 있으면 그대로 재전송하고 새 sink로 이어서 보낸다")
+    void resumeReplaysBufferedEvents() throws Exception {
+        RecordingSink first = new RecordingSink();
+        ChatStreamSession session = new ChatStreamSession("conn_1_3", 1L, first, StreamMode.DELTA, 16);
+        for (String delta : List.of("중성부력을 ", "맞추면 ", "공기 ")) {
+            session.bufferDelta(delta);
+            session.flushFrame(0);
+        }
+        session.detach(first);
+
+        RecordingSink resumed = new RecordingSink();
+        session.attach(resumed, 1);
+        session.bufferDelta("소모가 줄어듭니다.");
+        session.flushFrame(0);
+
+        assertTrue(session.isAttached());
+        assertEquals(List.of(2L, 3L, 4L), resumed.ids());
+        assertEquals(List.of("message_chunk", "message_chunk", "message_chunk"), resumed.names());
+        assertEquals(session.accumulatedMessage(), "중성부력을 " + replay(resumed.events));
+    }
+
+    @Test
+    @DisplayName("밀려난 이벤트가 있으면 보낸 내용까지의 스냅샷을 보내고, 대기 중이던 내용은 다음 청크로 한 번만 이어진다")
+    void resumeAfterGapSendsDeliveredSnapshot() throws Exception {
+        RecordingSink first = new RecordingSink();
+        ChatStreamSession session = new ChatStreamSession("conn_1_4", 1L, first, StreamMode.DELTA, 2);
+        for (String delta : List.of("수심 ", "18m ", "이내에서 ", "안전정지를 ")) {
+            session.bufferDelta(delta);
+            session.flushFrame(0);
+        }
+        session.bufferDelta("3분간 유지합니다.");
+        session.detach(first);
+
+        RecordingSink resumed = new RecordingSink();
+        session.attach(resumed, 1);
+        session.flushFrame(0);
+
+        assertEquals(List.of("message_snapshot", "message_chunk"), resumed.names());
+        assertEquals(List.of(4L, 5L), resumed.ids());
+        Map<?, ?> message = (Map<?, ?>) ((Map<?, ?>) resumed.events.get(0).data()).get("message");
+        assertEquals(crc32("수심 18m 이내에서 안전정지를 "), message.get("checksum"));
+        assertEquals(session.accumulatedMessage(), replay(resumed.events));
+    }
+
+    @Test
+    @DisplayName("재시도 응답이 이미 보낸 내용과 완전히 겹치면 건너뛰고 그 뒤부터 보낸다")
+    void skipDeliveredFullOverlap() {
+        ChatStreamSession session = deliveredSession("안전정지는 5m에서");
+        session.beginAttempt();
+
+        assertEquals("", session.skipDelivered("안전정지는 "));
+        assertEquals("", session.skipDelivered("5m에서"));
+        assertEquals(" 3분", session.skipDelivered(" 3분"));
+    }
+
+    @Test
+    @DisplayName("delta가 보낸 내용의 끝에 걸쳐 있으면 겹치지 않는 뒷부분만 반환한다")
+    void skipDeliveredPartialOverlap() {
+        ChatStreamSession session = deliveredSession("안전정지는 5m");
+        session.beginAttempt();
+
+        assertEquals("", session.skipDelivered("안전정지"));
+        assertEquals("에서 3분", session.skipDelivered("는 5m에서 3분"));
+        assertEquals("간", session.skipDelivered("간"));
+    }
+
+    @Test
+    @DisplayName("재시도 응답의 앞부분이 보낸 내용과 다르면 이어 붙이지 않고 StreamPrefixDivergedException")
+    void skipDeliveredDivergedPrefix() {
+        ChatStreamSession session = deliveredSession("수심 18m");
+        session.beginAttempt();
+
+        assertEquals("", session.skipDelivered("수심 "));
+        StreamPrefixDivergedException error = assertThrows(StreamPrefixDivergedException.class,
+                () -> session.skipDelivered("20m"));
+        assertTrue(error.getMessage().contains("위치: 3"));
+        assertEquals("수심 18m", session.accumulatedMessage());
+    }
+
+    @Test
+    @DisplayName("글자 없이 끝난 재시도는 보낸 내용에 영향이 없고 다음 시도는 다시 처음부터 비교한다")
+    void skipDeliveredEmptyRetry() {
+        ChatStreamSession session = deliveredSession("수심 18m");
+        session.beginAttempt();
+        assertEquals("", session.skipDelivered(""));
+        assertEquals("수심 18m", session.accumulatedMessage());
+
+        session.beginAttempt();
+        assertEquals(" 이내", session.skipDelivered("수심 18m 이내"));
+    }
+
+    @Test
+    @DisplayName("checkpointInterval 프레임마다 그때까지 누적 글자 수와 CRC32 체크포인트를 넣는다")
+    void checkpointEveryInterval() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        ChatStreamSession session = new ChatStreamSession("conn_1_5", 1L, sink, StreamMode.DELTA, 16);
+        StringBuilder accumulated = new StringBuilder();
+        for (String delta : List.of("버디 ", "체크 ", "후 ", "입수")) {
+            session.bufferDelta(delta);
+            session.flushFrame(2);
+            accumulated.append(delta);
+
+            JsonNode checkpoint = objectMapper.readTree((byte[]) sink.events.get(sink.events.size() - 1).data())
+                    .path("checkpoint");
+            if (sink.events.size() % 2 == 0) {
+                assertEquals(accumulated.length(), checkpoint.path("characterCount").asInt());
+                assertEquals(crc32(accumulated.toString()), checkpoint.path("checksum").asText());
+            } else {
+                assertTrue(checkpoint.isMissingNode());
+            }
+        }
+        assertEquals(crc32("버디 체크 후 입수"), session.checksumHex());
+    }
+
+    // 주어진 내용을 이미 클라이언트에 보낸 세션
+    private static ChatStreamSession deliveredSession(String delivered) {
+        ChatStreamSession session = new ChatStreamSession("conn_1_6", 1L, new RecordingSink(), StreamMode.DELTA, 16);
+        session.bufferDelta(delivered);
+        session.flushFrame(0);
+        return session;
+    }
+
+    @Test
+    @DisplayName("없는 연결 ID로 재연결하면 CHAT_STREAM_NOT_FOUND로 거절한다")
+    void resumeUnknownConnection() {
+        ChatRoomStreamService service = new ChatRoomStreamService(mock(ChatStreamPersistenceService.class),
+                mock(ChatContextBuilder.class), new ChatContextProperties(), mock(OpenAIStreamService.class),
+                mock(OpenAIClient.class), mock(ChatRoomTitleService.class), new ChatStreamProperties(),
+                new ChatStreamMetrics(new SimpleMeterRegistry()), mock(ChatAnswerCache.class),
+                mock(ChatImageUploadService.class), mock(ChatUsageMeter.class));
+
+        BusinessException error = assertThrows(BusinessException.class, () -> service.findSession("conn_1_999", 1L));
+        assertEquals(ErrorCode.CHAT_STREAM_NOT_FOUND, error.getErrorCode());
+        assertNotNull(service.resumeStream("conn_1_999", 1L, 3));
+    }
+
+    // 클라이언트 동작: 스냅샷이면 교체, 청크면 이어 붙임
+    static String replay(List<RecordedEvent> events) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (RecordedEvent event : events) {
+            if ("message_snapshot".equals(event.name())) {
+                text.setLength(0);
+                text.append(((Map<?, ?>) ((Map<?, ?>) event.data()).get("message")).get("accumulated"));
+            } else if ("message_chunk".equals(event.name())) {
+                text.append(chunkContent(event));
+            }
+        }
+        return text.toString();
+    }
+
+    static String chunkContent(RecordedEvent event) throws IOException {
+        JsonNode chunk = objectMapper.readTree((byte[]) event.data());
+        return chunk.path("chunk").path("content").asText();
+    }
+
+    static String crc32(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+    record RecordedEvent(long id, String name, Object data) {
+    }
+
+    static final class RecordingSink implements ChatStreamSink {
+
+        final List<RecordedEvent> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(long eventId, String eventName, Object data) {
+            events.add(new RecordedEvent(eventId, eventName, data));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            completed = true;
+        }
+
+        List<String> names() {
+            return events.stream().map(RecordedEvent::name).toList();
+        }
+
+        List<Long> ids() {
+            return events.stream().map(RecordedEvent::id).toList();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.service.OpenAIRequestScheduler.Priority;
+import com.divary.global.config.properties.OpenAIClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 분당 토큰 버킷 스케줄러 (우선순위별 지급 순서, 백그라운드 예비분, 큐 초과/대기 시간 거절)
+ * 분당 600 토큰(초당 10)으로 두어 테스트 중 리필은 대기 순서 확인에만 쓰인다.
+ */
+class OpenAIRequestSchedulerTest {
+
+    private static final int TOKENS_PER_MINUTE = 600;
+
+    private OpenAIClientProperties.RateLimit properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenAIClientProperties.RateLimit();
+        properties.setTokensPerMinute(TOKENS_PER_MINUTE);
+        properties.setBackgroundReserveRatio(0.5);
+        properties.setMaxQueueSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("버킷이 부족하면 나중에 온 INTERACTIVE가 먼저 대기하던 BACKGROUND보다 먼저 지급된다")
+    void grantsInteractiveBeforeBackground() throws Exception {
+        properties.setBackgroundReserveRatio(0);
+        OpenAIRequestScheduler scheduler = scheduler();
+        assertGranted(scheduler.acquire(Priority.INTERACTIVE, TOKENS_PER_MINUTE).toFuture());
+
+        CompletableFuture<Void> background = scheduler.acquire(Priority.BACKGROUND, 3).toFuture();
+        CompletableFuture<Void> interactive = scheduler.acquire(Priority.INTERACTIVE, 3).toFuture();
+        assertFalse(background.isDone());
+        assertFalse(interactive.isDone());
+
+        interactive.get(2, TimeUnit.SECONDS);
+        assertFalse(background.isDone(), "INTERACTIVE 지급 시점에 BACKGROUND는 아직 대기 중이어야 함");
+        background.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("BACKGROUND는 예비분을 남겨 두고만 쓰고, INTERACTIVE는 예비분까지 쓴다")
+    void keepsReserveForInteractive() throws Exception {
+        OpenAIRequestScheduler scheduler = scheduler();
+        assertGranted(scheduler.acquire(Priority.INTERACTIVE, 200).toFuture());
+
+        // 남은 400 중 예비분 300을 빼면 100만 쓸 수 있다
+        CompletableFuture<Void> background = scheduler.acquire(Priority.BACKGROUND, 150).toFuture();
+        assertFalse(background.isDone());
+        assertGranted(scheduler.acquire(Priority.INTERACTIVE, 350).toFuture());
+        background.cancel(true);
+    }
+
+    @Test
+    @DisplayName("버킷보다 큰 BACKGROUND 요청은 예비분을 뺀 크기로 잘라 지급한다")
+    void capsLargeBackgroundRequestBelowReserve() throws Exception {
+        OpenAIRequestScheduler scheduler = scheduler();
+
+        assertGranted(scheduler.acquire(Priority.BACKGROUND, 10 * TOKENS_PER_MINUTE).toFuture());
+        assertEquals(TOKENS_PER_MINUTE / 2.0, meterRegistry.get("divary.openai.scheduler.tokens").gauge().value(), 5);
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 INTERACTIVE가 BACKGROUND를 밀어내고, 밀어낼 대상이 없으면 거절한다")
+    void shedsWhenQueueIsFull() throws Exception {
+        properties.setMaxQueueSize(1);
+        OpenAIRequestScheduler scheduler = scheduler();
+        assertGranted(scheduler.acquire(Priority.INTERACTIVE, TOKENS_PER_MINUTE).toFuture());
+
+        CompletableFuture<Void> background = scheduler.acquire(Priority.BACKGROUND, 100).toFuture();
+        CompletableFuture<Void> interactive = scheduler.acquire(Priority.INTERACTIVE, 100).toFuture();
+        assertShed(background);
+        assertFalse(interactive.isDone());
+
+        assertShed(scheduler.acquire(Priority.INTERACTIVE, 100).toFuture());
+        assertEquals(1, shedCount("background", "preempted"));
+        assertEquals(1, shedCount("interactive", "queue_full"));
+        interactive.cancel(true);
+    }
+
+    @Test
+    @DisplayName("대기 시간이 지나면 timeout으로 거절하고 큐에서 뺀다")
+    void shedsAfterQueueTimeout() throws Exception {
+        properties.setInteractiveQueueTimeout(Duration.ofMillis(50));
+        OpenAIRequestScheduler scheduler = scheduler();
+        assertGranted(scheduler.acquire(Priority.INTERACTIVE, TOKENS_PER_MINUTE).toFuture());
+
+        assertShed(scheduler.acquire(Priority.INTERACTIVE, 300).toFuture());
+        assertEquals(1, shedCount("interactive", "timeout"));
+        assertEquals(0, meterRegistry.get("divary.openai.scheduler.queued").tag("priority", "interactive").gauge().value());
+    }
+
+    private OpenAIRequestScheduler scheduler() {
+        return new OpenAIRequestScheduler(properties, meterRegistry);
+    }
+
+    private double shedCount(String priority, String reason) {
+        return meterRegistry.get("divary.openai.scheduler.shed").tag("priority", priority).tag("reason", reason).counter().count();
+    }
+
+    private static void assertGranted(CompletableFuture<Void> acquired) throws Exception {
+        assertTrue(acquired.isDone(), "버킷에 여유가 있으면 바로 지급되어야 함");
+        acquired.get();
+    }
+
+    private static void assertShed(CompletableFuture<Void> acquired) {
+        ExecutionException error = assertThrows(ExecutionException.class, () -> acquired.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(OpenAIRequestShedException.class, error.getCause());
+    }
+}
@@ -0,0 +1,200 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.dto.response.OpenAIResponse;
+import com.divary.domain.chatroom.prompt.SystemPromptProvider;
+import com.divary.global.config.properties.ChatImageProperties;
+import com.divary.global.config.properties.OpenAIClientProperties;
+import com.divary.global.config.properties.OpenAIPricingProperties;
+import com.divary.global.config.properties.OpenAIRoutingProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * previous_response_id 체인 요청과 체인 만료 시 전체 히스토리 재요청을 로컬 스텁 서버로 검증
+ */
+class OpenAIResponseChainTest {
+
+    private static final String EXPIRED_BODY = """
+            {"error":{"message":"Previous response with id 'resp_old' not found.","type":"invalid_request_error","param":"previous_response_id","code":"previous_response_not_found"}}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private final Queue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+
+    private HttpServer server;
+    private OpenAIService openAIService;
+    private OpenAIStreamService openAIStreamService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/responses", exchange -> {
+            requests.add(objectMapper.readTree(exchange.getRequestBody()));
+            StubResponse stub = responses.poll();
+            byte[] body = stub.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", stub.contentType());
+            exchange.sendResponseHeaders(stub.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        SystemPromptProvider promptProvider = mock(SystemPromptProvider.class);
+        when(promptProvider.getMarineDivingPrompt()).thenReturn("system prompt");
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        OpenAIClient openAIClient = new OpenAIClient("test-key", baseUrl, new OpenAIClientProperties(), new SimpleMeterRegistry());
+        OpenAIModelRouter modelRouter = new OpenAIModelRouter("test-model", openAIClient, new OpenAIRoutingProperties(), new SimpleMeterRegistry());
+        ChatImagePreprocessor imagePreprocessor = new ChatImagePreprocessor(new ChatImageProperties(), new SimpleMeterRegistry());
+        openAIService = new OpenAIService("test-model", modelRouter, promptProvider, imagePreprocessor,
+                new OpenAIPricing(new OpenAIPricingProperties()));
+        openAIStreamService = new OpenAIStreamService("test-model", modelRouter, promptProvider, imagePreprocessor,
+                new ChatStreamMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("체인이 유효하면 previous_response_id와 새 메시지만 전송한다")
+    void sendsOnlyNewTurnWithPreviousResponseId() {
+        responses.add(StubResponse.json(200, completedResponse("resp_new", "답변")));
+        AtomicInteger fallbackCalls = new AtomicInteger();
+
+        OpenAIResponse response = openAIService.sendMessageWithPreviousResponse("질문", null, "resp_old", () -> {
+            fallbackCalls.incrementAndGet();
+            return history();
+        });
+
+        assertEquals("resp_new", response.getResponseId());
+        assertEquals("답변", response.getContent());
+        assertEquals(0, fallbackCalls.get());
+
+        assertEquals(1, requests.size());
+        JsonNode request = requests.get(0);
+        assertEquals("resp_old", request.path("previous_response_id").asText());
+        assertTrue(request.path("store").asBoolean());
+        assertFalse(request.path("input").asText().contains("이전 답변"));
+    }
+
+    @Test
+    @DisplayName("체인이 만료되면 전체 히스토리로 다시 요청한다")
+    void fallsBackToFullHistoryWhenChainExpired() {
+        responses.add(StubResponse.json(400, EXPIRED_BODY));
+        responses.add(StubResponse.json(200, completedResponse("resp_new", "답변")));
+
+        OpenAIResponse response = openAIService.sendMessageWithPreviousResponse("질문", null, "resp_old", this::history);
+
+        assertEquals("resp_new", response.getResponseId());
+        assertEquals(2, requests.size());
+        JsonNode retry = requests.get(1);
+        assertTrue(retry.path("previous_response_id").isMissingNode());
+        assertTrue(retry.path("input").asText().contains("이전 답변"));
+    }
+
+    @Test
+    @DisplayName("스트림 - 체인이 유효하면 previous_response_id로 요청한다")
+    void streamsWithPreviousResponseId() {
+        responses.add(StubResponse.eventStream(streamBody("resp_new", "답변")));
+
+        List<String> lines = openAIStreamService
+                .sendMessageStreamWithPreviousResponse("질문", null, "resp_old", Mono.fromCallable(this::history))
+                .collectList()
+                .block();
+
+        assertNotNull(lines);
+        assertTrue(lines.stream().anyMatch(line -> line.contains("resp_new")));
+        assertEquals(1, requests.size());
+        assertEquals("resp_old", requests.get(0).path("previous_response_id").asText());
+    }
+
+    @Test
+    @DisplayName("스트림 - 체인이 만료되면 전체 히스토리로 다시 요청한다")
+    void streamFallsBackToFullHistoryWhenChainExpired() throws IOException {
+        responses.add(StubResponse.json(400, EXPIRED_BODY));
+        responses.add(StubResponse.eventStream(streamBody("resp_new", "답변")));
+
+        List<String> lines = openAIStreamService
+                .sendMessageStreamWithPreviousResponse("질문", null, "resp_old", Mono.fromCallable(this::history))
+                .collectList()
+                .block();
+
+        assertNotNull(lines);
+        assertEquals(2, requests.size());
+        JsonNode retry = requests.get(1);
+        assertTrue(retry.path("previous_response_id").isMissingNode());
+        assertTrue(retry.path("input").asText().contains("이전 답변"));
+
+        // response.created에서 다음 체인에 쓸 응답 ID를 읽는다
+        String responseId = null;
+        for (String line : lines) {
+            OpenAIStreamEventParser.OpenAIStreamEvent event = OpenAIStreamEventParser.parse(line);
+            if (event.hasResponseId()) {
+                responseId = event.responseId();
+            }
+        }
+        assertEquals("resp_new", responseId);
+    }
+
+    private List<Map<String, Object>> history() {
+        return List.of(
+                Map.of("role", "user", "content", "이전 질문"),
+                Map.of("role", "assistant", "content", "이전 답변"));
+    }
+
+    private String completedResponse(String id, String text) {
+        return """
+                {"id":"%s","object":"response","output":[{"type":"message","content":[{"type":"output_text","text":"%s"}]}],\
+                "usage":{"input_tokens":10,"output_tokens":5,"total_tokens":15}}""".formatted(id, text);
+    }
+
+    private String streamBody(String id, String text) {
+        return """
+                event: response.created
+                data: {"type":"response.created","sequence_number":0,"response":{"id":"%1$s","object":"response"}}
+
+                event: response.output_text.delta
+                data: {"type":"response.output_text.delta","sequence_number":1,"delta":"%2$s"}
+
+                event: response.completed
+                data: {"type":"response.completed","sequence_number":2,"response":{"id":"%1$s","object":"response"}}
+
+                """.formatted(id, text);
+    }
+
+    private record StubResponse(int status, String contentType, String body) {
+
+        static StubResponse json(int status, String body) {
+            return new StubResponse(status, "application/json", body);
+        }
+
+        static StubResponse eventStream(String body) {
+            return new StubResponse(200, "text/event-stream", body);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.global.config.properties.OpenAIClientProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 재시도 예산을 로컬 스텁 서버로 검증 (모든 호출이 503으로 실패하는 장애 상황)
+ */
+class OpenAIRetryBudgetTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+    private OpenAIClient openAIClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/responses", exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "{\"error\":{\"message\":\"overloaded\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(503, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        OpenAIClientProperties properties = new OpenAIClientProperties();
+        properties.setWarmupConnections(0);
+        properties.getRateLimit().setTokensPerMinute(0);
+        // 서킷이 열리면 재시도 전에 거절되므로 이 테스트에서는 열리지 않게 둔다
+        properties.getCircuitBreaker().setMinimumCalls(1_000);
+        properties.getCircuitBreaker().setSlidingWindowSize(1_000);
+        properties.getRetry().setMaxAttempts(3);
+        properties.getRetry().setBackoff(Duration.ofMillis(1));
+        properties.getRetry().setBudgetRatio(0.5);
+        properties.getRetry().setBudgetMax(2);
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        openAIClient = new OpenAIClient("test-key", baseUrl, properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("모든 호출이 실패하면 재시도는 처음 예산(budgetMax)만큼만 하고 이후 호출은 바로 실패한다")
+    void retryBudgetCapsRetriesWhileAllCallsFail() {
+        int calls = 10;
+        for (int i = 0; i < calls; i++) {
+            OpenAIApiException error = assertThrows(OpenAIApiException.class,
+                    () -> openAIClient.post("response", Map.of("model", "test-model", "input", "질문")).block());
+            assertEquals(503, error.getStatus());
+        }
+
+        assertEquals(calls + 2, requests.get());
+        assertEquals(2, registry.get("divary.openai.retries").tag("result", "retried").counter().count());
+        assertEquals(0, registry.get("divary.openai.retry.budget").gauge().value());
+    }
+}
@@ -0,0 +1,108 @@
+package com.divary.domain.chatroom.service;
+
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.OpenAIStreamEvent;
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.OpenAIStreamEventType;
+import com.divary.domain.chatroom.service.OpenAIStreamEventParser.Usage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Responses API 스트림 이벤트 한 줄 파싱 (필드 순서, JSON이 아닌 줄 포함)
+ */
+class OpenAIStreamEventParserTest {
+
+    @Test
+    @DisplayName("output_text.delta에서 delta를 읽는다 (data: 접두사, 필드 순서 무관)")
+    void parsesDelta() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse(
+                "data: {\"type\":\"response.output_text.delta\",\"sequence_number\":3,\"delta\":\"안녕 \\\"버디\\\"\"}");
+        assertTrue(event.hasDelta());
+        assertEquals("안녕 \"버디\"", event.delta());
+
+        OpenAIStreamEvent reordered = OpenAIStreamEventParser.parse(
+                "{\"delta\":\"abc\",\"item_id\":\"msg_1\",\"type\":\"response.output_text.delta\"}");
+        assertEquals("abc", reordered.delta());
+    }
+
+    @Test
+    @DisplayName("빈 delta는 무시한다")
+    void ignoresEmptyDelta() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse("{\"type\":\"response.output_text.delta\",\"delta\":\"\"}");
+        assertFalse(event.hasDelta());
+    }
+
+    @Test
+    @DisplayName("response.created에서 응답 ID를 읽는다 (response가 type보다 먼저 와도)")
+    void parsesCreated() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse(
+                "{\"type\":\"response.created\",\"sequence_number\":0,\"response\":{\"object\":\"response\",\"id\":\"resp_1\"}}");
+        assertEquals("resp_1", event.responseId());
+
+        OpenAIStreamEvent reordered = OpenAIStreamEventParser.parse(
+                "{\"response\":{\"id\":\"resp_2\",\"output\":[]},\"type\":\"response.created\"}");
+        assertEquals("resp_2", reordered.responseId());
+    }
+
+    @Test
+    @DisplayName("response.completed에서 모델과 사용량을 읽는다")
+    void parsesCompleted() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse("""
+                {"type":"response.completed","response":{"id":"resp_1","model":"gpt-5-nano",\
+                "output":[{"type":"message","content":[{"type":"output_text","text":"답변"}]}],\
+                "usage":{"input_tokens":12,"input_tokens_details":{"cached_tokens":0},"output_tokens":7,"total_tokens":19}}}""");
+        assertEquals(OpenAIStreamEventType.COMPLETED, event.type());
+        assertEquals(new Usage("gpt-5-nano", 12, 7, 19), event.usage());
+    }
+
+    @Test
+    @DisplayName("response.incomplete도 완료로 보고 사용량을 읽는다")
+    void parsesIncompleteAsCompleted() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse(
+                "{\"type\":\"response.incomplete\",\"response\":{\"model\":\"gpt-5-nano\",\"usage\":{\"input_tokens\":5,\"output_tokens\":450}}}");
+        assertEquals(OpenAIStreamEventType.COMPLETED, event.type());
+        assertEquals(new Usage("gpt-5-nano", 5, 450, 455), event.usage());
+    }
+
+    @Test
+    @DisplayName("필드 순서가 바뀐 completed도 같은 결과 (response가 type보다, usage가 model보다 먼저)")
+    void parsesReorderedCompleted() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse(
+                "{\"response\":{\"usage\":{\"total_tokens\":19,\"output_tokens\":7,\"input_tokens\":12},\"id\":\"resp_1\",\"model\":\"gpt-5-nano\"},"
+                        + "\"sequence_number\":9,\"type\":\"response.completed\"}");
+        assertEquals(OpenAIStreamEventType.COMPLETED, event.type());
+        assertEquals(new Usage("gpt-5-nano", 12, 7, 19), event.usage());
+    }
+
+    @Test
+    @DisplayName("usage 없는 completed는 사용량 없이 완료")
+    void parsesCompletedWithoutUsage() throws IOException {
+        OpenAIStreamEvent event = OpenAIStreamEventParser.parse("{\"type\":\"response.completed\",\"response\":{\"id\":\"resp_1\"}}");
+        assertEquals(OpenAIStreamEventType.COMPLETED, event.type());
+        assertFalse(event.hasUsage());
+    }
+
+    @Test
+    @DisplayName("실패 이벤트와 관심 없는 이벤트")
+    void parsesFailedAndOther() throws IOException {
+        assertEquals(OpenAIStreamEventType.FAILED,
+                OpenAIStreamEventParser.parse("{\"type\":\"error\",\"message\":\"boom\"}").type());
+        assertEquals(OpenAIStreamEventType.FAILED,
+                OpenAIStreamEventParser.parse("{\"response\":{\"id\":\"resp_1\"},\"type\":\"response.failed\"}").type());
+        assertSame(OpenAIStreamEvent.IGNORED,
+                OpenAIStreamEventParser.parse("{\"type\":\"response.output_item.added\",\"item\":{\"type\":\"message\"}}"));
+    }
+
+    @Test
+    @DisplayName("JSON이 아닌 줄은 무시한다")
+    void ignoresNonJsonLines() throws IOException {
+        assertSame(OpenAIStreamEvent.IGNORED, OpenAIStreamEventParser.parse(null));
+        assertSame(OpenAIStreamEvent.IGNORED, OpenAIStreamEventParser.parse(""));
+        assertSame(OpenAIStreamEvent.IGNORED, OpenAIStreamEventParser.parse("[DONE]"));
+        assertSame(OpenAIStreamEvent.IGNORED, OpenAIStreamEventParser.parse("event: response.created"));
+        assertSame(OpenAIStreamEvent.IGNORED, OpenAIStreamEventParser.parse("{\"sequence_number\":1}"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.divary.integration;
+
+import com.divary.common.response.ApiResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 동기(POST /chatrooms)와 논블로킹(POST /chatrooms/async) 채팅 전송의 동시 처리 한도 비교
+ * Hikari 풀을 4개로 고정하고 OpenAI는 매 응답을 UPSTREAM_LATENCY만큼 늦추는 스텁 서버로 대체한 뒤,
+ * 동시 요청 수를 늘려 가며 성공한 요청 수와 소요 시간을 출력한다.
+ * 동기 API는 AI 응답을 기다리는 동안 트랜잭션이 커넥션을 잡고 있어, 풀 크기를 넘는 요청은 커넥션 대기 한도 안에
+ * 자리가 나지 않으면 실패한다. 논블로킹 API는 저장할 때만 커넥션을 잠깐 쓰므로 풀 크기와 무관하게 처리된다.
+ *
+ * 실행: LOAD_TEST=true ./gradlew test --tests '*ChatRoomAsyncLoadTest'
+ */
+@EnabledIfEnvironmentVariable(named = "LOAD_TEST", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=" + ChatRoomAsyncLoadTest.POOL_SIZE,
+        "spring.datasource.hikari.minimum-idle=" + ChatRoomAsyncLoadTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=2000",
+        "chat.answer-cache.enabled=false",
+        "chat.context.summary.enabled=false",
+        "openai.client.warmup-connections=0",
+        "openai.client.keep-warm-interval=0s"
+})
+class ChatRoomAsyncLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatRoomAsyncLoadTest.class);
+
+    static final int POOL_SIZE = 4;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(1500);
+    private static final int[] CONCURRENCY = {4, 8, 16, 32, 64};
+
+    private static final String STUB_RESPONSE = """
+            {"id":"resp_load_test","output":[{"type":"message","content":[{"type":"output_text","text":"부력 조절기를 먼저 점검하세요."}]}],
+             "usage":{"input_tokens":120,"output_tokens":12,"total_tokens":132}}
+            """;
+
+    private static final HttpServer openAIStub = startOpenAIStub();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    String baseUrl;
+    String authToken;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void openAIProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.api.base-url", () -> "http://127.0.0.1:" + openAIStub.getAddress().getPort());
+        registry.add("openai.api.key", () -> "load-test-key");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        openAIStub.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        String email = "load+" + System.currentTimeMillis() + "@divary.com";
+        rest.postForEntity(baseUrl + "/system/test-user?email=" + email.replace("@", "%40"), null, ApiResponse.class);
+        ResponseEntity<ApiResponse> token = rest.postForEntity(
+                baseUrl + "/system/test-token?email=" + email.replace("@", "%40"), null, ApiResponse.class);
+        assertEquals(HttpStatus.OK, token.getStatusCode());
+        authToken = (String) Objects.requireNonNull(token.getBody()).getData();
+    }
+
+    @Test
+    @DisplayName("고정 커넥션 풀에서 논블로킹 전송은 동기 전송보다 많은 동시 채팅을 처리한다")
+    void compareConcurrentChats() {
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-12s %-22s %-22s", "concurrency", "POST /chatrooms", "POST /chatrooms/async"));
+
+        Result lastBlocking = null;
+        Result lastAsync = null;
+        for (int concurrency : CONCURRENCY) {
+            Result blocking = run("/chatrooms", concurrency);
+            Result async = run("/chatrooms/async", concurrency);
+            rows.add(String.format("%-12d %-22s %-22s", concurrency, blocking, async));
+
+            assertTrue(async.succeeded() >= blocking.succeeded(),
+                    "논블로킹 전송의 성공 수가 동기 전송보다 적음: " + async + " < " + blocking);
+            lastBlocking = blocking;
+            lastAsync = async;
+        }
+
+        String table = "Hikari pool=" + POOL_SIZE + ", upstream latency=" + UPSTREAM_LATENCY.toMillis() + "ms\n"
+                + String.join("\n", rows);
+        log.info("동시 채팅 처리 비교\n{}", table);
+
+        int maxConcurrency = CONCURRENCY[CONCURRENCY.length - 1];
+        assertEquals(maxConcurrency, lastAsync.succeeded(), "논블로킹 전송은 풀 크기와 무관하게 모두 성공해야 함\n" + table);
+        assertTrue(lastBlocking.succeeded() < maxConcurrency, "동기 전송은 풀 크기를 넘는 동시 요청에서 실패가 발생해야 함\n" + table);
+    }
+
+    // 동시에 concurrency개의 새 채팅방 메시지를 보내고 200 응답 수와 전체 소요 시간을 잰다
+    private Result run(String path, int concurrency) {
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(chatRequest(path, "마스크에 김이 서리는 이유가 뭔가요? #" + i),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            try {
+                if (response.join().statusCode() == HttpStatus.OK.value()) {
+                    succeeded++;
+                }
+            } catch (RuntimeException e) {
+                // 연결 실패도 실패로 집계
+            }
+        }
+        return new Result(succeeded, concurrency, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private HttpRequest chatRequest(String path, String message) {
+        String boundary = "----divary" + System.nanoTime();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"message\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                + message + "\r\n"
+                + "--" + boundary + "--\r\n";
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + authToken)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    // 모든 경로에 지연 후 같은 응답 (제목 생성/워밍업 요청 포함)
+    private static HttpServer startOpenAIStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    Thread.sleep(UPSTREAM_LATENCY.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = STUB_RESPONSE.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Result(int succeeded, int total, Duration elapsed) {
+
+        @Override
+        public String toString() {
+            return succeeded + "/" + total + " ok, " + elapsed.toMillis() + "ms";
+        }
+    }
+}